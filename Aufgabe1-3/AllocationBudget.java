@@ -0,0 +1,152 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm, all methods are static and work only with the given parameters.
+ */
+
+/*
+    AllocationBudget checks that the hot paths do not allocate more memory than allowed. It measures the bytes allocated
+    by the current thread (com.sun.management.ThreadMXBean.getThreadAllocatedBytes()) per tick in each subsystem of a
+    seeded 250*250 world (the parameters of Simulation3 in Test) after a warmup, so the JIT has already removed
+    the allocations it can remove. Only the current thread is measured: the subsystems are called directly (not by
+    World.run()), so none of them runs on another thread. A subsystem which hands work to other threads (e.G a
+    parallel stream) would have to sum the bytes of all threads instead, which also counts the JIT and other threads:
+        scent        Field.decreaseScent() of all fields with scent (bytes per tick)
+        movement     Ant.move() of all ants (bytes per tick)
+        pathfinding  World.setHeight() with the repair of IncrementalDijkstra and Dijkstra.shortestPath() of each food
+                     (bytes per change of the terrain)
+        rendering    World.publishFrame() and Rasterizer.drawChanges() (bytes per tick)
+    If a subsystem allocates more than its budget, the program ends with exit code 1, so it can be used like a test
+    (e.G before a commit). When a subsystem gets cheaper, its budget should be lowered, so it stays cheap.
+
+    usage: java AllocationBudget [ticks=200] [warmup=300] [seed=42] [budget.<subsystem>=<bytes> ...]
+ */
+
+
+//Module/Class AllocationBudget
+//Abstraction: Simulation
+//uses instances of World, Field, Ant, Dijkstra, Rasterizer, Benchmarks and ThreadMXBean, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class AllocationBudget {
+
+    //the allowed bytes of each subsystem (see the description above) in the world of the default seed, about 10 - 20 %
+    //more than the measured bytes
+    private static final Map<String, Long> defaultBudgets = new LinkedHashMap<>();
+    static {
+        defaultBudgets.put("scent", 4_000L); // measured: 139 - 3_400, depending on when the JIT has compiled decreaseScent()
+        defaultBudgets.put("movement", 7_000L); // measured: 5_900 - 6_150
+        defaultBudgets.put("pathfinding", 110_000_000L); // measured: 95_272_431
+        defaultBudgets.put("rendering", 12_000_000L); // measured: 10_290_265
+    }
+
+    private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+
+    //Module method of module AllocationBudget
+    public static void main(String[] args) throws Exception {
+        Properties properties = HeadlessRunner.readArguments(args);
+        int ticks = Integer.parseInt(properties.getProperty("ticks", "200"));
+        int warmup = Integer.parseInt(properties.getProperty("warmup", "300"));
+        long seed = Long.parseLong(properties.getProperty("seed", "42"));
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("the JVM can not measure the allocated bytes of a thread");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Map<String, Long> measured = measure(seed, warmup, ticks);
+
+        boolean failed = false;
+        System.out.printf("%-14s%16s%16s%n", "subsystem", "bytes", "budget");
+        for (Map.Entry<String, Long> entry : measured.entrySet()) {
+            long budget = Long.parseLong(properties.getProperty("budget." + entry.getKey(), "" + defaultBudgets.get(entry.getKey())));
+            boolean exceeded = entry.getValue() > budget;
+            failed |= exceeded;
+            System.out.printf("%-14s%16d%16d%s%n", entry.getKey(), entry.getValue(), budget, exceeded ? "  EXCEEDED" : "");
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+
+    //Module method
+    /**
+     * this method runs the subsystems of a seeded world and measures their allocations.
+     * @param seed the seed of the world
+     * @param warmup how many ticks are run before the measurement
+     * @param ticks how many ticks are measured
+     * @return the bytes allocated per tick (or per change of the terrain) of each subsystem
+     */
+    public static Map<String, Long> measure(long seed, int warmup, int ticks) {
+        World world = Benchmarks.createWorld(250, seed);
+        world.setFramePublishing(true);
+        world.publishFrame();
+        Rasterizer rasterizer = new Rasterizer(250, Rasterizer.imageWidth(250), world.getMaxHeight(), world.getColonies());
+        rasterizer.drawAll(world.getLatestFrame());
+        SimulationRandom random = new SimulationRandom(seed);
+
+        long[] bytes = new long[4]; // scent, movement, pathfinding, rendering
+        for (int tick = 0; tick < warmup + ticks; tick++) {
+            boolean measuring = tick >= warmup;
+
+            long start = allocatedBytes();
+            for (Field[] row : world.getFields()) {
+                for (Field field : row) {
+                    if (!field.getAntScent().isEmpty()) {
+                        field.decreaseScent();
+                    }
+                }
+            }
+            long end = allocatedBytes();
+            bytes[0] += measuring ? end - start : 0;
+
+            start = allocatedBytes();
+            for (Ant ant : world.getAnts()) {
+                if (ant != null) {
+                    ant.move();
+                }
+            }
+            end = allocatedBytes();
+            bytes[1] += measuring ? end - start : 0;
+
+            if (tick % 10 == 0) {
+                int x = random.nextInt(250);
+                int y = random.nextInt(250);
+                start = allocatedBytes();
+                world.setHeight(x, y, random.nextInt(world.getMaxHeight() + 1));
+                for (Coordinate food : world.foods()) {
+                    Dijkstra.shortestPath(food, world.getHome(), world.getFields());
+                }
+                end = allocatedBytes();
+                bytes[2] += measuring ? end - start : 0;
+            }
+
+            Frame drawn = world.getLatestFrame();
+            start = allocatedBytes();
+            world.publishFrame();
+            rasterizer.drawChanges(world.getLatestFrame(), drawn);
+            end = allocatedBytes();
+            bytes[3] += measuring ? end - start : 0;
+        }
+
+        Map<String, Long> measured = new LinkedHashMap<>();
+        int edits = (ticks + 9) / 10;
+        measured.put("scent", bytes[0] / ticks);
+        measured.put("movement", bytes[1] / ticks);
+        measured.put("pathfinding", bytes[2] / edits);
+        measured.put("rendering", bytes[3] / ticks);
+        return measured;
+    }
+
+
+    //Module method
+    /**
+     * @return how many bytes the current thread has allocated so far (the bytes of other threads are not counted)
+     */
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -1,8 +1,7 @@
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Style: Object oriented.
@@ -36,7 +35,7 @@ import java.util.stream.Collectors;
 
 //Modul/Class Ant
 //Abstraction: real world
-//uses instances/references of Field, Coordinate, Direction, HashMap and AntState therefore operates on a higher level of abstraction
+//uses instances/references of Field, Coordinate, Direction, AntMemory and AntState therefore operates on a higher level of abstraction
 //gets used in class World, therefore operates on a lower level of abstraction
 public class Ant {
     // the current postion of the ant
@@ -54,6 +53,8 @@ public class Ant {
     // Chance multiplier for the field in the current direction to take this field in Search or carry
     private static final int directionMultiplier = 2;
     // constant when the field is counted as strong scent
+    private static final Direction[] directions = Direction.values(); // to read the direction and the AntState from a checkpoint
+    private static final AntState[] antStates = AntState.values();
     private static final int scentThreshhold = 51; // threshhold for scent. when scent on field is below threshhold it is a weak scent
     private double difference;
     private final Map<Field, Integer> shortestPaths;
@@ -63,9 +64,9 @@ public class Ant {
     //NOTE: shift from object-oriented to procedural
     private Building antColony;
     private Coordinate newHomePostion;
-    private Map<Coordinate,Integer> usedFields = new HashMap<>(); // stores how often a path was taken
+    private AntMemory memory; // stores how often a path was taken (see World.setSketchMemory())
 
-    private static int maxMemory = 50; // how strong a field can be memorized
+    private final SimulationRandom random; // every ant has its own random numbers, created from the seed of the world
 
 
     //Class method
@@ -77,12 +78,72 @@ public class Ant {
     public Ant(Coordinate position, World world, Map<Field, Integer> shortestPaths, Building antColony) {
         this.position = position;
         this.world = world;
-        this.direction = Direction.randomDirection();
+        this.random = new SimulationRandom(world.nextSeed());
+        this.direction = Direction.randomDirection(this.random);
         this.difference = 0;
         this.counting = false;
         this.shortestPaths = shortestPaths;
         this.pathCount = Integer.MIN_VALUE;
         this.antColony = antColony;
+        this.memory = world.newAntMemory();
+    }
+
+
+    //Class method
+    /**
+     * this constructor reads the state of an ant from a checkpoint (see writeCheckpoint()), it does not take a seed
+     * from the world.
+     * @param world reference of the world, its fields and colonies have to be loaded already
+     * @param shortestPaths the ants' shortest path of each food field of the world
+     * @param in the checkpoint
+     */
+    public Ant(World world, Map<Field, Integer> shortestPaths, WorldCheckpoint.Input in) throws IOException {
+        this.world = world;
+        this.shortestPaths = shortestPaths;
+        this.position = new Coordinate(in.getInt(), in.getInt(), in.getInt());
+        this.direction = directions[in.getByte()];
+        this.antstate = antStates[in.getByte()];
+        this.noStrongScentCtr = in.getInt();
+        this.difference = in.getDouble();
+        this.pathCount = in.getInt();
+        this.counting = in.getBoolean();
+        int foodCell = in.getInt();
+        int fieldLength = world.getFields().length;
+        this.foodField = foodCell < 0 ? null : world.getFields()[foodCell / fieldLength][foodCell % fieldLength];
+        this.antColony = world.getColonies()[in.getInt()];
+        this.newHomePostion = in.getBoolean() ? new Coordinate(in.getInt(), in.getInt(), in.getInt()) : null;
+        this.random = new SimulationRandom(0);
+        this.random.setState(in.getLong());
+        this.memory = AntMemory.readCheckpoint(in);
+    }
+
+
+    //Class method
+    /**
+     * this method writes the state of the ant into a checkpoint (see WorldCheckpoint). The ant is not in the
+     * antsOnField list of a field yet, the world writes these lists itself.
+     * @param out the checkpoint
+     */
+    public void writeCheckpoint(WorldCheckpoint.Output out) throws IOException {
+        out.putInt(this.position.getPosX());
+        out.putInt(this.position.getPosY());
+        out.putInt(this.position.getPosZ());
+        out.putByte(this.direction.ordinal());
+        out.putByte(this.antstate.ordinal());
+        out.putInt(this.noStrongScentCtr);
+        out.putDouble(this.difference);
+        out.putInt(this.pathCount);
+        out.putBoolean(this.counting);
+        out.putInt(this.foodField == null ? -1 : this.foodField.getCell());
+        out.putInt(this.antColony.id);
+        out.putBoolean(this.newHomePostion != null);
+        if (this.newHomePostion != null) {
+            out.putInt(this.newHomePostion.getPosX());
+            out.putInt(this.newHomePostion.getPosY());
+            out.putInt(this.newHomePostion.getPosZ());
+        }
+        out.putLong(this.random.getState());
+        this.memory.writeCheckpoint(out);
     }
 
 
@@ -90,32 +151,36 @@ public class Ant {
     /**
      * this method moves the ant to the next field according to the current antState.
      * When the ant moves it will increase the new fields' scent and updates the antsOnField list of the old and new field.
+     * @return true if the ant moved to another field, false if it only waited, turned or changed its state
      */
-    public void move() {
+    public boolean move() {
 
         if(difference > 0) {
             difference -= 1;
-            return;
+            return false;
         }
 
-        Coordinate[] relevantFieldPositions = this.getRelevantFieldCoordinates();
+        Coordinate[] relevantFieldPositions = this.withoutObstacles(this.getRelevantFieldCoordinates());
+        if (relevantFieldPositions.length == 0) {
+            //every field in front of the ant is blocked
+            this.turnAround();
+            return false;
+        }
         Coordinate newCoordinate;
         List<Coordinate> coordinatesStrongScent = new ArrayList<>();
         List<Coordinate> coordinatesWeakScent = new ArrayList<>();
         switch (this.antstate) {
             case CARRYING:
-                if (this.getCurrentField().getFieldState() == FieldState.HOME && this.getCurrentField().getBuilding().id == this.antColony.id) {
+                if (this.getCurrentField().isHomeOf(this.antColony)) {
                     if(this.antColony.id == 0) {
-                        if(pathCount < shortestPaths.get(foodField)) {
-                            shortestPaths.put(foodField, pathCount);
-                        }
+                        shortestPaths.merge(foodField, pathCount, Math::min); // atomic, because ants can be moved in parallel
                         pathCount = Integer.MIN_VALUE;
                         counting = false;
                     }
                     counting = false;
-                    this.antstate = AntState.SEARCHING;
+                    this.changeState(AntState.SEARCHING);
                     turnAround();
-                    return;
+                    return false;
                 }
                 
                 Coordinate homeField = getHomefield(relevantFieldPositions);
@@ -131,14 +196,14 @@ public class Ant {
 
             case SEARCHING:
                 if (this.getCurrentField().getFieldState() == FieldState.FOOD) {
-                    this.antstate = AntState.CARRYING;
+                    this.changeState(AntState.CARRYING);
                     this.turnAround();
                     if(this.getAntColony().id == 0) {
                         this.foodField = this.getCurrentField();
                         this.counting = true;
                         this.pathCount = 0;
                     }
-                    return;
+                    return false;
                 }
 
                 Coordinate foodField = getRandomNeighbourFieldOfState(relevantFieldPositions, FieldState.FOOD);
@@ -153,7 +218,7 @@ public class Ant {
 
                         if (noStrongScentCtr >= 3) {
                             noStrongScentCtr = 0;
-                            this.antstate = AntState.EXPLORING; // switch to exploring but still making the random step.
+                            this.changeState(AntState.EXPLORING); // switch to exploring but still making the random step.
                         }
 
                     } else {
@@ -168,48 +233,52 @@ public class Ant {
 
             case EXPLORING:
                 if (this.getCurrentField().getFieldState() == FieldState.FOOD) {
-                    this.antstate = AntState.CARRYING;
+                    this.changeState(AntState.CARRYING);
                     this.turnAround();
                     if(this.getAntColony().id == 0) {
                         this.foodField = this.getCurrentField();
                         this.counting = true;
                         this.pathCount = 0;
                     }
-                    return;
+                    return false;
                 }
 
                 // check if ant with food is on the same field or a strong scent on a neighbour field
-                for (Ant ant : this.getCurrentField().getAntsOnField()) {
-                    if (ant.getAntState() == AntState.CARRYING) {
-                        this.antstate = AntState.SEARCHING;
-                        this.noStrongScentCtr = 0;
-                        return;
-                    }
+                if (this.isCarryingAntOnField()) {
+                    this.changeState(AntState.SEARCHING);
+                    this.noStrongScentCtr = 0;
+                    return false;
                 }
 
                 for (Coordinate coordinate : relevantFieldPositions) {
                     if (this.getEffectiveScent(coordinate) >= scentThreshhold) {
-                        this.antstate = AntState.SEARCHING;
+                        this.changeState(AntState.SEARCHING);
                         this.noStrongScentCtr = 0;
-                        return;
+                        return false;
                     }
                 }
 
-                newCoordinate = relevantFieldPositions[(int) Math.floor(Math.random() * relevantFieldPositions.length)]; // select a random field of the array
+                newCoordinate = relevantFieldPositions[(int) Math.floor(this.random.nextDouble() * relevantFieldPositions.length)]; // select a random field of the array
                 changeField(newCoordinate, position);
                 break;
             case CREATINGHOME:
                 if(this.position.equals(this.newHomePostion)) {
                     this.createColony();
                     this.newHomePostion = null;
-                    this.antstate = AntState.SEARCHING;
+                    this.changeState(AntState.SEARCHING);
+                    return false;
                 } else {
                     assert this.newHomePostion != null;
                     newCoordinate = this.getNextFieldToPosition(this.newHomePostion);
+                    if (this.getFieldFromCoordinate(newCoordinate).getFieldState() == FieldState.OBSTACLE) {
+                        //walk around the obstacle
+                        newCoordinate = relevantFieldPositions[(int) Math.floor(this.random.nextDouble() * relevantFieldPositions.length)];
+                    }
                     changeField(newCoordinate, position);
                 }
                 break;
         }
+        return true;
     }
 
 
@@ -249,28 +318,43 @@ public class Ant {
     public void createNewColony(Building newAntColony, Coordinate newColonyPosition) {
         this.setAntColony(newAntColony);
         this.newHomePostion=newColonyPosition;
-        this.antstate=AntState.CREATINGHOME;
+        this.changeState(AntState.CREATINGHOME);
+        this.world.markChanged(this.position.getPosX(), this.position.getPosY()); // the ant has another color now
     }
 
 
     //Class method
     /**
-     * this method creates the new colony on the field where the ant is currently on
+     * @return the coordinate of the field the ant is on
      */
-    private void createColony () {
-        this.getCurrentField().setBuilding(this.antColony);
-        this.getCurrentField().setFieldState(FieldState.HOME);
-        this.world.createAnts(this.antColony.id);
+    public Coordinate getPosition() {
+        return this.position;
     }
 
 
-    //Module method
+    //Class method
     /**
-     * This is a module variable because all ants shall have the same memory limit
-     * @param maxMemory sets the maximal Memory for each field
+     * this method changes the AntState and tells the world about it (see World.antStateChanged())
+     * @param state the new state of the ant
      */
-    public static void setMaxMemory(int maxMemory) {
-        Ant.maxMemory = maxMemory;
+    private void changeState(AntState state) {
+        if (this.antstate != state) {
+            AntState old = this.antstate;
+            this.antstate = state;
+            this.world.antStateChanged(this, old, state);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method creates the new colony on the field where the ant is currently on
+     */
+    private void createColony () {
+        this.getCurrentField().setHome(this.antColony);
+        this.world.markChanged(this.position.getPosX(), this.position.getPosY());
+        this.world.colonyFounded(this);
+        this.world.createAnts(this.antColony.id);
     }
 
 
@@ -299,17 +383,35 @@ public class Ant {
      *         in CARRYING the effective Scent is (Scent from own Colony (with own scent) - scent from other Colonies)
      */
     private int getEffectiveScent(Coordinate coordinate) {
-        int totalScent = this.world.getFields()[coordinate.getPosY()][coordinate.getPosX()].getTotalScent();
-        int colonyScent = this.world.getFields()[coordinate.getPosY()][coordinate.getPosX()].getScentOfBuilding(this.antColony);
-        int ownScent = this.world.getFields()[coordinate.getPosY()][coordinate.getPosX()].getScentOfAnt(this);
+        Field field = this.world.getFields()[coordinate.getPosY()][coordinate.getPosX()];
+        int colonyScent = field.getScentOfBuilding(this.antColony);
+        int ownScent = field.getScentOfAnt(this);
+        //the scent of the other colonies is read from the start of the tick if each colony moves on its own thread
+        int otherScent = this.world.getSteppingMode() == SteppingMode.COLONIES
+                ? this.world.getColonyStepper().getScentOfOtherColonies(coordinate.getPosX(), coordinate.getPosY(), this.antColony)
+                : field.getTotalScent() - colonyScent;
         return switch (this.antstate) {
-            case CARRYING -> (colonyScent ) - (totalScent - colonyScent);
-            case SEARCHING, EXPLORING -> (colonyScent - ownScent) - (totalScent - colonyScent);
+            case CARRYING -> (colonyScent ) - otherScent;
+            case SEARCHING, EXPLORING -> (colonyScent - ownScent) - otherScent;
             default -> 0;
         };
     }
 
 
+    //Class method
+    /**
+     * @return true if an ant which carries food is on the same field. If each colony moves on its own thread, the ants
+     *         of the other colonies are seen like at the start of the tick (see ColonyStepper.isCarryingAntOfOtherColony())
+     */
+    private boolean isCarryingAntOnField() {
+        if (this.world.getSteppingMode() == SteppingMode.COLONIES) {
+            return this.getCurrentField().hasAnt(AntState.CARRYING, this.antColony)
+                    || this.world.getColonyStepper().isCarryingAntOfOtherColony(this.position.getPosX(), this.position.getPosY(), this.antColony);
+        }
+        return this.getCurrentField().hasAnt(AntState.CARRYING, null);
+    }
+
+
     //Class method
     /**
      * this method updates the position and direction of the ant according to the new field and updates the antsOnField list
@@ -327,6 +429,9 @@ public class Ant {
         this.position = newCoordinate;
 
         newField.addAnt(this);
+        this.world.scentDeposited(this);
+        this.world.markChanged(oldCoordinate.getPosX(), oldCoordinate.getPosY());
+        this.world.markChanged(newCoordinate.getPosX(), newCoordinate.getPosY());
 
         if (this.antstate == AntState.CARRYING) {
             newField.increaseScentStrong(this);
@@ -351,17 +456,24 @@ public class Ant {
      * @param coordinate the coordinate to memorize
      */
     private void memorizeField(Coordinate coordinate) {
-        int count = usedFields.getOrDefault(coordinate,0)+1;
-        if (count > maxMemory) {
-            count = maxMemory;
-            //reduce other fields the current field wont be filtered out because it will overwrite the value at the end
-            // of the method
-            usedFields= usedFields.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e->Math.max(0,e.getValue()-1)));
-        }
-        usedFields.put(coordinate,count);
+        this.memory.memorizeField(coordinate, this.world.getMaxAntMemory()); // all ants of a world have the same memory limit
     }
 
 
+    //Class method
+    /**
+     * @return the memory of the ant
+     */
+    public AntMemory getMemory() { return this.memory; }
+
+
+    //Class method
+    /**
+     * @param memory the new (empty) memory of the ant, the fields memorized so far are forgotten
+     */
+    public void setMemory(AntMemory memory) { this.memory = memory; }
+
+
     //Class method
     /**
      * @return the current field of the ant
@@ -517,6 +629,32 @@ public class Ant {
     }
 
 
+    //Class method
+    /**
+     * @param coordinates the relevant neighbouring coordinates
+     * @return the given coordinates without the fields with an obstacle (the same array if there is no obstacle)
+     */
+    private Coordinate[] withoutObstacles(Coordinate[] coordinates) {
+        int passable = 0;
+        for (Coordinate coordinate : coordinates) {
+            if (this.getFieldFromCoordinate(coordinate).getFieldState() != FieldState.OBSTACLE) {
+                passable++;
+            }
+        }
+        if (passable == coordinates.length) {
+            return coordinates;
+        }
+        Coordinate[] result = new Coordinate[passable];
+        int i = 0;
+        for (Coordinate coordinate : coordinates) {
+            if (this.getFieldFromCoordinate(coordinate).getFieldState() != FieldState.OBSTACLE) {
+                result[i++] = coordinate;
+            }
+        }
+        return result;
+    }
+
+
     //Class method
     /**
      * @param neighbourCoordinates coordinates of all relevant neighbouring fields
@@ -537,7 +675,7 @@ public class Ant {
         }
 
         if (relevantCoordinates.isEmpty()) return null;
-        return relevantCoordinates.get((int) Math.floor(Math.random() * relevantCoordinates.size()));
+        return relevantCoordinates.get((int) Math.floor(this.random.nextDouble() * relevantCoordinates.size()));
     }
 
 
@@ -546,10 +684,12 @@ public class Ant {
      * @param neighbourCoordinates all neighbour coordinates the ant can move to
      * @return the coordinate where the Home of the ant is or null when it isn't in the list
      */
+    //NOTE: in SteppingMode.COLONIES the neighbours can be founded as home of another colony at the same time, isHomeOf()
+    //reads the FieldState and the building together and only the own colony can make a field its home, so the result
+    //does not depend on the other colonies
     private Coordinate getHomefield (Coordinate[] neighbourCoordinates) {
         for(Coordinate coord : neighbourCoordinates) {
-            if (this.getFieldFromCoordinate(coord).getFieldState() == FieldState.HOME &&
-                    this.getFieldFromCoordinate(coord).getBuilding().id == this.antColony.id) {
+            if (this.getFieldFromCoordinate(coord).isHomeOf(this.antColony)) {
                 return coord;
             }
         }
@@ -580,19 +720,19 @@ public class Ant {
             int scent = this.getEffectiveScent(neighbourCoordinate);
             if (minScent <= 0)
                 scent = (scent - minScent) + 1; // to set the lowest scent to atleast 1 and scale all other fields accordingly
-            scent += this.usedFields.getOrDefault(neighbourCoordinate,0);
+            scent += this.memory.getCount(neighbourCoordinate);
             if (neighbourCoordinate.equals(directionCoordinate)) scent = scent * Ant.directionMultiplier;
             scentSum += scent >= Ant.scentThreshhold ? scent * Ant.strongScentMultiplier : scent;
         }
 
-        int randomNumber = (int) Math.floor(Math.random() * scentSum);
+        int randomNumber = (int) Math.floor(this.random.nextDouble() * scentSum);
         scentSum = 0;
 
         for (Coordinate neighbourCoordinate : neighbourCoordinates) {
             int scent = this.getEffectiveScent(neighbourCoordinate);
             if (minScent <= 0)
                 scent = (scent - minScent) + 1; // to set the lowest scent to atleast 1 and scale all other fields accordingly
-            scent += this.usedFields.getOrDefault(neighbourCoordinate,0);
+            scent += this.memory.getCount(neighbourCoordinate);
             if (neighbourCoordinate.equals(directionCoordinate)) scent = scent * Ant.directionMultiplier;
             scentSum += scent >= Ant.scentThreshhold ? scent * strongScentMultiplier : scent;
             if (scentSum > randomNumber) return neighbourCoordinate;
@@ -0,0 +1,43 @@
+import java.io.IOException;
+
+//Modul/Interface AntMemory
+//gets implemented in ExactAntMemory and SketchAntMemory, therefore operates on a higher level of abstraction
+
+//Interface AntMemory
+//Abstraction: subtype-relationship
+//This interface holds how often an ant has moved on a field, so the ant prefers fields it has already taken (see Ant.memorizeField()).
+//gets used by class Ant
+public interface AntMemory {
+
+    /**
+     * this method memorizes that the ant has moved on the field.
+     * @param coordinate the coordinate of the field
+     * @param maxMemory the depth of the memory (see World.getMaxAntMemory()), no field is counted more often
+     */
+    public void memorizeField(Coordinate coordinate, int maxMemory);
+
+    /**
+     * @param coordinate the coordinate of a field
+     * @return how often the ant has moved on the field (between 0 and maxMemory)
+     */
+    public int getCount(Coordinate coordinate);
+
+    /**
+     * this method writes the memory into a checkpoint (see WorldCheckpoint), it starts with the type of the memory.
+     * @param out the checkpoint
+     */
+    public void writeCheckpoint(WorldCheckpoint.Output out) throws IOException;
+
+    /**
+     * @param in the checkpoint
+     * @return the memory which has been written by writeCheckpoint()
+     */
+    public static AntMemory readCheckpoint(WorldCheckpoint.Input in) throws IOException {
+        int type = in.getByte();
+        return switch (type) {
+            case ExactAntMemory.checkpointType -> ExactAntMemory.readCheckpoint(in);
+            case SketchAntMemory.checkpointType -> SketchAntMemory.readCheckpoint(in);
+            default -> throw new IOException("broken checkpoint: unknown type of ant memory " + type);
+        };
+    }
+}
@@ -0,0 +1,154 @@
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm, all methods are static and work only with the given parameters.
+ */
+
+/*
+    AntMemoryBenchmark measures how much the behaviour of the ants drifts when they use a SketchAntMemory instead of an
+    ExactAntMemory, and how much memory it saves:
+        estimation  a world with ExactAntMemory runs, and every ant gets a SketchAntMemory as a shadow which memorizes the
+                    same fields. After each tick the counts of both memories are compared for the 8 neighbours of each
+                    ant (the fields the ant chooses from): mean and max difference and how many counts are equal.
+        behaviour   the same seeded worlds run once with each memory: the convergence ratio at the end (see
+                    World.getConvergenceRatio()), the first tick where the paths converged, for how many food the ants
+                    have found a path, ticks/sec, ant-moves/sec and the used heap after a garbage collection.
+    The worlds have the parameters of WorldConfig (key=value overwrites them, e.G fieldLength=250 numberOfAnts=1000).
+
+    usage: java AntMemoryBenchmark [seeds=5] [ticks=3000] [ratio=1.5] [key=value of the world ...]
+ */
+
+
+//Module/Class AntMemoryBenchmark
+//Abstraction: Simulation
+//uses instances of World, WorldConfig, Ant, ExactAntMemory and SketchAntMemory, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class AntMemoryBenchmark {
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.fromProperties())
+    private static final List<String> controlKeys = List.of("seeds", "ticks", "ratio");
+
+    //the results of one memory in one world
+    public record Behaviour(double convergenceRatio, long convergedTick, int foundPaths, double ticksPerSecond, double antMovesPerSecond, double heapMB) { }
+
+
+    //Module method of module AntMemoryBenchmark
+    public static void main(String[] args) throws Exception {
+        Properties properties = HeadlessRunner.readArguments(args);
+        int seeds = Integer.parseInt(properties.getProperty("seeds", "5"));
+        long ticks = Long.parseLong(properties.getProperty("ticks", "3000"));
+        double ratio = Double.parseDouble(properties.getProperty("ratio", "1.5"));
+        WorldConfig base = WorldConfig.fromProperties(properties, controlKeys);
+        System.out.println(base);
+
+        System.out.println("estimation of the counts of the neighbour fields (SketchAntMemory compared with ExactAntMemory):");
+        System.out.printf("%-8s%14s%14s%12s%12s%n", "seed", "lookups", "equal %", "mean diff", "max diff");
+        for (int i = 0; i < seeds; i++) {
+            WorldConfig config = base.copy();
+            config.seed = i + 1;
+            config.sketchMemory = false;
+            long[] estimation = estimate(config.createWorld(), ticks);
+            System.out.printf("%-8d%14d%14.2f%12.4f%12d%n", config.seed, estimation[0], 100.0 * estimation[1] / estimation[0],
+                    (double) estimation[2] / estimation[0], estimation[3]);
+        }
+
+        System.out.println("behaviour:");
+        System.out.printf("%-8s%-8s%12s%12s%8s%12s%16s%12s%n", "seed", "memory", "ratio", "converged", "found", "ticks/s", "ant-moves/s", "heap MB");
+        for (int i = 0; i < seeds; i++) {
+            for (boolean sketch : new boolean[]{false, true}) {
+                WorldConfig config = base.copy();
+                config.seed = i + 1;
+                config.sketchMemory = sketch;
+                Behaviour behaviour = behave(config, ticks, ratio);
+                System.out.printf("%-8d%-8s%12.3f%12s%8s%12.1f%16.1f%12.1f%n", config.seed, sketch ? "sketch" : "exact",
+                        behaviour.convergenceRatio(), behaviour.convergedTick() < 0 ? "-" : "" + behaviour.convergedTick(),
+                        behaviour.foundPaths() + "/" + config.numberOfFood, behaviour.ticksPerSecond(), behaviour.antMovesPerSecond(), behaviour.heapMB());
+            }
+        }
+    }
+
+
+    //Module method
+    /**
+     * this method runs the world with a SketchAntMemory as shadow of each ant and compares the counts of both memories.
+     * @param world a world whose ants use an ExactAntMemory
+     * @param ticks how many ticks are run
+     * @return the number of compared counts, how many of them were equal, the sum and the maximum of the differences
+     */
+    public static long[] estimate(World world, long ticks) {
+        int maxMemory = world.getMaxAntMemory();
+        int fieldLength = world.getFields().length;
+        Ant[] ants = world.getAnts();
+        SketchAntMemory[] shadows = new SketchAntMemory[ants.length];
+        Coordinate[] positions = new Coordinate[ants.length];
+        long lookups = 0;
+        long equal = 0;
+        long differenceSum = 0;
+        long maxDifference = 0;
+        for (long tick = 0; tick < ticks; tick++) {
+            world.run();
+            for (int i = 0; i < ants.length; i++) {
+                if (ants[i] == null) {
+                    continue;
+                }
+                Coordinate position = ants[i].getPosition();
+                if (shadows[i] == null) {
+                    shadows[i] = new SketchAntMemory();
+                } else if (!position.equals(positions[i])) {
+                    shadows[i].memorizeField(position, maxMemory); // the ant memorizes every field it moves on
+                }
+                positions[i] = position;
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if (dx == 0 && dy == 0) {
+                            continue;
+                        }
+                        int x = (position.getPosX() + dx + fieldLength) % fieldLength;
+                        int y = (position.getPosY() + dy + fieldLength) % fieldLength;
+                        Coordinate neighbour = new Coordinate(x, y, world.getFields()[y][x].getHeight());
+                        long difference = Math.abs(shadows[i].getCount(neighbour) - ants[i].getMemory().getCount(neighbour));
+                        lookups++;
+                        equal += difference == 0 ? 1 : 0;
+                        differenceSum += difference;
+                        maxDifference = Math.max(maxDifference, difference);
+                    }
+                }
+            }
+        }
+        return new long[]{lookups, equal, differenceSum, maxDifference};
+    }
+
+
+    //Module method
+    /**
+     * @param config the parameters of the world (with the memory which is measured)
+     * @param ticks how many ticks are run
+     * @param ratio the ratio used to find the first converged tick (see World.hasConverged())
+     * @return the behaviour of the world
+     */
+    public static Behaviour behave(WorldConfig config, long ticks, double ratio) {
+        World world = config.createWorld();
+        long convergedTick = -1;
+        long start = System.nanoTime();
+        for (long tick = 1; tick <= ticks; tick++) {
+            world.run();
+            if (convergedTick < 0 && world.hasConverged(ratio)) {
+                convergedTick = tick;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int foundPaths = 0;
+        for (Coordinate food : world.foods()) {
+            Object path = world.getAntsShortestPath().get(world.getFields()[food.getPosY()][food.getPosX()]);
+            foundPaths += path != null && (Integer) path != Integer.MAX_VALUE ? 1 : 0;
+        }
+        System.gc();
+        System.gc();
+        double heapMB = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1e6;
+        Reference.reachabilityFence(world); // the world has to be alive while the heap is measured
+        return new Behaviour(world.getConvergenceRatio(), convergedTick, foundPaths, ticks / seconds, world.getAntMoves() / seconds, heapMB);
+    }
+}
@@ -0,0 +1,369 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm, all methods are static and work only with the given parameters.
+ */
+
+/*
+    Benchmarks measures the hot paths of the simulation on seeded worlds, so every change of the performance can be
+    compared with reproducible numbers before and after the change. The benchmarks themselves are Workloads, which are
+    measured by JMH (see jmh/benchmarks/SimulationBenchmarks.java, gradle jmh) or, without the build, by the simple
+    harness of this class: each benchmark is run for some warmup iterations (so the code gets compiled) and then for the
+    measured iterations. An iteration repeats the operation until iterationMillis have passed and times whole batches of
+    operations, so the timer itself is not measured. The results are consumed by a sink, so the JIT can not remove them.
+
+    Every benchmark gets its own seeded worlds, which have run 200 ticks (so there is scent and there are ants which carry
+    food), no benchmark sees the changes of another one:
+        construct                 the constructor of World (per world)
+        tick                      World.run() (per tick)
+        move-<state>              Ant.move() of the ants which are in this AntState (per move)
+        decreaseScent             Field.decreaseScent() of the fields with scent (per field)
+        getScentPerBuilding       Field.getScentPerBuilding() of the fields with scent (per field)
+        dijkstra                  Dijkstra.shortestPath() from a food to the home (per path)
+    move-<state> and decreaseScent change the scent and the ants they measure, so their worlds run one tick before each
+    operation (not measured), like in a running world. One tick of a small world is too short to be timed on its own,
+    so these benchmarks use several worlds (64 of 5*5 and 20*20, 4 of 250*250, with the seeds seed, seed + 1, ...) and
+    each operation works on all of them.
+
+    The worlds are the ones of Test (5*5, 20*20 and 250*250) and a world with 2000*2000 fields (with the parameters of the
+    250*250 world).
+    usage: java Benchmarks [sizes=5,20,250,2000] [only=<benchmark,...>] [warmups=3] [iterations=5] [iterationMillis=200] [seed=42]
+ */
+
+
+//Module/Class Benchmarks
+//Abstraction: Simulation
+//uses instances of World, Ant, Field and Dijkstra, therefore operates on a higher level of abstraction
+//gets used in AllocationBudget and SimulationBenchmarks (JMH)
+public class Benchmarks {
+    private static final int warmupTicks = 200; // how many ticks the worlds run before they are measured
+    private static final long minBatchNanos = 100_000; // a batch of operations takes at least 0.1 ms, so the timer is negligible
+    private static long sink = 0; // the results of all operations are added here, so the JIT can not remove them
+
+    //the result of one benchmark, nanosPerOperation holds one value per measured iteration
+    public record Result(String name, int sideLength, double[] nanosPerOperation) {
+
+        //Class method
+        /**
+         * @return the mean of all iterations
+         */
+        public double mean() {
+            return Arrays.stream(nanosPerOperation).average().orElse(Double.NaN);
+        }
+
+
+        //Class method
+        /**
+         * @return the standard deviation of all iterations
+         */
+        public double deviation() {
+            double mean = mean();
+            return Math.sqrt(Arrays.stream(nanosPerOperation).map(n -> (n - mean) * (n - mean)).average().orElse(Double.NaN));
+        }
+    }
+
+
+    //Modul/Class Workload
+    //Abstraction: Simulation, one benchmark with its own worlds
+    //implements Runnable (the preparation, not measured) and LongSupplier (the measured operation), so it can also be
+    //used by the JMH benchmarks, which are in a package and can not use the classes of the default package directly
+    public static final class Workload implements Runnable, LongSupplier {
+        private final String name;
+        private final Runnable prepare; // null if the operation does not change what it measures
+        private final LongSupplier operation;
+
+
+        //Class method
+        /**
+         * this constructor sets the objects' variables
+         * @param name the name of the benchmark
+         * @param prepare gets called before each operation (not measured), null if the operation needs no preparation
+         * @param operation runs the operation and returns how many operations it did (0 if there was nothing to do)
+         */
+        private Workload(String name, Runnable prepare, LongSupplier operation) {
+            this.name = name;
+            this.prepare = prepare;
+            this.operation = operation;
+        }
+
+
+        //Class method
+        /**
+         * this method prepares the next operation (e.G runs a tick of the worlds), it must not be measured.
+         */
+        @Override
+        public void run() {
+            if (prepare != null) {
+                prepare.run();
+            }
+        }
+
+
+        //Class method
+        /**
+         * this method runs the operation once.
+         * @return how many operations have been done (e.G how many ants have moved), 0 if there was nothing to do
+         */
+        @Override
+        public long getAsLong() {
+            return operation.getAsLong();
+        }
+
+
+        //Class method
+        /**
+         * @return true if run() has to be called before each operation
+         */
+        public boolean needsPreparation() { return prepare != null; }
+
+
+        //Class method
+        /**
+         * @return the name of the benchmark
+         */
+        public String getName() { return name; }
+    }
+
+
+    //Module method of module Benchmarks
+    public static void main(String[] args) throws Exception {
+        java.util.Properties properties = HeadlessRunner.readArguments(args);
+        int[] sizes = Arrays.stream(properties.getProperty("sizes", "5,20,250,2000").split(",")).mapToInt(Integer::parseInt).toArray();
+        List<String> only = properties.containsKey("only") ? Arrays.asList(properties.getProperty("only").split(",")) : null;
+        int warmups = Integer.parseInt(properties.getProperty("warmups", "3"));
+        int iterations = Integer.parseInt(properties.getProperty("iterations", "5"));
+        long iterationMillis = Long.parseLong(properties.getProperty("iterationMillis", "200"));
+        long seed = Long.parseLong(properties.getProperty("seed", "42"));
+
+        System.out.printf("%-24s%-10s%16s%14s%16s%n", "benchmark", "size", "ns/op", "+-", "ops/s");
+        for (int size : sizes) {
+            for (String name : names()) {
+                if (only != null && !only.contains(name)) {
+                    continue;
+                }
+                Result result = measure(workload(name, size, seed), size, warmups, iterations, iterationMillis);
+                if (Double.isNaN(result.mean())) {
+                    System.out.printf("%-24s%-10s%16s%n", result.name(), size + "*" + size, "- (no operation)");
+                } else {
+                    System.out.printf("%-24s%-10s%16.1f%14.1f%16.1f%n", result.name(), size + "*" + size, result.mean(),
+                            result.deviation(), 1e9 / result.mean());
+                }
+            }
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+
+    //Module method
+    /**
+     * @return the names of all benchmarks
+     */
+    public static List<String> names() {
+        List<String> names = new ArrayList<>(List.of("construct", "tick"));
+        for (AntState state : AntState.values()) {
+            names.add("move-" + state.name().toLowerCase());
+        }
+        names.addAll(List.of("decreaseScent", "getScentPerBuilding", "dijkstra"));
+        return names;
+    }
+
+
+    //Module method
+    /**
+     * this method creates a benchmark with its own seeded worlds, which have already run some ticks.
+     * @param name the name of the benchmark (see names())
+     * @param sideLength the size of the worlds
+     * @param seed the seed of the worlds
+     * @return the benchmark
+     * @throws IllegalArgumentException if there is no benchmark with this name
+     */
+    public static Workload workload(String name, int sideLength, long seed) {
+        switch (name) {
+            case "construct":
+                return new Workload(name, null, () -> {
+                    sink += createWorld(sideLength, seed).getTick();
+                    return 1;
+                });
+            case "tick": {
+                World world = createWarmWorlds(sideLength, seed, 1)[0];
+                return new Workload(name, null, () -> {
+                    world.run();
+                    return 1;
+                });
+            }
+            case "decreaseScent": {
+                World[] worlds = createWarmWorlds(sideLength, seed, copies(sideLength));
+                return new Workload(name, () -> runTick(worlds), () -> {
+                    long fields = 0;
+                    for (World world : worlds) {
+                        for (Field[] row : world.getFields()) {
+                            for (Field field : row) {
+                                if (!field.getAntScent().isEmpty()) {
+                                    field.decreaseScent();
+                                    fields++;
+                                }
+                            }
+                        }
+                    }
+                    return fields;
+                });
+            }
+            case "getScentPerBuilding": {
+                World world = createWarmWorlds(sideLength, seed, 1)[0];
+                return new Workload(name, null, () -> {
+                    long fields = 0;
+                    for (Field[] row : world.getFields()) {
+                        for (Field field : row) {
+                            if (!field.getAntScent().isEmpty()) {
+                                sink += field.getScentPerBuilding().size();
+                                fields++;
+                            }
+                        }
+                    }
+                    return fields;
+                });
+            }
+            case "dijkstra": {
+                World world = createWarmWorlds(sideLength, seed, 1)[0];
+                int[] next = {0};
+                return new Workload(name, null, () -> {
+                    Coordinate food = world.foods()[next[0]++ % world.foods().length];
+                    sink += Dijkstra.shortestPath(food, world.getHome(), world.getFields());
+                    return 1;
+                });
+            }
+            default:
+                for (AntState state : AntState.values()) {
+                    if (name.equals("move-" + state.name().toLowerCase())) {
+                        World[] worlds = createWarmWorlds(sideLength, seed, copies(sideLength));
+                        return new Workload(name, () -> runTick(worlds), () -> moveAnts(worlds, state));
+                    }
+                }
+                throw new IllegalArgumentException("unknown benchmark: " + name);
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param sideLength the vertical and horizontal length of the world
+     * @param seed the seed of the world
+     * @return the world of Test with this size (Simulation1, 2 or 3), larger worlds get the parameters of Simulation3
+     */
+    public static World createWorld(int sideLength, long seed) {
+        if (sideLength <= 5) {
+            return new World(sideLength, 3, 3, 5, 30, 0.98, (int) Math.ceil(sideLength / 4.0), 5, true, 1, 0, 0, seed);
+        } else if (sideLength <= 20) {
+            return new World(sideLength, 25, 6, 12, 24, 0.97, (int) Math.ceil(sideLength / 6.0), 3, true, 2, 0.02, 10, seed);
+        }
+        return new World(sideLength, 100, 10, 5, 30, 0.96, (int) Math.ceil(sideLength / 10.0), 6, true, 3, 0.003, 30, seed);
+    }
+
+
+    //Module method
+    /**
+     * this method runs the warmup and the measured iterations of one benchmark.
+     * @param workload the benchmark
+     * @param sideLength the size of the worlds of the benchmark
+     * @param warmups how many iterations are not measured
+     * @param iterations how many iterations are measured
+     * @param iterationMillis how long one iteration repeats the operation
+     * @return the nanoseconds per operation of each measured iteration (without iterations with no operations)
+     */
+    public static Result measure(Workload workload, int sideLength, int warmups, int iterations, long iterationMillis) {
+        double[] nanosPerOperation = new double[iterations];
+        int measured = 0;
+        int batch = 1; // how many operations are timed together, doubled until a batch takes minBatchNanos
+        for (int i = 0; i < warmups + iterations; i++) {
+            long operations = 0;
+            long nanos = 0;
+            long end = System.nanoTime() + iterationMillis * 1_000_000;
+            do {
+                workload.run();
+                long start = System.nanoTime();
+                long done = 0;
+                for (int j = 0; j < batch; j++) {
+                    done += workload.getAsLong();
+                }
+                long time = System.nanoTime() - start;
+                nanos += time;
+                operations += done;
+                if (done == 0 && !workload.needsPreparation()) {
+                    break; // there is nothing to do (after a tick there can be ants in the state again)
+                }
+                //the operations of a workload which needs a preparation can only be timed one by one
+                if (time < minBatchNanos && !workload.needsPreparation()) {
+                    batch *= 2;
+                }
+            } while (System.nanoTime() < end);
+            if (i >= warmups && operations > 0) {
+                nanosPerOperation[measured++] = (double) nanos / operations;
+            }
+        }
+        return new Result(workload.getName(), sideLength, Arrays.copyOf(nanosPerOperation, measured));
+    }
+
+
+    //Module method
+    /**
+     * @param sideLength the size of the worlds
+     * @return how many copies of the world a benchmark with a preparation uses, so one operation takes some microseconds
+     */
+    private static int copies(int sideLength) {
+        return sideLength <= 20 ? 64 : sideLength <= 250 ? 4 : 1;
+    }
+
+
+    //Module method
+    /**
+     * @param sideLength the size of the worlds
+     * @param seed the seed of the first world, the other worlds get the next seeds (so their ants are in different states)
+     * @param copies how many worlds shall be created
+     * @return the worlds, which have run warmupTicks ticks
+     */
+    private static World[] createWarmWorlds(int sideLength, long seed, int copies) {
+        World[] worlds = new World[copies];
+        for (int i = 0; i < copies; i++) {
+            worlds[i] = createWorld(sideLength, seed + i);
+            for (int tick = 0; tick < warmupTicks; tick++) {
+                worlds[i].run(); // the ants leave some scent before the measurements
+            }
+        }
+        return worlds;
+    }
+
+
+    //Module method
+    /**
+     * @param worlds the worlds which shall run one tick
+     */
+    private static void runTick(World[] worlds) {
+        for (World world : worlds) {
+            world.run();
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param worlds the worlds whose ants shall move
+     * @param state only the ants in this state move
+     * @return how many ants have moved
+     */
+    private static long moveAnts(World[] worlds, AntState state) {
+        long moves = 0;
+        for (World world : worlds) {
+            for (Ant ant : world.getAnts()) {
+                if (ant != null && ant.getAntState() == state) {
+                    sink += ant.move() ? 1 : 0;
+                    moves++;
+                }
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for moving the ants colour by colour. The class' state is changeable, its arrays are reused in every simulation step.
+ */
+
+/*
+    CheckerboardStepper moves all ants of a world colour by colour, so the ants of one colour can be moved in parallel.
+    An ant only reads and changes the 3*3 fields around its field (scent, ants on the field, FieldState), so the grid is
+    coloured in blocks of 3*3 colours: two different fields with the same colour are at least 3 fields apart (also across
+    the edges of the torus), and the 3*3 fields around them never overlap. If the fieldLength is not a multiple of 3, the
+    last 1 or 2 rows and columns get colours of their own.
+    At the start of a step every ant is put into the bucket of its field (sorted by colour, field and index in the ants
+    array). Then the colours are moved one after another: the buckets of a colour are independent, the ants of one bucket
+    are moved one after another. So every ant moves once, and the result does not depend on how many threads are used.
+    The order differs from SEQUENTIAL (see SteppingMode), so the results are not the same as with SEQUENTIAL.
+ */
+
+
+//Module/Class CheckerboardStepper
+//Abstraction: Simulation
+//uses instances of Ant and Coordinate, therefore operates on a higher level of abstraction
+//gets used in class World, therefore operates on a lower level of abstraction
+public class CheckerboardStepper {
+    private static final int indexBits = 26; // at most 2^26 ants, the upper 37 bits hold colour * cells + cell
+    private long[] keys = new long[0]; // colour * cells + cell in the upper bits, the index of the ant in the lower indexBits
+    private int[] bucketStarts = new int[1]; // the index of the first key of each bucket, the last entry is the number of keys
+    private int[] bucketMoves = new int[0]; // how many ants of each bucket have moved to another field
+    private final int[] colourStarts; // the index of the first bucket of each colour, the last entry is the number of buckets
+    private final int sideLength;
+    private final int coloursPerAxis;
+
+
+    //Class method
+    /**
+     * @param sideLength the vertical and horizontal length of the world
+     */
+    public CheckerboardStepper(int sideLength) {
+        this.sideLength = sideLength;
+        this.coloursPerAxis = 3 + sideLength % 3;
+        this.colourStarts = new int[coloursPerAxis * coloursPerAxis + 1];
+    }
+
+
+    //Class method
+    /**
+     * this method moves every ant once (see the description above).
+     * @param ants the ants of the world (null entries are ignored)
+     * @param parallel true if the buckets of a colour shall be moved on all processors
+     * @return how many ants have moved to another field
+     */
+    public long step(Ant[] ants, boolean parallel) {
+        int numberOfAnts = this.sortIntoBuckets(ants, parallel);
+        if (numberOfAnts == 0) {
+            return 0;
+        }
+        long moves = 0;
+        for (int colour = 0; colour + 1 < this.colourStarts.length; colour++) {
+            IntStream buckets = IntStream.range(this.colourStarts[colour], this.colourStarts[colour + 1]);
+            (parallel ? buckets.parallel() : buckets).forEach(bucket -> this.moveBucket(ants, bucket));
+            for (int bucket = this.colourStarts[colour]; bucket < this.colourStarts[colour + 1]; bucket++) {
+                moves += this.bucketMoves[bucket];
+            }
+        }
+        return moves;
+    }
+
+
+    //Class method
+    /**
+     * @param x position of a field
+     * @param y position of a field
+     * @return the colour of the field
+     */
+    public int colour(int x, int y) {
+        return this.colour(y) * this.coloursPerAxis + this.colour(x);
+    }
+
+
+    //Class method
+    /**
+     * this method sorts the ants by colour, field and index and finds the buckets and the first bucket of each colour.
+     * @param ants the ants of the world
+     * @param parallel if the keys shall be sorted on all processors
+     * @return the number of ants which are not null
+     */
+    private int sortIntoBuckets(Ant[] ants, boolean parallel) {
+        if (ants.length > 1 << indexBits) {
+            throw new IllegalArgumentException("at most " + (1 << indexBits) + " ants can be moved colour by colour");
+        }
+        if (this.keys.length < ants.length) {
+            this.keys = new long[ants.length];
+            this.bucketStarts = new int[ants.length + 1];
+            this.bucketMoves = new int[ants.length];
+        }
+        long cells = (long) this.sideLength * this.sideLength;
+        int numberOfAnts = 0;
+        for (int i = 0; i < ants.length; i++) {
+            if (ants[i] != null) {
+                Coordinate position = ants[i].getPosition();
+                long cell = (long) position.getPosY() * this.sideLength + position.getPosX();
+                long key = this.colour(position.getPosX(), position.getPosY()) * cells + cell;
+                this.keys[numberOfAnts++] = key << indexBits | i;
+            }
+        }
+        if (parallel) {
+            Arrays.parallelSort(this.keys, 0, numberOfAnts);
+        } else {
+            Arrays.sort(this.keys, 0, numberOfAnts);
+        }
+
+        int buckets = 0;
+        int colour = 0;
+        for (int i = 0; i < numberOfAnts; i++) {
+            long field = this.keys[i] >>> indexBits;
+            if (i == 0 || field != this.keys[i - 1] >>> indexBits) {
+                int bucketColour = (int) (field / cells);
+                while (colour <= bucketColour) {
+                    this.colourStarts[colour++] = buckets;
+                }
+                this.bucketStarts[buckets++] = i;
+            }
+        }
+        while (colour < this.colourStarts.length) {
+            this.colourStarts[colour++] = buckets;
+        }
+        this.bucketStarts[buckets] = numberOfAnts;
+        return numberOfAnts;
+    }
+
+
+    //Class method
+    /**
+     * this method moves the ants of one bucket one after another.
+     * @param ants the ants of the world
+     * @param bucket the number of the bucket
+     */
+    private void moveBucket(Ant[] ants, int bucket) {
+        int moves = 0;
+        for (int i = this.bucketStarts[bucket]; i < this.bucketStarts[bucket + 1]; i++) {
+            if (ants[(int) (this.keys[i] & ((1 << indexBits) - 1))].move()) {
+                moves++;
+            }
+        }
+        this.bucketMoves[bucket] = moves;
+    }
+
+
+    //Class method
+    /**
+     * @param position the x or y position of a field
+     * @return the colour of the row or column: 0 - 2, the last 1 or 2 rows and columns 3 and 4
+     */
+    private int colour(int position) {
+        int regular = this.sideLength - this.sideLength % 3;
+        return position < regular ? position % 3 : 3 + position - regular;
+    }
+}
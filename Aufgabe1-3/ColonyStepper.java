@@ -0,0 +1,232 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for moving the ants colony by colony. The class' state is changeable, its arrays are reused in every simulation step.
+ */
+
+/*
+    ColonyStepper moves the ants of each colony on a thread of its own (an actor per colony) and waits until all colonies
+    have moved (the barrier of the tick).
+    At the start of a step the scent of each colony and if an ant of the colony carries food are copied for every field
+    into a snapshot. Only the colonies which are on a field get an entry: the entries of a field are
+    snapshotStart[cell] until snapshotStart[cell + 1], so the snapshot grows with the scent and not with the number of
+    colonies. The ants read the other colonies from the snapshot (getScentOfOtherColonies(), isCarryingAntOfOtherColony())
+    and only their own colony from the fields, so the result does not depend on the threads.
+    Then the ants are sorted by their colony (counting sort), so each actor gets the ants of its colony in the order of
+    the ants array. If the actors run in order, they run one after another (ordered by the id of the colony) on the
+    calling thread, which has to give the same result as the actors on their own threads.
+    The actors run on a virtual thread each (Java 21+) or on a work-stealing pool, whose threads end when they are idle.
+ */
+
+
+//Module/Class ColonyStepper
+//Abstraction: Simulation
+//uses instances of Ant, Field, Building and ColonyTally, therefore operates on a higher level of abstraction
+//gets used in class World and Ant, therefore operates on a lower level of abstraction
+public class ColonyStepper {
+    private final int sideLength;
+    private final int numberOfColonies;
+    private final ColonyTally scentTally; // sums the scent per colony of one field
+    private final ColonyTally carryingTally; // counts the carrying ants per colony of one field
+    private final int[] snapshotStart; // the index of the first entry of each field, the last entry is the number of entries
+    private int[] snapshotColony = new int[0]; // the id of the colony of each entry
+    private int[] snapshotValue = new int[0]; // scent * 2 (+ 1 if an ant of the colony carries food) of each entry
+    private final int[] colonyStart; // the index of the first ant of each colony in sorted, the last entry is the number of ants
+    private Ant[] sorted = new Ant[0];
+    private ExecutorService actors = null; // created with the first step whose actors do not run in order
+
+
+    //Class method
+    /**
+     * @param sideLength the vertical and horizontal length of the world
+     * @param numberOfColonies how many colonies the world can have
+     */
+    public ColonyStepper(int sideLength, int numberOfColonies) {
+        this.sideLength = sideLength;
+        this.numberOfColonies = numberOfColonies;
+        this.scentTally = new ColonyTally(numberOfColonies);
+        this.carryingTally = new ColonyTally(numberOfColonies);
+        this.snapshotStart = new int[sideLength * sideLength + 1];
+        this.colonyStart = new int[numberOfColonies + 1];
+    }
+
+
+    //Class method
+    /**
+     * this method moves every ant once (see the description above).
+     * @param ants the ants of the world (null entries are ignored)
+     * @param fields the fields of the world
+     * @param inOrder true if the actors shall run one after another on the calling thread
+     * @return how many ants have moved to another field
+     */
+    public long step(Ant[] ants, Field[][] fields, boolean inOrder) {
+        this.createSnapshot(fields);
+        int numberOfAnts = this.sortByColony(ants);
+        long moves = 0;
+        if (inOrder) {
+            for (int i = 0; i < numberOfAnts; i++) {
+                moves += this.sorted[i].move() ? 1 : 0;
+            }
+            return moves;
+        }
+        List<Callable<Long>> colonies = new ArrayList<>();
+        for (int colony = 0; colony < this.numberOfColonies; colony++) {
+            int start = this.colonyStart[colony];
+            int end = this.colonyStart[colony + 1];
+            if (start < end) {
+                colonies.add(() -> {
+                    long colonyMoves = 0;
+                    for (int i = start; i < end; i++) {
+                        colonyMoves += this.sorted[i].move() ? 1 : 0;
+                    }
+                    return colonyMoves;
+                });
+            }
+        }
+        try {
+            for (Future<Long> actor : this.actors().invokeAll(colonies)) {
+                moves += actor.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while the colonies were moving", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a colony failed to move its ants", e.getCause());
+        }
+        return moves;
+    }
+
+
+    //Class method
+    /**
+     * @param x position of the field
+     * @param y position of the field
+     * @param colony the colony of the ant which asks
+     * @return the scent of all other colonies on the field at the start of the step
+     */
+    public int getScentOfOtherColonies(int x, int y, Building colony) {
+        int cell = y * this.sideLength + x;
+        int scent = 0;
+        for (int i = this.snapshotStart[cell]; i < this.snapshotStart[cell + 1]; i++) {
+            if (this.snapshotColony[i] != colony.id) {
+                scent += this.snapshotValue[i] >> 1;
+            }
+        }
+        return scent;
+    }
+
+
+    //Class method
+    /**
+     * @param x position of the field
+     * @param y position of the field
+     * @param colony the colony of the ant which asks
+     * @return true if an ant of another colony carried food on the field at the start of the step
+     */
+    public boolean isCarryingAntOfOtherColony(int x, int y, Building colony) {
+        int cell = y * this.sideLength + x;
+        for (int i = this.snapshotStart[cell]; i < this.snapshotStart[cell + 1]; i++) {
+            if (this.snapshotColony[i] != colony.id && (this.snapshotValue[i] & 1) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    //Class method
+    /**
+     * this method copies the scent of each colony and if an ant of the colony carries food for every field into the
+     * snapshot.
+     * @param fields the fields of the world
+     */
+    private void createSnapshot(Field[][] fields) {
+        int cells = this.sideLength * this.sideLength;
+        int entries = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            this.snapshotStart[cell] = entries;
+            Field field = fields[cell / this.sideLength][cell % this.sideLength];
+            if (field.getAntScent().isEmpty() && field.getAntsOnField().isEmpty()) {
+                continue;
+            }
+            this.scentTally.clear();
+            this.carryingTally.clear();
+            field.addScentPerColony(this.scentTally);
+            for (Ant ant : field.getAntsOnField()) {
+                if (ant.getAntState() == AntState.CARRYING) {
+                    this.carryingTally.add(ant.getAntColony().id, 1);
+                    this.scentTally.add(ant.getAntColony().id, 0); // the colony gets an entry even without scent
+                }
+            }
+            if (entries + this.scentTally.size() > this.snapshotColony.length) {
+                int length = Math.max(2 * this.snapshotColony.length, entries + this.scentTally.size());
+                this.snapshotColony = Arrays.copyOf(this.snapshotColony, length);
+                this.snapshotValue = Arrays.copyOf(this.snapshotValue, length);
+            }
+            for (int i = 0; i < this.scentTally.size(); i++) {
+                int colony = this.scentTally.colony(i);
+                this.snapshotColony[entries] = colony;
+                this.snapshotValue[entries] = this.scentTally.get(colony) * 2 + (this.carryingTally.get(colony) > 0 ? 1 : 0);
+                entries++;
+            }
+        }
+        this.snapshotStart[cells] = entries;
+    }
+
+
+    //Class method
+    /**
+     * this method sorts the ants by the id of their colony (counting sort), the ants of a colony keep their order.
+     * @param ants the ants of the world (null entries are ignored)
+     * @return the number of ants
+     */
+    private int sortByColony(Ant[] ants) {
+        Arrays.fill(this.colonyStart, 0);
+        for (Ant ant : ants) {
+            if (ant != null) {
+                this.colonyStart[ant.getAntColony().id + 1]++;
+            }
+        }
+        for (int colony = 0; colony < this.numberOfColonies; colony++) {
+            this.colonyStart[colony + 1] += this.colonyStart[colony];
+        }
+        int numberOfAnts = this.colonyStart[this.numberOfColonies];
+        if (this.sorted.length < numberOfAnts) {
+            this.sorted = new Ant[numberOfAnts];
+        }
+        int[] next = Arrays.copyOf(this.colonyStart, this.numberOfColonies);
+        for (Ant ant : ants) {
+            if (ant != null) {
+                this.sorted[next[ant.getAntColony().id]++] = ant;
+            }
+        }
+        return numberOfAnts;
+    }
+
+
+    //Class method
+    /**
+     * @return the executor of the actors: a virtual thread per colony (Java 21+) or a work-stealing pool
+     */
+    private ExecutorService actors() {
+        if (this.actors == null) {
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                this.actors = (ExecutorService) method.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                this.actors = Executors.newWorkStealingPool();
+            }
+        }
+        return this.actors;
+    }
+}
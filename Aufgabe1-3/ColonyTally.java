@@ -0,0 +1,132 @@
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for summing values per colony. The class' state is changeable, it gets cleared and reused for each field.
+ */
+
+/*
+    ColonyTally sums a value (e.G the scent or the ants of a field) per colony. The values are stored in a dense array
+    which is indexed by the id of the colony, and the ids which have a value are listed in the order they were added
+    (a sparse set). Adding and reading a value is O(1) and clear() only resets the listed ids, so a tally of a world with
+    thousands of colonies can be reused for every field and only costs as much as the colonies which are on the field.
+ */
+
+
+//Module/Class ColonyTally
+//Abstraction: Simulation
+//is a subtype of Object (-> every class is a subtype of Object)
+//gets used in World, Field, Frame and Rasterizer, therefore operates on a lower level of abstraction
+public class ColonyTally {
+    private final int[] values; // the value of each colony, indexed by the id of the colony
+    private final boolean[] listed; // if the colony is listed in colonies
+    private final int[] colonies; // the ids of the colonies which have been added since the last clear()
+    private int size = 0;
+
+
+    //Class method
+    /**
+     * @param numberOfColonies how many colonies the world can have
+     */
+    public ColonyTally(int numberOfColonies) {
+        this.values = new int[numberOfColonies];
+        this.listed = new boolean[numberOfColonies];
+        this.colonies = new int[numberOfColonies];
+    }
+
+
+    //Class method
+    /**
+     * this method adds an amount to the value of a colony.
+     * @param colony the id of the colony
+     * @param amount the amount which is added
+     */
+    public void add(int colony, int amount) {
+        this.list(colony);
+        this.values[colony] += amount;
+    }
+
+
+    //Class method
+    /**
+     * this method sets the value of a colony to the maximum of its value and the given value.
+     * @param colony the id of the colony
+     * @param value the value which is compared
+     */
+    public void max(int colony, int value) {
+        this.list(colony);
+        this.values[colony] = Math.max(this.values[colony], value);
+    }
+
+
+    //Class method
+    /**
+     * @param colony the id of the colony
+     * @return the value of the colony, 0 if it has not been added since the last clear()
+     */
+    public int get(int colony) {
+        return this.values[colony];
+    }
+
+
+    //Class method
+    /**
+     * @return how many colonies have been added since the last clear()
+     */
+    public int size() {
+        return this.size;
+    }
+
+
+    //Class method
+    /**
+     * @param index the index in the list of the colonies (0 - size() - 1)
+     * @return the id of the colony, the colonies are listed in the order they were added
+     */
+    public int colony(int index) {
+        return this.colonies[index];
+    }
+
+
+    //Class method
+    /**
+     * @return the colony with the highest value which is greater than 0, the colony with the smaller id if two colonies
+     *         have the same value, -1 if there is none
+     */
+    public int maxColony() {
+        int best = -1;
+        for (int i = 0; i < this.size; i++) {
+            int colony = this.colonies[i];
+            if (this.values[colony] > 0 && (best < 0 || this.values[colony] > this.values[best]
+                    || (this.values[colony] == this.values[best] && colony < best))) {
+                best = colony;
+            }
+        }
+        return best;
+    }
+
+
+    //Class method
+    /**
+     * this method resets the values of all colonies which have been added since the last clear().
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.values[this.colonies[i]] = 0;
+            this.listed[this.colonies[i]] = false;
+        }
+        this.size = 0;
+    }
+
+
+    //Class method
+    /**
+     * this method adds the colony to the list of colonies if it is not listed yet.
+     * @param colony the id of the colony
+     */
+    private void list(int colony) {
+        if (!this.listed[colony]) {
+            this.listed[colony] = true;
+            this.colonies[this.size++] = colony;
+        }
+    }
+}
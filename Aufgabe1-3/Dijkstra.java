@@ -15,7 +15,7 @@ import java.util.List;
 //Module/Class Dijkstra
 //Abstraction: Simulation
 //uses references of following Classes: Field, Coordinate. Therefore operates on a higher level of abstraction
-//gets used in classes World and Draw, therefore operates on a lower level of abstraction
+//gets used in classes World, Draw, PathCache and IncrementalDijkstra, therefore operates on a lower level of abstraction
 public class Dijkstra {
 
     //Module method
@@ -26,6 +26,54 @@ public class Dijkstra {
      * @return an integer which represents the length of the shortest path
      */
     public static int shortestPath(Coordinate food, Coordinate home, Field[][] fields) {
+        return search(food, home, fields, null);
+    }
+
+
+    //Module method
+    /**
+     * this method returns the fields of the shortest path packed into an int array. Each field is stored as
+     * y * sideLength + x, the first entry is the start field and the last entry is the goal field.
+     * @param food the start Coordinate
+     * @param home the goal Coordinate
+     * @param fields double array which holds all fields of the world
+     * @return the fields of the shortest path, an empty array if the goal can not be reached
+     */
+    public static int[] shortestRoute(Coordinate food, Coordinate home, Field[][] fields) {
+        int sideLength = fields.length;
+        int[] predecessors = new int[sideLength * sideLength];
+        if (search(food, home, fields, predecessors) < 0) {
+            return new int[0];
+        }
+
+        int start = food.getPosY() * sideLength + food.getPosX();
+        int length = 1;
+        for (int cell = home.getPosY() * sideLength + home.getPosX(); cell != start; cell = predecessors[cell]) {
+            length++;
+        }
+
+        int[] route = new int[length];
+        int cell = home.getPosY() * sideLength + home.getPosX();
+        for (int i = length - 1; i >= 0; i--) {
+            route[i] = cell;
+            cell = predecessors[cell];
+        }
+        return route;
+    }
+
+
+    //Module method
+    /**
+     * @param food the start Coordinate
+     * @param home the goal Coordinate
+     * @param fields double array which holds all fields of the world
+     * @param predecessors if not null, the previous field (y * sideLength + x) on the shortest path gets stored for each field
+     * @return an integer which represents the length of the shortest path, -1 if the goal can not be reached
+     */
+    private static int search(Coordinate food, Coordinate home, Field[][] fields, int[] predecessors) {
+        SimulationEvents.DijkstraRun event = new SimulationEvents.DijkstraRun();
+        event.begin();
+        int expanded = 0;
         int sideLength = fields.length;
         int[][] distances = new int[sideLength][sideLength];
         for(int i = 0; i < sideLength; i++) {
@@ -44,32 +92,60 @@ public class Dijkstra {
             int distance = look.getPosZ();
 
             if(look.equals(home)) {
+                commit(event, sideLength, expanded);
                 return distance;
             }
 
             if(distance > distances[look.getPosX()][look.getPosY()]) {
                 continue;
             }
+            expanded++;
 
             List<Coordinate> neighbors = getNeighbors(look.getPosX(), look.getPosY(), fields);
 
             for(Coordinate neighbor : neighbors) {
                 int newX = neighbor.getPosX();
                 int newY = neighbor.getPosY();
+                if (fields[newY][newX].getFieldState() == FieldState.OBSTACLE) {
+                    continue; //obstacles can not be crossed
+                }
                 int cost = neighbor.getPosZ();
                 int newDistance = distance + cost;
 
                 if (newDistance < distances[newX][newY]) {
                     distances[newX][newY] = newDistance;
+                    if (predecessors != null) {
+                        predecessors[newY * sideLength + newX] = look.getPosY() * sideLength + look.getPosX();
+                    }
                     priority.add(new Coordinate(newX, newY, newDistance));
                 }
             }
         }
 
+        commit(event, sideLength, expanded);
         return -1;
     }
 
 
+    //Module method
+    /**
+     * this method writes the event of a search if a flight recording is running (see SimulationEvents).
+     * @param event the event which has been started at the beginning of the search
+     * @param sideLength the vertical and horizontal length of the world
+     * @param expanded how many fields have been expanded
+     */
+    private static void commit(SimulationEvents.DijkstraRun event, int sideLength, int expanded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = "Dijkstra";
+            event.sideLength = sideLength;
+            event.fields = sideLength * sideLength;
+            event.expandedNodes = expanded;
+            event.commit();
+        }
+    }
+
+
     //Module method
     /**
      * @param x position of the current field
@@ -167,7 +243,7 @@ public class Dijkstra {
      * @param fieldHeight2 height of the possible next field
      * @return an integer of the cost it would take to take this path
      */
-    private static int calculateCost(int fieldHeight1, int fieldHeight2) {
+    public static int calculateCost(int fieldHeight1, int fieldHeight2) {
         if(fieldHeight1 == fieldHeight2) {
             return 1;
         } else {
@@ -16,10 +16,11 @@ public enum Direction {
 
     //Module method
     /**
+     * @param random the random numbers of the ant
      * @return a random direction which will be used in the ant-class
      */
-    public static Direction randomDirection() {
-        return directions[(int) Math.floor(Math.random() * directions.length)];
+    public static Direction randomDirection(java.util.Random random) {
+        return directions[random.nextInt(directions.length)];
     }
 
 
@@ -2,10 +2,6 @@ import codedraw.CodeDraw;
 import codedraw.Palette;
 import codedraw.*;
 
-import java.awt.*;
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * STYLE:
  * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant for Draw.
@@ -19,26 +15,39 @@ import java.util.Map;
      To assure a decent simulation experience, the window size will always be ~700*700px - the pixel size will be adjusted accordingly.
      If the shortest path shall be calculated, the window size will be set to 1200*700px, with ~700*700px on the left for the simulation
      and ~500*700px on the right side for the shortest path comparison text.
-     The home field(s) will be drawn in a brown color, the food fields will be drawn in yellow. ants will be drawn in the ant buildings' antColor
+     The home field(s) will be drawn in a brown color, the food fields will be drawn in yellow, obstacles in dark gray. ants will be drawn in the ant buildings' antColor
      and fields will fluctuate between a green and the ant buildings' scentColor, depending on the scent integer and the height of the field.
+     Draw never reads the fields of the world directly, because the world is changed by another thread at the same time.
+     Instead it draws the latest Frame the world has published (see World.getLatestFrame()). If the world was faster,
+     the older frames are skipped, if no new frame has been published, nothing will be drawn.
+     The window is only drawn completely once. After that only the fields which look different than in the drawn frame
+     are drawn again (see Frame.getChangedCell()), so a simulation step with a few moving ants only draws a few fields.
+     The fields are not drawn with CodeDraw one by one: the Rasterizer writes their colors into an image, which is
+     handed to CodeDraw once per frame. The time needed for a frame is shown in the title of the window.
+     Worlds with more than 700 fields per side are shown with less detail: a block of fields becomes one pixel. A left
+     click zooms into the world around the clicked field (up to full detail), a right click zooms out again.
  */
 
 //Module/Class Draw,
 //Abtraction: real world, subtype of Simulation
-//uses instances of Field, World, CodeDraw, Coordinate and HashMap, therefore operates on a higher level of abstraction
+//uses instances of Frame, Rasterizer, World, Building, CodeDraw and Coordinate, therefore operates on a higher level of abstraction
 //implements the interface Simulation, therefore it is a subtype of Runnable
 //gets used in class Test, therefore operates on a lower level of abstraction
 public class Draw implements Simulation {
-    private Field[][] fields;
-    private int fieldsize;
+    private int worldSize; // the width and height of the world in the window in pixels
+    private int sideLength;
     private CodeDraw cd;
     private int maxHeight;
     private String numberOfSimulation;
     private boolean shortestPath;
-    private Coordinate[] foods;
-    private int[] dijkstraPaths;
-    private Map<Field, Integer> antsShortestPaths = new HashMap<>();
-    private Coordinate home;
+    private Building[] colonies;
+    private World world;
+    private Frame frame; // the frame which is drawn at the moment
+    private Rasterizer rasterizer; // turns the frames into pixels
+    private static final int minViewSize = 10; // how many fields are shown at least when zooming in
+    private String title;
+    private long frames = 0; // how many frames have been drawn
+    private long totalFrameTime = 0; // the time needed for all frames in nanoseconds
 
 
     //Class method
@@ -48,28 +57,32 @@ public class Draw implements Simulation {
      * @param sideLength the side lengths of the window
      */
     public Draw(World world, int sideLength, String numberOfSimulation) {
-        this.fields = world.getFields();
+        this.world = world;
+        this.sideLength = sideLength;
         this.maxHeight = world.getMaxHeight();
         this.numberOfSimulation = numberOfSimulation;
         this.shortestPath = world.isShortestPath();
-        this.home = world.getHome();
+        this.colonies = world.getColonies();
 
-        fieldsize = Math.round((float) 700 / sideLength); //sideLength * fieldsize = ~ 700 (max. fieldsize)
+        //the world has not been started yet, so the first frame can be created here
+        world.setFramePublishing(true);
+        world.publishFrame();
+        this.frame = world.getLatestFrame();
 
-        if(shortestPath) {
-            this.foods = world.foods();
-            this.dijkstraPaths = world.getDijkstraPaths();
-            this.antsShortestPaths = world.getAntsShortestPath();
+        worldSize = Rasterizer.imageWidth(sideLength); // ~ 700
 
+        if(shortestPath) {
             //Object cd: instance of type CodeDraw
-            this.cd = new CodeDraw(1200, sideLength * fieldsize);
-            String txt = "" + numberOfSimulation + " - shortest paths";
-            cd.setTitle(txt);
+            this.cd = new CodeDraw(1200, worldSize);
+            this.title = "" + numberOfSimulation + " - shortest paths";
+            cd.setTitle(title);
         } else {
             //Object cd: instance of type CodeDraw
-            this.cd = new CodeDraw(sideLength * fieldsize, sideLength * fieldsize);
-            cd.setTitle(numberOfSimulation);
+            this.cd = new CodeDraw(worldSize, worldSize);
+            this.title = numberOfSimulation;
+            cd.setTitle(title);
         }
+        this.rasterizer = new Rasterizer(sideLength, worldSize, maxHeight, colonies);
 
         draw();
     }
@@ -77,13 +90,27 @@ public class Draw implements Simulation {
 
     //Class method
     /**
-     * this method clears the entire canvas and calls the objects' draw()-method.
+     * this method takes the latest frame of the world and calls the objects' drawChanges()-method.
+     * If the world has not published a new frame since the last call, nothing will be drawn.
      * @return a boolean to notify if a the window got closed or the simulation stopped
      */
     public boolean run() {
         try {
-            cd.clear();
-            draw();
+            if (cd.isClosed()) {
+                return false;
+            }
+            Frame latest = world.getLatestFrame();
+            if (zoom()) {
+                frame = latest;
+                draw();
+                return true;
+            }
+            if (latest == frame) {
+                return true;
+            }
+            Frame drawn = frame;
+            frame = latest;
+            drawChanges(drawn);
             return true;
         } catch (Exception e) {
             return false;
@@ -93,95 +120,77 @@ public class Draw implements Simulation {
 
     //Class method
     /**
-     * this method draws the fields of the world. Depending on the field state, the color will either be a light brown,
-     * yellow, or fluctuate between a shade of green and hot pink (depending on the scent integer and the height of the field).
-     * If an ant is located on a field, the color is set to black. A field can either be pixel size or bigger depending on the fieldsize integer.
-     * If the shortest path shall be located, it will draw text for the comparison of the dijkstra path and the ants' shortest path.
+     * this method draws all fields of the world and, if the shortest path shall be located, the text for the comparison
+     * of the dijkstra path and the ants' shortest path.
      */
     private void draw() {
+        long start = System.nanoTime();
+        rasterizer.drawAll(frame);
+        show(start);
+    }
 
-        for (int i = 0; i < fields.length; i++) { //y-coordinate
-            for (int j = 0; j < fields[0].length; j++) { //x-coordinate
 
-                //Object field: instance of type Field
-                Field field = fields[i][j];
+    //Class method
+    /**
+     * this method only draws the fields which look different than in the drawn frame (see Rasterizer.drawChanges()).
+     * @param drawn the frame which is currently shown in the window
+     */
+    private void drawChanges(Frame drawn) {
+        long start = System.nanoTime();
+        rasterizer.drawChanges(frame, drawn);
+        show(start);
+    }
 
-                //this determines the color of the field by using the antstates HOME and FOOD as well as the getAntOnField()-method
-                //and the number of scent.
-                if (field.getFieldState() == FieldState.HOME) {
-                    cd.setColor(new Color(235,156,92));
-                } else if (field.getFieldState() == FieldState.FOOD) {
-                    cd.setColor(Palette.YELLOW);
-                } else if (!field.getAntsOnField().isEmpty()) {
-                    cd.setColor(getMajorityColor(field));
-                } else {
-                    //this calculates the color of the field, depending on height and scent
-                    cd.setColor(calculateColor(getScent(field), calculateColorHeight(field), getScentColor(field)));
-                }
 
-                //this takes care that pixels are drawn according to the fields size.
-                if (j == 0 && i == 0) {
-                    cd.fillRectangle(j, i, fieldsize, fieldsize);
-                } else if (j == 0 && i != 0) {
-                    cd.fillRectangle(j, i * fieldsize, fieldsize, fieldsize);
-                } else if (j != 0 && i == 0) {
-                    cd.fillRectangle(j * fieldsize, i, fieldsize, fieldsize);
-                } else {
-                    cd.fillRectangle(j * fieldsize, i * fieldsize, fieldsize, fieldsize);
-                }
-            }
-        }
+    //Class method
+    /**
+     * this method hands the pixels of the rasterizer to CodeDraw with one call, draws the text and shows the window.
+     * The time needed since start is shown as frame time in the title of the window.
+     * @param start the time (System.nanoTime()) the drawing of the frame has started
+     */
+    private void show(long start) {
+        cd.drawImage(0, 0, new Image(rasterizer.getImage())); // a CodeDraw image with the current pixels
 
         if(shortestPath) {
+            //the text changes with every frame, so only its part of the window gets cleared
+            cd.setColor(Palette.WHITE);
+            cd.fillRectangle(worldSize, 0, cd.getWidth() - worldSize, cd.getHeight());
             shortestPathText();
         }
 
         cd.show();
-    }
-
 
-    //Class method
-    /**
-     * @param field that needs color calculated
-     * @return Color of that particular field
-     */
-    private Color calculateColorHeight(Field field) {
-        int height = field.getHeight();
-        return calculateColor((int) ((100.0/maxHeight)*height) + 1, new Color(51,72,63), new Color(85,120,105));
+        long frameTime = System.nanoTime() - start;
+        frames++;
+        totalFrameTime += frameTime;
+        String view = rasterizer.getViewSize() == sideLength ? "" : String.format(" - view (%d,%d) %d*%d",
+                rasterizer.getViewX(), rasterizer.getViewY(), rasterizer.getViewSize(), rasterizer.getViewSize());
+        cd.setTitle(String.format("%s%s - frame time %.2f ms (average %.2f ms)", title, view, frameTime / 1e6, totalFrameTime / 1e6 / frames));
     }
 
 
     //Class method
     /**
-     * this method calculates the color of a field. If the integer is 0, the method will return the first color. If the
-     * integer is 100, it will return the second color. Otherwise the colour will be calculated.
-     * @param number an integer which will be used for the color calculation
-     * @param color1 the color that will be returned if the given integer is 0
-     * @param color2 the color that will be returned if the given integer is 100
-     * @return the color of the field
+     * this method reads the mouse clicks of the window: a left click zooms into the world (half of the fields around the
+     * clicked field), a right click zooms out again.
+     * @return true if the view has changed, so the whole world has to be drawn again
      */
-    private Color calculateColor(int number, Color color1, Color color2) {
-
-        if (number == 0) {
-            return color1;
-        } else if (number >= 100) {
-            return color2;
-        } else {
-            int red1 = color1.getRed();
-            int green1 = color1.getGreen();
-            int blue1 = color1.getBlue();
-
-            int red2 = color2.getRed();
-            int green2 = color2.getGreen();
-            int blue2 = color2.getBlue();
-
-            //these interpolate each color1-channel
-            int newRed = (int) (red1 + (red2 - red1) * (number * 0.01));
-            int newGreen = (int) (green1 + (green2 - green1) * (number * 0.01));
-            int newBlue = (int) (blue1 + (blue2 - blue1) * (number * 0.01));
-
-            return new Color(newRed, newGreen, newBlue);
+    private boolean zoom() {
+        EventScanner scanner = cd.getEventScanner();
+        boolean changed = false;
+        while (scanner.hasEventNow()) {
+            Event event = scanner.nextEvent();
+            if (event instanceof MouseClickEvent click && click.getX() < worldSize && click.getY() < worldSize) {
+                int x = rasterizer.getViewX() + rasterizer.toField(click.getX());
+                int y = rasterizer.getViewY() + rasterizer.toField(click.getY());
+                int size = click.getMouseButton() == MouseButton.LEFT
+                        ? Math.max(minViewSize, rasterizer.getViewSize() / 2)
+                        : rasterizer.getViewSize() * 2;
+                rasterizer.setView(x - size / 2, y - size / 2, size);
+                changed = true;
+            }
         }
+        return changed;
     }
 
 
@@ -214,94 +223,35 @@ public class Draw implements Simulation {
      */
     private void shortestPathText() {
         cd.setColor(Palette.BLACK);
+        Coordinate home = frame.getHome();
 
         formatText(TextOrigin.TOP_LEFT, 20, false, true, false);
         String coordinate = "Home (" + home.getPosX() + "," + home.getPosY() +  "," + home.getPosZ() + ")";
-        cd.drawText((fields.length * fieldsize) + 40, 0, coordinate);
+        cd.drawText(worldSize + 40, 0, coordinate);
 
-        for(int i = 0; i < foods.length; i++) {
+        for(int i = 0; i < frame.getNumberOfFood(); i++) {
+            Coordinate food = frame.getFood(i);
             formatText(TextOrigin.TOP_LEFT, 14, false, true, true);
-            coordinate = "Food" + i + " (" + foods[i].getPosX() + "," + foods[i].getPosY() + "," + foods[i].getPosZ() + ")";
-            cd.drawText((fields.length * fieldsize) + 40, ((fields.length * fieldsize) / 11) * (i+0.8), coordinate);
+            coordinate = "Food" + i + " (" + food.getPosX() + "," + food.getPosY() + "," + food.getPosZ() + ")";
+            cd.drawText(worldSize + 40, (worldSize / 11) * (i+0.8), coordinate);
 
             formatText(TextOrigin.TOP_LEFT, 14, false, false, false);
-            String dijkstraTxt = "The shortest path is: " + dijkstraPaths[i];
-            cd.drawText((fields.length * fieldsize) + 40, ((fields.length * fieldsize) / 11) * (i+0.8) + 18, dijkstraTxt);
+            String dijkstraTxt = "The shortest path is: " + frame.getDijkstraPath(i);
+            cd.drawText(worldSize + 40, (worldSize / 11) * (i+0.8) + 18, dijkstraTxt);
 
             formatText(TextOrigin.TOP_LEFT, 14, true, false, false);
-            int value = antsShortestPaths.get(fields[foods[i].getPosY()][foods[i].getPosX()]);
+            int value = frame.getAntsShortestPath(i);
             String antTxt = "";
             if(value == Integer.MAX_VALUE) {
                 antTxt = "The ants' shortest path has not been found yet.";
             } else {
                 antTxt = "The ants' shortest path is: " + value;
             }
-            cd.drawText((fields.length * fieldsize) + 40, ((fields.length * fieldsize) / 11) * (i+0.8) + 34, antTxt);
-        }
-    }
-
-
-    //Class method
-    /**
-     * this method checks in which building the majority of the ants on the given field belong to and returns
-     * the ants' color of that building.
-     * @param field that contains a list of ants
-     * @return the ants' color of the ant building which is mostly represented on that field
-     */
-    private Color getMajorityColor(Field field) {
-        Map<Building,Integer> antsPerBuilding = new HashMap<>();
-        int max = 0;
-        Color antColor = Color.BLACK;
-
-        for (Ant ant : field.getAntsOnField()) {
-            int current = antsPerBuilding.getOrDefault(ant.getAntColony(), 0) + 1;
-            antsPerBuilding.put(ant.getAntColony(), current);
-            if(current > max) {
-                max = current;
-                antColor = ant.getAntColony().antColor;
-            }
-
-        }
-        return antColor;
-    }
-
-
-    //Class method
-    /**
-     * this method returns the ant building to which the ants' belong to that set the highest scent sum on the given field
-     * @param field that holds the sum of scents per ant building
-     * @return the ant building that has the highest scent amount on the given field
-     */
-    private Building getStrongestBuilding(Field field) {
-        Building building = null;
-        int max = 0;
-        for(Map.Entry<Building, Integer> entry : field.getScentPerBuilding().entrySet()) {
-            if(entry.getValue() > max) {
-                building = entry.getKey();
-                max = entry.getValue();
-            }
+            cd.drawText(worldSize + 40, (worldSize / 11) * (i+0.8) + 34, antTxt);
         }
-        return building;
-    }
-
-
-    //Class method
-    /**
-     * @param field that holds the sum of scents per ant building
-     * @return an integer of the sum of scents of the strongest ant building on the given field
-     */
-    private int getScent(Field field) {
-        return (getStrongestBuilding(field) == null) ? 0 : field.getScentOfBuilding(getStrongestBuilding(field));
-    }
-
 
-    //Class method
-    /**
-     *
-     * @param field that holds the sum of scents per ant building
-     * @return the scents' color of the ant building that holds the highest sum of scent on the given field
-     */
-    private Color getScentColor(Field field) {
-        return (getStrongestBuilding(field) == null) ? Color.WHITE : getStrongestBuilding(field).scentColor;
+        formatText(TextOrigin.BOTTOM_LEFT, 12, false, false, false);
+        String cacheTxt = "Route cache: " + frame.getRouteCacheHits() + " hits, " + frame.getRouteCacheMisses() + " misses";
+        cd.drawText(worldSize + 40, worldSize - 4, cacheTxt);
     }
-}
\ No newline at end of file
+}
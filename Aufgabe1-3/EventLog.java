@@ -0,0 +1,358 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. An EventLog hides the channel and the buffer behind one method per kind of
+ * event, reading a log is procedural (the static method read()).
+ */
+
+/*
+    EventLog writes everything which happens to a World from the outside (the inputs) and the key events of the
+    simulation into a file, so a simulation can be rebuilt and looked at tick by tick afterwards (see Replay).
+    Everything else follows from the seed: the same parameters and seed create the same world and the same inputs at
+    the same ticks lead to the same state. So the log only needs:
+        header      magic "PIPIELOG" (8 bytes), format version (int), the parameters and the seed of the world as text
+                    (see WorldConfig, empty if the log starts at a checkpoint instead of tick 0)
+        events      type (byte), ticks since the event before (varint), the values of the type (varints, see Type)
+    An input is logged with the tick after which it was made, Replay makes it again right before the next tick. Events of
+    the simulation (colony founded, state hash) are logged with the tick after which they can be seen.
+    The file is only appended: events are collected in a buffer which is written whenever it is full, at each checkpoint
+    and when the log is closed. If the program crashes, the events of the last buffer are lost and the file may end
+    within an event, read() stops at the last complete event.
+ */
+
+
+//Module/Class EventLog
+//Abstraction: Simulation
+//uses instances of WorldConfig, FileChannel and ByteBuffer, therefore operates on a higher level of abstraction
+//gets used in World, HeadlessRunner and Replay
+public class EventLog implements Closeable {
+    public static final int version = 1;
+    private static final long magic = 0x474F4C4549504950L; // "PIPIELOG" as little endian long
+    private static final int bufferSize = 1 << 16;
+
+    //the kinds of events, the ordinal is written into the file
+    public enum Type {
+        HEIGHT(true),           // x, y, height: World.setHeight()
+        OBSTACLE_PLACED(true),  // x, y: World.placeObstacle()
+        OBSTACLE_REMOVED(true), // x, y: World.removeObstacle()
+        STEPPING_MODE(true),    // value is the ordinal of the SteppingMode: World.setSteppingMode()
+        SKETCH_MEMORY(true),    // value is 1 or 0: World.setSketchMemory()
+        COLONY_FOUNDED(false),  // x, y, value is the id of the colony: an ant has built a new home
+        STATE_HASH(false),      // value is World.stateHash() (written every hashEvery ticks)
+        CHECKPOINT(false);      // file is the checkpoint (relative to the log) which has been saved after this tick
+
+        public final boolean input; // if the event is an input, which has to be made again by Replay
+
+        Type(boolean input) {
+            this.input = input;
+        }
+    }
+
+    //one event of the log, the values which are not used by its type are 0 (file is null)
+    public record Event(Type type, long tick, int x, int y, long value, String file) { }
+
+    //the content of a log, config is null if the log starts at a checkpoint
+    public record Recorded(WorldConfig config, List<Event> events) { }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    private final long hashEvery;
+    private long lastTick = 0; // the tick of the last event, the ticks are written as difference to it
+    private long events = 0;
+
+
+    //Class method
+    /**
+     * this constructor creates the file (it gets replaced) and writes the header.
+     * @param file the file of the log
+     * @param config the parameters of the world, null if the world has been loaded from a checkpoint (which has to be
+     *               logged with checkpointSaved() as first event)
+     * @param hashEvery every how many ticks the state hash of the world gets logged (0: never)
+     */
+    public EventLog(Path file, WorldConfig config, long hashEvery) throws IOException {
+        this.file = file;
+        this.hashEvery = hashEvery;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer.putLong(magic);
+        this.buffer.putInt(version);
+        this.putString(config == null ? "" : config.toString());
+        this.flush();
+    }
+
+
+    //Class method
+    /**
+     * @param tick the tick of the world
+     * @param x position of the field
+     * @param y position of the field
+     * @param height the new height of the field
+     */
+    public void heightChanged(long tick, int x, int y, int height) { this.append(Type.HEIGHT, tick, x, y, height); }
+
+
+    //Class method
+    public void obstaclePlaced(long tick, int x, int y) { this.append(Type.OBSTACLE_PLACED, tick, x, y, 0); }
+
+
+    //Class method
+    public void obstacleRemoved(long tick, int x, int y) { this.append(Type.OBSTACLE_REMOVED, tick, x, y, 0); }
+
+
+    //Class method
+    public void steppingModeChanged(long tick, SteppingMode steppingMode) { this.append(Type.STEPPING_MODE, tick, 0, 0, steppingMode.ordinal()); }
+
+
+    //Class method
+    public void sketchMemoryChanged(long tick, boolean sketchMemory) { this.append(Type.SKETCH_MEMORY, tick, 0, 0, sketchMemory ? 1 : 0); }
+
+
+    //Class method
+    /**
+     * @param tick the tick after which the colony can be seen
+     * @param colony the id of the colony
+     * @param x position of the new home
+     * @param y position of the new home
+     */
+    public void colonyFounded(long tick, int colony, int x, int y) { this.append(Type.COLONY_FOUNDED, tick, x, y, colony); }
+
+
+    //Class method
+    /**
+     * this method gets called by the world after each tick, it logs the state hash every hashEvery ticks.
+     * @param world the world which has run the tick
+     */
+    public void tickEnded(World world) {
+        if (this.hashEvery > 0 && world.getTick() % this.hashEvery == 0) {
+            this.append(Type.STATE_HASH, world.getTick(), 0, 0, world.stateHash());
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method logs that a checkpoint has been saved (see WorldCheckpoint.save()) and writes the buffer, so all
+     * events until the checkpoint are in the file.
+     * @param tick the tick of the saved world
+     * @param checkpoint the file of the checkpoint
+     */
+    public synchronized void checkpointSaved(long tick, Path checkpoint) throws IOException {
+        Path directory = this.file.toAbsolutePath().getParent();
+        this.putEvent(Type.CHECKPOINT, tick);
+        this.putString(directory.relativize(checkpoint.toAbsolutePath()).toString());
+        this.flush();
+    }
+
+
+    //Class method
+    /**
+     * @return how many events have been logged
+     */
+    public synchronized long getEvents() { return this.events; }
+
+
+    //Class method
+    /**
+     * this method writes the buffer and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.flush();
+        this.channel.close();
+    }
+
+
+    //Class method
+    /**
+     * this method appends an event. It is synchronized, because the ants of different colonies can found colonies at
+     * the same time (see SteppingMode.COLONIES).
+     * @param type the type of the event
+     * @param tick the tick of the event
+     * @param x the x value (0 if the type has none)
+     * @param y the y value (0 if the type has none)
+     * @param value the value (0 if the type has none)
+     */
+    private synchronized void append(Type type, long tick, int x, int y, long value) {
+        this.putEvent(type, tick);
+        switch (type) {
+            case HEIGHT, COLONY_FOUNDED -> {
+                this.putVarLong(x);
+                this.putVarLong(y);
+                this.putVarLong(value);
+            }
+            case OBSTACLE_PLACED, OBSTACLE_REMOVED -> {
+                this.putVarLong(x);
+                this.putVarLong(y);
+            }
+            case STEPPING_MODE, SKETCH_MEMORY -> this.putVarLong(value);
+            case STATE_HASH -> this.buffer.putLong(value); // a hash does not get shorter as varint
+            default -> throw new IllegalArgumentException("not a simple event: " + type);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method writes the type and the tick of an event. It makes sure that the buffer has room for the largest event.
+     * @param type the type of the event
+     * @param tick the tick of the event, ticks never go backwards
+     */
+    private void putEvent(Type type, long tick) {
+        if (this.buffer.remaining() < 64) {
+            this.flushUnchecked();
+        }
+        this.buffer.put((byte) type.ordinal());
+        this.putVarLong(tick - this.lastTick);
+        this.lastTick = tick;
+        this.events++;
+    }
+
+
+    //Class method
+    /**
+     * @param value a value which is at least 0, written with 7 bits per byte (small values need less bytes)
+     */
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            this.buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        this.buffer.put((byte) value);
+    }
+
+
+    //Class method
+    /**
+     * @param text the text, written as its length and UTF-8 bytes
+     */
+    private void putString(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (this.buffer.remaining() < bytes.length + 10) {
+            this.flushUnchecked();
+        }
+        this.putVarLong(bytes.length);
+        this.buffer.put(bytes);
+    }
+
+
+    //Class method
+    /**
+     * this method writes the buffer to the end of the file.
+     */
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+
+    //Class method
+    /**
+     * this method writes the buffer while the world is running, where an IOException can not be thrown.
+     */
+    private void flushUnchecked() {
+        try {
+            this.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    //Module method
+    /**
+     * this method reads the whole log. If the file ends within an event (the program which wrote it has crashed),
+     * the events before are returned.
+     * @param file the file of the log
+     * @return the parameters of the world and the events in the order they have been logged
+     * @throws IOException if the file can not be read or is not a log of this version
+     */
+    public static Recorded read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.remaining() < Long.BYTES + Integer.BYTES || in.getLong() != magic) {
+                throw new IOException(file + " is not an event log");
+            }
+            int fileVersion = in.getInt();
+            if (fileVersion != version) {
+                throw new IOException(file + " has the log version " + fileVersion + ", only version " + version + " can be read");
+            }
+            WorldConfig config = null;
+            String parameters = getString(in);
+            if (!parameters.isEmpty()) {
+                Properties properties = new Properties();
+                for (String keyValue : parameters.split(" ")) {
+                    int index = keyValue.indexOf('=');
+                    properties.setProperty(keyValue.substring(0, index), keyValue.substring(index + 1));
+                }
+                config = WorldConfig.fromProperties(properties);
+            }
+
+            List<Event> events = new ArrayList<>();
+            Type[] types = Type.values();
+            long tick = 0;
+            try {
+                while (in.hasRemaining()) {
+                    Type type = types[in.get()];
+                    tick += getVarLong(in);
+                    events.add(switch (type) {
+                        case HEIGHT, COLONY_FOUNDED -> new Event(type, tick, (int) getVarLong(in), (int) getVarLong(in), getVarLong(in), null);
+                        case OBSTACLE_PLACED, OBSTACLE_REMOVED -> new Event(type, tick, (int) getVarLong(in), (int) getVarLong(in), 0, null);
+                        case STEPPING_MODE, SKETCH_MEMORY -> new Event(type, tick, 0, 0, getVarLong(in), null);
+                        case STATE_HASH -> new Event(type, tick, 0, 0, in.getLong(), null);
+                        case CHECKPOINT -> new Event(type, tick, 0, 0, 0, getString(in));
+                    });
+                }
+            } catch (BufferUnderflowException e) {
+                //the last event is incomplete, the events before are kept
+            }
+            return new Recorded(config, events);
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param in the buffer the value is read from
+     * @return the value written by putVarLong()
+     */
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = in.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param in the buffer the text is read from
+     * @return the text written by putString()
+     */
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) getVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
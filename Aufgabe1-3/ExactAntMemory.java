@@ -0,0 +1,79 @@
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+    ExactAntMemory counts every field the ant has moved on in a map. When a field reaches maxMemory, all other fields are
+    decreased by 1. Fields which are decreased to 0 stay in the map, so the memory grows with every distinct field
+    the ant has visited.
+ */
+
+
+//Modul/Class ExactAntMemory
+//Abstraction: real world, subtype of AntMemory
+//uses instances of Coordinate and HashMap, therefore operates on a higher level of abstraction
+//implements the interface AntMemory, therefore it is in a subtype relationship with AntMemory
+//gets used in class Ant, therefore operates on a lower level of abstraction
+public class ExactAntMemory implements AntMemory {
+    public static final int checkpointType = 0; // the type of the memory in a checkpoint (see AntMemory.readCheckpoint())
+    private Map<Coordinate,Integer> usedFields = new HashMap<>(); // stores how often a path was taken
+
+
+    //Class method
+    @Override
+    public void memorizeField(Coordinate coordinate, int maxMemory) {
+        int count = usedFields.getOrDefault(coordinate,0)+1;
+        if (count > maxMemory) {
+            count = maxMemory;
+            //reduce other fields the current field wont be filtered out because it will overwrite the value at the end
+            // of the method
+            usedFields= usedFields.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e->Math.max(0,e.getValue()-1)));
+        }
+        usedFields.put(coordinate,count);
+    }
+
+
+    //Class method
+    @Override
+    public int getCount(Coordinate coordinate) {
+        return usedFields.getOrDefault(coordinate,0);
+    }
+
+
+    //Class method
+    /**
+     * @return how many fields are stored in the memory
+     */
+    public int size() { return usedFields.size(); }
+
+
+    //Class method
+    @Override
+    public void writeCheckpoint(WorldCheckpoint.Output out) throws IOException {
+        out.putByte(checkpointType);
+        out.putInt(usedFields.size());
+        for (Map.Entry<Coordinate, Integer> entry : usedFields.entrySet()) {
+            out.putInt(entry.getKey().getPosX());
+            out.putInt(entry.getKey().getPosY());
+            out.putInt(entry.getKey().getPosZ());
+            out.putByte(entry.getValue()); // at most maxMemory (100)
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param in the checkpoint, after the type of the memory
+     * @return the memory which has been written by writeCheckpoint()
+     */
+    public static ExactAntMemory readCheckpoint(WorldCheckpoint.Input in) throws IOException {
+        ExactAntMemory memory = new ExactAntMemory();
+        int size = in.getInt();
+        memory.usedFields = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        for (int i = 0; i < size; i++) {
+            memory.usedFields.put(new Coordinate(in.getInt(), in.getInt(), in.getInt()), in.getByte());
+        }
+        return memory;
+    }
+}
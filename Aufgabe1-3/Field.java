@@ -1,44 +1,80 @@
-import java.awt.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 
 //Modul/Class Field
 //Abstraction: real world
-//uses instances of FieldState, therefore operates on a higher level of abstraction.
+//uses instances of FieldState, Terrain, ScentConfig and ColonyTally, therefore operates on a higher level of abstraction.
 //gets used by following classes: World and Ant, therefore operates on a lower level of abstraction.
 public class Field {
-    private final List<Ant> antsOnField = new ArrayList<>();
-    private FieldState fieldState; // is a home or food on the field
-    private Map<Ant,Integer> antScent = new HashMap<>();
-    private final int scentIncrease; // amount of scent increase when ants enters field
-    private final int scentIncreaseStrong; // amount of scent increase when ants enters field
-    private final int maxScent = 100; // max strength of scent
-    private final double scentDecrease; // the decreasing factor of scent per simulation step
-    private final int height;
+    //NOTE: the scent can be increased by several threads at the same time (e.G when the ants of each colony move on their own thread):
+    //the map is created with compareAndSet, so no thread loses the map of another thread, and the scent of an ant is
+    //increased with a compare-and-set loop (add and clamp to maxScent). Each ant has its own entry, so the threads only
+    //meet in the bins of the ConcurrentHashMap, which are locked one by one instead of the whole field. There is no
+    //explicit lock striping of the crowded fields around the homes and the food, the bins of each field's map are used instead.
+    private static final VarHandle antScentHandle;
+    static {
+        try {
+            antScentHandle = MethodHandles.lookup().findVarHandle(Field.class, "antScent", ConcurrentHashMap.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private List<Ant> antsOnField = null; // only allocated when an ant enters the field
+    private volatile ConcurrentHashMap<Ant,Integer> antScent = null; // only allocated when an ant leaves scent on the field
+    private final ScentConfig scent; // the scent parameters, shared by all fields of the world
 
-    //NOTE: shift from object-oriented to procedural
-    private Building building; //when the field has a building like an ant home placed on it, the information is stored here
+    //NOTE: the height, the FieldState and the building (e.G an ant home) are stored in the Terrain of the world
+    private final Terrain terrain;
+    private final int cell; // the number of the field in the terrain (y * fieldLength + x)
 
 
     //Class method
     /**
      * this constructor sets the objects' variables.
+     * @param terrain the terrain of the world, which holds the height, the FieldState and the building of the field
+     * @param cell the number of the field in the terrain (y * fieldLength + x)
      * @param fieldState the starting fieldState
      * @param height the fields' hight.
-     * @param scentIncrease how much the scent increases on normal conditions
-     * @param scentIncreaseStrong how much the scent increases on special conditions
-     * @param scentDecrease how much the scent decreases after each simulation step
+     * @param scent the scent parameters of the world
+     */
+    public Field(Terrain terrain, int cell, FieldState fieldState, int height, ScentConfig scent) {
+        this.terrain = terrain;
+        this.cell = cell;
+        this.scent = scent;
+        terrain.setHeight(cell, height);
+        terrain.setFieldState(cell, fieldState);
+    }
+
+
+    //Class method
+    /**
+     * this constructor creates a field whose height, FieldState and building are already in the terrain (e.G after
+     * the terrain has been loaded from a checkpoint).
+     * @param terrain the terrain of the world, which holds the height, the FieldState and the building of the field
+     * @param cell the number of the field in the terrain (y * fieldLength + x)
+     * @param scent the scent parameters of the world
+     */
+    public Field(Terrain terrain, int cell, ScentConfig scent) {
+        this.terrain = terrain;
+        this.cell = cell;
+        this.scent = scent;
+    }
+
+
+    //Class method
+    /**
+     * @return the number of the field in the terrain (y * fieldLength + x)
      */
-    public Field(FieldState fieldState, int height, int scentIncrease, int scentIncreaseStrong, double scentDecrease) {
-        this.height = height;
-        this.fieldState = fieldState;
-        this.scentIncrease = scentIncrease;
-        this.scentIncreaseStrong = scentIncreaseStrong;
-        this.scentDecrease = scentDecrease;
+    public int getCell() {
+        return this.cell;
     }
 
 
@@ -47,7 +83,7 @@ public class Field {
      * @return the fields' FieldState (NULL, HOME or FOOD)
      */
     public FieldState getFieldState() {
-        return fieldState;
+        return terrain.getFieldState(cell);
     }
 
 
@@ -57,7 +93,7 @@ public class Field {
      * @param fieldState which shall be set for the specific field
      */
     public void setFieldState(FieldState fieldState) {
-        this.fieldState = fieldState;
+        terrain.setFieldState(cell, fieldState);
     }
 
 
@@ -66,7 +102,7 @@ public class Field {
      * @return the building of the field FieldState (NULL, HOME or FOOD)
      */
     public Building getBuilding() {
-        return building;
+        return terrain.getBuilding(cell);
     }
 
 
@@ -75,7 +111,27 @@ public class Field {
      * @param building sets the building of this field
      */
     public void setBuilding(Building building) {
-        this.building = building;
+        terrain.setBuilding(cell, building);
+    }
+
+
+    //Class method
+    /**
+     * this method makes this field the home of the building, the FieldState and the building are written together.
+     * @param building the building whose home this field becomes
+     */
+    public void setHome(Building building) {
+        terrain.setHome(cell, building);
+    }
+
+
+    //Class method
+    /**
+     * @param building the building which is asked for
+     * @return true if this field is the home of the building (the FieldState and the building are read together)
+     */
+    public boolean isHomeOf(Building building) {
+        return terrain.isHomeOf(cell, building);
     }
 
 
@@ -83,15 +139,24 @@ public class Field {
     /**
      * @return the height of the field
      */
-    public int getHeight() { return height; }
+    public int getHeight() { return terrain.getHeight(cell); }
 
 
     //Class method
     /**
-     * @return the scent for each Ant integer (>= 0 and <= 100)
+     * this method changes the height of the field. Note: the world has to repair its distances afterwards (see World.setHeight())
+     * @param height the new height of the field
+     */
+    public void setHeight(int height) { terrain.setHeight(cell, height); }
+
+
+    //Class method
+    /**
+     * @return the scent for each Ant integer (>= 0 and <= 100), the map must not be changed
      */
     public Map<Ant, Integer> getAntScent() {
-        return antScent;
+        Map<Ant,Integer> antScent = this.antScent;
+        return antScent == null ? Collections.emptyMap() : antScent;
     }
 
 
@@ -100,7 +165,8 @@ public class Field {
      * @return the scent od a specific Ant integer (>= 0 and <= 100)
      */
     public int getScentOfAnt(Ant ant) {
-        return this.antScent.getOrDefault(ant, 0);
+        Map<Ant,Integer> antScent = this.antScent;
+        return antScent == null ? 0 : antScent.getOrDefault(ant, 0);
     }
 
 
@@ -108,9 +174,12 @@ public class Field {
     /**
      * @return the total sum of all ant scents
      * */
-    //NOTE: shift from object-oriented to functional programming
     public int getTotalScent() {
-        return this.antScent.values().stream().reduce(0,Integer::sum);
+        int total = 0;
+        for (int scent : this.getAntScent().values()) {
+            total += scent;
+        }
+        return total;
     }
 
 
@@ -123,7 +192,7 @@ public class Field {
      * @return the total amount of scent for each Building (e.G AntColony) in a map key: Building value: TotalAmountOfScent
      */
     public Map<Building,Integer> getScentPerBuilding () {
-        return this.antScent.entrySet().stream().collect(
+        return this.getAntScent().entrySet().stream().collect(
                 Collectors.toMap(e-> e.getKey().getAntColony(), Map.Entry::getValue, Integer::sum));
     }
 
@@ -132,17 +201,69 @@ public class Field {
     /**
      * @return the scent of one building
      */
+    //NOTE: the entries are summed directly instead of with getScentPerBuilding(), so the lookup does not create a map and
+    //only costs as much as the ants which left scent on the field, no matter how many colonies the world has
     public int getScentOfBuilding(Building building) {
-        return this.getScentPerBuilding().getOrDefault(building,0);
+        int scent = 0;
+        for (Map.Entry<Ant, Integer> entry : this.getAntScent().entrySet()) {
+            if (entry.getKey().getAntColony() == building) {
+                scent += entry.getValue();
+            }
+        }
+        return scent;
+    }
+
+
+    //Class method
+    /**
+     * this method adds the scent of each colony on this field to the tally (indexed by the id of the colony).
+     * @param tally the tally which sums the scent
+     */
+    public void addScentPerColony(ColonyTally tally) {
+        for (Map.Entry<Ant, Integer> entry : this.getAntScent().entrySet()) {
+            tally.add(entry.getKey().getAntColony().id, entry.getValue());
+        }
     }
 
 
     //Class method
     /**
-     * @return the list antsOnField, which lists all ants that are currently on the field
+     * @return the list antsOnField, which lists all ants that are currently on the field, the list must not be changed
      */
     public List<Ant> getAntsOnField() {
-        return antsOnField;
+        return antsOnField == null ? Collections.emptyList() : antsOnField;
+    }
+
+
+    //Class method
+    /**
+     * @param state the AntState which is searched
+     * @param colony only ants of this colony are searched, null for ants of all colonies
+     * @return true if an ant in this state is on the field
+     */
+    public synchronized boolean hasAnt(AntState state, Building colony) {
+        if (antsOnField != null) {
+            for (Ant ant : antsOnField) {
+                if (ant.getAntState() == state && (colony == null || ant.getAntColony() == colony)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    //Class method
+    /**
+     * this method adds the number of ants of each colony on this field to the tally (indexed by the id of the colony).
+     * @param tally the tally which counts the ants
+     */
+    public synchronized void addAntsPerColony(ColonyTally tally) {
+        if (antsOnField != null) {
+            for (Ant ant : antsOnField) {
+                tally.add(ant.getAntColony().id, 1);
+            }
+        }
     }
 
 
@@ -150,7 +271,9 @@ public class Field {
     /**
      * @param ant which shall be added to the antsOnField list
      */
-    public void addAnt(Ant ant) {
+    //NOTE: synchronized, because the ants of different colonies can enter the same field at the same time (see SteppingMode.COLONIES)
+    public synchronized void addAnt(Ant ant) {
+        if (antsOnField == null) antsOnField = new ArrayList<>();
         if (!antsOnField.contains(ant)) antsOnField.add(ant);
     }
 
@@ -159,8 +282,8 @@ public class Field {
     /**
      * @param ant which shall be removed from the antsOnField list
      */
-    public void removeAnt(Ant ant) {
-        antsOnField.remove(ant);
+    public synchronized void removeAnt(Ant ant) {
+        if (antsOnField != null) antsOnField.remove(ant);
     }
 
 
@@ -187,12 +310,36 @@ public class Field {
     //Class method
     /**
      * this method decreases the scent integer for all ants in the map by the factor scentDecrease
-     * if the scent goes down to 0 it will be removed from the map
+     * if the scent goes down to 0 it will be removed from the map.
+     * Note: it must not be called while other threads increase the scent (World.run() decreases the scent in its own phase)
      */
-    //NOTE: shift from objectoriented to functional programming
+    //NOTE: the entries are decreased and removed in place (replaceAll, removeIf) instead of copying the map
     public void decreaseScent() {
-        this.antScent = this.antScent.entrySet().stream().filter(e -> (int) Math.floor(e.getValue()* scentDecrease) > 0
-        ).collect(Collectors.toMap(Map.Entry::getKey, e->(int) Math.floor(e.getValue()* scentDecrease)));
+        ConcurrentHashMap<Ant,Integer> antScent = this.antScent;
+        if (antScent == null) {
+            return;
+        }
+        double scentDecrease = this.scent.scentDecrease;
+        antScent.replaceAll((ant, scent) -> (int) Math.floor(scent * scentDecrease));
+        antScent.values().removeIf(scent -> scent == 0);
+        if (antScent.isEmpty()) {
+            this.antScent = null;
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method sets the scent of an ant without the increase and the clamping to maxScent, it is used to load a
+     * checkpoint (see WorldCheckpoint).
+     * @param ant the ant whose scent is set
+     * @param scent the scent (> 0)
+     */
+    public void restoreScent(Ant ant, int scent) {
+        if (this.antScent == null) {
+            this.antScent = new ConcurrentHashMap<>();
+        }
+        this.antScent.put(ant, scent);
     }
 
 
@@ -200,10 +347,25 @@ public class Field {
     /**
      * this method is the general IncreaseField method. it gets as input if its increased strong or not
      * and which ant is increasing it. The method is checking if the Ant is already existing or not 
-     * and when not creating a new entry in the hashmap
+     * and when not creating a new entry in the hashmap. It can be called by several threads at the same time.
      */
     private void increaseFieldScent (boolean strong, Ant ant) {
-        int increase = strong? this.scentIncreaseStrong:this.scentIncrease;
-        this.antScent.put(ant,Math.min(this.antScent.getOrDefault(ant, 0)+increase,this.maxScent));
+        int increase = strong? this.scent.scentIncreaseStrong:this.scent.scentIncrease;
+        ConcurrentHashMap<Ant,Integer> antScent = this.antScent;
+        if (antScent == null) {
+            //only one thread can set the map, the others use the map of this thread
+            antScentHandle.compareAndSet(this, null, new ConcurrentHashMap<Ant,Integer>());
+            antScent = this.antScent;
+        }
+        while (true) {
+            Integer scent = antScent.get(ant);
+            if (scent == null) {
+                if (antScent.putIfAbsent(ant, Math.min(increase, this.scent.maxScent)) == null) {
+                    return;
+                }
+            } else if (antScent.replace(ant, scent, Math.min(scent + increase, this.scent.maxScent))) {
+                return;
+            }
+        }
     }
 }
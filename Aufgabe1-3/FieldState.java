@@ -1,7 +1,8 @@
 //Enumeration FieldState
-//this defines the fields' states: home, food or null (= empty field or ant)
+//this defines the fields' states: home, food, obstacle or null (= empty field or ant)
 public enum FieldState {
     NULL,
     FOOD,
     HOME,
+    OBSTACLE,
 }
@@ -0,0 +1,389 @@
+import java.util.Arrays;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. An instance of Frame can not be changed after it has been created (immutable),
+ * all arrays are private and only read by the getters. Therefore a frame can be read by another thread (e.G by Draw)
+ * while the world already calculates the next simulation step.
+ */
+
+/*
+    A Frame is a snapshot of everything Draw needs to show one simulation step.
+    The fields are stored as cell number (y * sideLength + x) in two int arrays:
+        cells:     bits 0-1 FieldState, bits 2-9 height, bits 10-16 scent of the strongest colony (0-100), bit 17 shortest route
+        colonies:  bits 0-15 id+1 of the colony with the strongest scent, bits 16-31 id+1 of the colony with most ants
+                   on the field (0 means no scent or no ants)
+    World creates a new frame after each simulation step and publishes it (see World.getLatestFrame()).
+    Because the world remembers which fields have changed, a new frame is created from the previous one and only the
+    changed fields are packed again. The frame also stores which fields look different than in the previous frame,
+    so Draw only has to draw these fields.
+ */
+
+
+//Module/Class Frame
+//Abstraction: Simulation
+//uses references of World, Field, ColonyTally and Coordinate, therefore operates on a higher level of abstraction
+//gets used in classes World and Draw, therefore operates on a lower level of abstraction
+public class Frame {
+    private static final FieldState[] fieldStates = FieldState.values();
+    private static final int maxScent = 100;
+    private static final int routeBit = 1 << 17;
+
+    private final long tick;
+    private final long previousTick; // the tick of the frame this frame has been created from, -1 if it has been created from all fields
+    private final int sideLength;
+    private final int[] cells;
+    private final int[] colonies;
+    private final int[] routes; // the fields of the shortest routes of all food
+    private final int[] changedCells; // the fields which look different than in the frame of previousTick
+    private final Coordinate home;
+    private final Coordinate[] foods;
+    private final int[] dijkstraPaths;
+    private final int[] antsShortestPaths;
+    private final long routeCacheHits;
+    private final long routeCacheMisses;
+
+
+    //Class method
+    /**
+     * this constructor creates a snapshot of the given world. It has to be called by the thread which runs the world.
+     * @param world the world which shall be captured
+     */
+    public Frame(World world) {
+        Field[][] fields = world.getFields();
+        this.tick = world.getTick();
+        this.previousTick = -1;
+        this.sideLength = fields.length;
+        this.cells = new int[sideLength * sideLength];
+        this.colonies = new int[sideLength * sideLength];
+
+        ColonyTally scent = new ColonyTally(world.getColonies().length);
+        ColonyTally ants = new ColonyTally(world.getColonies().length);
+        for (int cell = 0; cell < cells.length; cell++) {
+            this.pack(fields, cell, scent, ants);
+        }
+
+        this.home = world.getHome();
+        this.foods = world.foods().clone();
+        this.routes = createRoutes(world);
+        for (int cell : routes) {
+            this.cells[cell] |= routeBit;
+        }
+        this.changedCells = new int[0];
+        if (world.isShortestPath()) {
+            this.dijkstraPaths = world.getDijkstraPaths().clone();
+            this.antsShortestPaths = createAntsShortestPaths(world, fields, foods);
+        } else {
+            this.dijkstraPaths = new int[0];
+            this.antsShortestPaths = new int[0];
+        }
+        this.routeCacheHits = world.getPathCache().getHits();
+        this.routeCacheMisses = world.getPathCache().getMisses();
+    }
+
+
+    //Class method
+    /**
+     * this constructor creates a snapshot of the given world from the previous frame: only the given fields and the
+     * fields of the old and new shortest routes are read from the world again, all others are copied.
+     * The fields which look different than in the previous frame are stored (see getChangedCell()).
+     * It has to be called by the thread which runs the world.
+     * @param world the world which shall be captured
+     * @param previous the last frame of the world
+     * @param changed the numbers of the fields which have changed since the previous frame
+     * @param numberOfChanged how many numbers of the array changed are used
+     */
+    public Frame(World world, Frame previous, int[] changed, int numberOfChanged) {
+        Field[][] fields = world.getFields();
+        this.tick = world.getTick();
+        this.previousTick = previous.tick;
+        this.sideLength = fields.length;
+        this.cells = previous.cells.clone();
+        this.colonies = previous.colonies.clone();
+
+        ColonyTally scent = new ColonyTally(world.getColonies().length);
+        ColonyTally ants = new ColonyTally(world.getColonies().length);
+        for (int i = 0; i < numberOfChanged; i++) {
+            this.pack(fields, changed[i], scent, ants);
+        }
+
+        this.home = world.getHome();
+        this.foods = world.foods().clone();
+        this.routes = createRoutes(world);
+        int[] candidates = changed; // only the changed fields can look different now
+        int numberOfCandidates = numberOfChanged;
+        if (!Arrays.equals(this.routes, previous.routes)) {
+            //the terrain has changed, so the fields of the old and the new routes can look different too
+            for (int cell : previous.routes) {
+                this.cells[cell] &= ~routeBit;
+            }
+            for (int cell : routes) {
+                this.cells[cell] |= routeBit;
+            }
+            boolean[] isCandidate = new boolean[cells.length];
+            candidates = new int[numberOfChanged + routes.length + previous.routes.length];
+            numberOfCandidates = 0;
+            for (int[] source : new int[][]{Arrays.copyOf(changed, numberOfChanged), routes, previous.routes}) {
+                for (int cell : source) {
+                    if (!isCandidate[cell]) {
+                        isCandidate[cell] = true;
+                        candidates[numberOfCandidates++] = cell;
+                    }
+                }
+            }
+        }
+
+        int[] different = new int[numberOfCandidates];
+        int numberOfDifferent = 0;
+        for (int i = 0; i < numberOfCandidates; i++) {
+            if (differs(previous, candidates[i])) {
+                different[numberOfDifferent++] = candidates[i];
+            }
+        }
+        this.changedCells = Arrays.copyOf(different, numberOfDifferent);
+
+        if (world.isShortestPath()) {
+            this.dijkstraPaths = world.getDijkstraPaths().clone();
+            this.antsShortestPaths = createAntsShortestPaths(world, fields, foods);
+        } else {
+            this.dijkstraPaths = new int[0];
+            this.antsShortestPaths = new int[0];
+        }
+        this.routeCacheHits = world.getPathCache().getHits();
+        this.routeCacheMisses = world.getPathCache().getMisses();
+    }
+
+
+    //Class method
+    /**
+     * @return the number of the simulation step of this frame
+     */
+    public long getTick() { return tick; }
+
+
+    //Class method
+    /**
+     * @return the tick of the frame this frame has been created from, -1 if it has been created from all fields
+     */
+    public long getPreviousTick() { return previousTick; }
+
+
+    //Class method
+    /**
+     * @return how many fields look different than in the frame of getPreviousTick()
+     */
+    public int getNumberOfChangedCells() { return changedCells.length; }
+
+
+    //Class method
+    /**
+     * @param i the index of the changed field (0 - getNumberOfChangedCells()-1)
+     * @return the number of the field (y * sideLength + x) which looks different than in the frame of getPreviousTick()
+     */
+    public int getChangedCell(int i) { return changedCells[i]; }
+
+
+    //Class method
+    /**
+     * @param other another frame of the same world
+     * @param cell the number of the field (y * sideLength + x)
+     * @return true if the field looks different in the other frame
+     */
+    public boolean differs(Frame other, int cell) {
+        return cells[cell] != other.cells[cell] || colonies[cell] != other.colonies[cell];
+    }
+
+
+    //Class method
+    /**
+     * @return the vertical and horizontal length of the world
+     */
+    public int getSideLength() { return sideLength; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the state of the field
+     */
+    public FieldState getFieldState(int cell) { return fieldStates[cells[cell] & 0x3]; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the height of the field
+     */
+    public int getHeight(int cell) { return (cells[cell] >>> 2) & 0xFF; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the scent of the colony with the strongest scent on the field (0 - 100)
+     */
+    public int getScent(int cell) { return (cells[cell] >>> 10) & 0x7F; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return true if the field is part of a shortest route of a food
+     */
+    public boolean isOnRoute(int cell) { return (cells[cell] & routeBit) != 0; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the id of the colony with the strongest scent on the field or -1 if there is no scent
+     */
+    public int getScentColony(int cell) { return (colonies[cell] & 0xFFFF) - 1; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the id of the colony with the most ants on the field or -1 if there are no ants
+     */
+    public int getAntColony(int cell) { return (colonies[cell] >>> 16) - 1; }
+
+
+    //Class method
+    /**
+     * @return the home coordinates
+     */
+    public Coordinate getHome() { return home; }
+
+
+    //Class method
+    /**
+     * @return the number of food fields
+     */
+    public int getNumberOfFood() { return foods.length; }
+
+
+    //Class method
+    /**
+     * @param i the index of the food
+     * @return the coordinate of the food
+     */
+    public Coordinate getFood(int i) { return foods[i]; }
+
+
+    //Class method
+    /**
+     * @param i the index of the food
+     * @return the dijkstra path of the food
+     */
+    public int getDijkstraPath(int i) { return dijkstraPaths[i]; }
+
+
+    //Class method
+    /**
+     * @param i the index of the food
+     * @return the ants' shortest path of the food, Integer.MAX_VALUE if it has not been found yet
+     */
+    public int getAntsShortestPath(int i) { return antsShortestPaths[i]; }
+
+
+    //Class method
+    /**
+     * @return how often a route has been taken from the worlds' PathCache
+     */
+    public long getRouteCacheHits() { return routeCacheHits; }
+
+
+    //Class method
+    /**
+     * @return how often a route had to be calculated by the worlds' PathCache
+     */
+    public long getRouteCacheMisses() { return routeCacheMisses; }
+
+
+    //Class method
+    /**
+     * this method packs a field of the world into cells and colonies.
+     * @param fields the fields of the world
+     * @param cell the number of the field (y * sideLength + x)
+     * @param scent a tally which is used to sum the scent per colony of the field
+     * @param ants a tally which is used to count the ants per colony of the field
+     */
+    private void pack(Field[][] fields, int cell, ColonyTally scent, ColonyTally ants) {
+        Field field = fields[cell / sideLength][cell % sideLength];
+        scent.clear();
+        ants.clear();
+        field.addScentPerColony(scent);
+        field.addAntsPerColony(ants);
+        this.cells[cell] = packCell(field, scent) | (this.cells[cell] & routeBit);
+        this.colonies[cell] = packColonies(scent, ants);
+    }
+
+
+    //Module method
+    /**
+     * @param world the world which shall be captured
+     * @return the fields of the shortest routes of all food, an empty array if shortestPath is false
+     */
+    private static int[] createRoutes(World world) {
+        if (!world.isShortestPath()) {
+            return new int[0];
+        }
+        int[][] routes = new int[world.foods().length][];
+        int length = 0;
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = world.getShortestRoute(i);
+            length += routes[i].length;
+        }
+        int[] cells = new int[length];
+        int position = 0;
+        for (int[] route : routes) {
+            System.arraycopy(route, 0, cells, position, route.length);
+            position += route.length;
+        }
+        return cells;
+    }
+
+
+    //Module method
+    /**
+     * @param world the world which shall be captured
+     * @param fields the fields of the world
+     * @param foods the food coordinates
+     * @return the ants' shortest path of each food
+     */
+    private static int[] createAntsShortestPaths(World world, Field[][] fields, Coordinate[] foods) {
+        int[] antsShortestPaths = new int[foods.length];
+        for (int i = 0; i < foods.length; i++) {
+            antsShortestPaths[i] = (Integer) world.getAntsShortestPath().get(fields[foods[i].getPosY()][foods[i].getPosX()]);
+        }
+        return antsShortestPaths;
+    }
+
+
+    //Module method
+    /**
+     * @param field the field which shall be packed
+     * @param scentPerColony the scent of each colony on the field
+     * @return FieldState, height and the scent of the strongest colony packed into one int
+     */
+    private static int packCell(Field field, ColonyTally scentPerColony) {
+        int strongest = scentPerColony.maxColony();
+        int scent = strongest < 0 ? 0 : scentPerColony.get(strongest);
+        return field.getFieldState().ordinal()
+                | (Math.min(field.getHeight(), 0xFF) << 2)
+                | (Math.min(scent, maxScent) << 10);
+    }
+
+
+    //Module method
+    /**
+     * @param scentPerColony the scent of each colony on the field
+     * @param antsPerColony the number of ants of each colony on the field
+     * @return the colony with the strongest scent and the colony with the most ants packed into one int (the colony with
+     *         the smaller id if two colonies have as much)
+     */
+    private static int packColonies(ColonyTally scentPerColony, ColonyTally antsPerColony) {
+        return (scentPerColony.maxColony() + 1) | ((antsPerColony.maxColony() + 1) << 16);
+    }
+}
@@ -0,0 +1,210 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for recording frames. The frames are handed over from the simulation thread to the recording thread by a queue,
+ * all other variables are only used by the recording thread.
+ */
+
+/*
+    FrameRecorder records the frames of a world as images, so a run can be watched later. The world hands every published
+    Frame to offer() (see World.addFrameListener()), which only puts every n-th frame into a bounded queue and never
+    waits: if the queue is full, the frame is dropped, so the simulation never gets slower because of the recorder.
+    A background thread takes the frames from the queue, draws them with its own Rasterizer (frames are immutable, so this
+    is safe) and writes them:
+        PNG:  one file frame_<tick>.png per frame
+        RAW:  all frames in one file frames.raw: int width, int height and then for each frame the long tick and
+              width * height pixels with 3 bytes (red, green, blue) each
+    It does not need a window, so it also works with HeadlessRunner (record=<directory>).
+ */
+
+
+//Module/Class FrameRecorder
+//Abstraction: Simulation
+//uses instances of Frame, Rasterizer, BlockingQueue and FileChannel, therefore operates on a higher level of abstraction
+//gets used in class HeadlessRunner, therefore operates on a lower level of abstraction
+public class FrameRecorder implements AutoCloseable {
+
+    //the formats the frames can be written in
+    public enum Format { PNG, RAW }
+
+    private final Path directory;
+    private final Format format;
+    private final int everyNthTick;
+    private final BlockingQueue<Frame> queue;
+    private final Rasterizer rasterizer;
+    private final Thread thread;
+    private FileChannel raw; // only used for Format.RAW
+    private ByteBuffer rawBuffer;
+    private Frame drawn; // the last frame which has been drawn by the rasterizer
+    private volatile boolean closed = false;
+    private volatile IOException error; // the first error of the recording thread
+    private volatile long recorded = 0;
+    private volatile long dropped = 0;
+
+
+    //Class method
+    /**
+     * this constructor creates the directory and starts the recording thread.
+     * @param world the world whose frames shall be recorded (only used to read its size, heights and colonies)
+     * @param directory the directory the images are written to
+     * @param format PNG or RAW
+     * @param everyNthTick only frames whose tick is a multiple of this number are recorded
+     * @param queueCapacity how many frames can wait for the recording thread before frames get dropped
+     * @throws IOException if the directory or the raw file can not be created
+     */
+    public FrameRecorder(World world, Path directory, Format format, int everyNthTick, int queueCapacity) throws IOException {
+        if (everyNthTick <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("everyNthTick and queueCapacity have to be positive");
+        }
+        int sideLength = world.getFields().length;
+        this.directory = directory;
+        this.format = format;
+        this.everyNthTick = everyNthTick;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.rasterizer = new Rasterizer(sideLength, Rasterizer.imageWidth(sideLength), world.getMaxHeight(), world.getColonies());
+
+        Files.createDirectories(directory);
+        if (format == Format.RAW) {
+            int width = rasterizer.getImage().getWidth();
+            this.raw = FileChannel.open(directory.resolve("frames.raw"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.rawBuffer = ByteBuffer.allocateDirect(8 + width * width * 3);
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(width).putInt(width).flip();
+            while (header.hasRemaining()) {
+                raw.write(header);
+            }
+        }
+
+        this.thread = new Thread(this::record, "FrameRecorder");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+
+    //Class method
+    /**
+     * this method hands a frame to the recording thread. It never waits: frames which are not sampled are skipped,
+     * if the queue is full the frame is dropped. The world should only publish the sampled frames (see
+     * World.setFramePublishing(true, getEveryNthTick())), so the other frames are not created at all.
+     * @param frame the frame which has been published by the world
+     */
+    public void offer(Frame frame) {
+        if (closed || frame.getTick() % everyNthTick != 0) {
+            return;
+        }
+        if (!queue.offer(frame)) {
+            dropped++; // only the simulation thread calls offer()
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method waits until all frames of the queue are written and stops the recording thread.
+     * @throws IOException if a frame could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (raw != null) {
+            raw.close();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+
+    //Class method
+    /**
+     * @return only frames whose tick is a multiple of this number are recorded
+     */
+    public int getEveryNthTick() { return everyNthTick; }
+
+
+    //Class method
+    /**
+     * @return how many frames have been written
+     */
+    public long getRecorded() { return recorded; }
+
+
+    //Class method
+    /**
+     * @return how many frames have been dropped because the queue was full
+     */
+    public long getDropped() { return dropped; }
+
+
+    //Class method
+    /**
+     * this method runs on the recording thread: it takes the frames from the queue and writes them until the recorder
+     * is closed and the queue is empty.
+     */
+    private void record() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Frame frame = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (frame != null) {
+                    write(frame);
+                    recorded++;
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+            closed = true;
+        } catch (InterruptedException e) {
+            closed = true;
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method draws a frame and writes it as png file or appends it to the raw file.
+     * @param frame the frame which shall be written
+     * @throws IOException if the frame could not be written
+     */
+    private void write(Frame frame) throws IOException {
+        if (drawn == null) {
+            rasterizer.drawAll(frame);
+        } else {
+            rasterizer.drawChanges(frame, drawn);
+        }
+        drawn = frame;
+
+        BufferedImage image = rasterizer.getImage();
+        if (format == Format.PNG) {
+            ImageIO.write(image, "png", directory.resolve(String.format("frame_%08d.png", frame.getTick())).toFile());
+        } else {
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            rawBuffer.clear();
+            rawBuffer.putLong(frame.getTick());
+            for (int pixel : pixels) {
+                rawBuffer.put((byte) (pixel >> 16)).put((byte) (pixel >> 8)).put((byte) pixel);
+            }
+            rawBuffer.flip();
+            while (rawBuffer.hasRemaining()) {
+                raw.write(rawBuffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/*
+    HeadlessRunner runs a World without Draw and without a Timer: World.run() gets called as fast as possible until
+    the number of ticks is reached or the stop condition holds. It does not need CodeDraw on the classpath.
+    At the end the speed of the simulation (ticks/sec and ant-moves/sec) gets printed.
+
+    usage: java HeadlessRunner [--config=file.properties] [key=value ...]
+    keys:  all parameters of the World constructor (see WorldConfig), e.G. fieldLength=250 numberOfAnts=100, any other
+           key than the ones below is rejected (also by the other tools)
+           seed=<n>                  the seed of the world, the same seed and parameters create the same simulation
+           ticks=<n>                 the maximum number of ticks (default 10000)
+           until=none|converged|homes stop when the ants' paths converged or when all homes are built (default none)
+           ratio=<r>                 the ratio used by until=converged (default 1.0, see World.hasConverged())
+           metrics=true|false        measures the phases of each tick and prints the metrics (default false)
+           record=<directory>        records the frames with a FrameRecorder into the directory
+           recordFormat=png|raw      one png file per frame or all frames in one raw file (default png)
+           recordEvery=<n>           only every n-th tick is recorded (default 10)
+           recordQueue=<n>           how many frames can wait to be written before frames get dropped (default 16)
+           checkpoint=<file>         saves the world into the file (see WorldCheckpoint) at the end and every checkpointEvery ticks,
+                                     %d in the name gets replaced by the tick (e.G run-%d.bin keeps all checkpoints)
+           checkpointEvery=<n>       how many ticks are between two checkpoints (default 0: only at the end)
+           resume=<file>             continues the world of a checkpoint instead of creating a new one (the parameters
+                                     of the world are the ones of the checkpoint), ticks counts the ticks after resuming
+           trajectories=<file>       records the position and AntState of every ant after every tick (see TrajectoryRecorder)
+           trajectoryBlock=<n>       how many ticks are stored in one block of the trajectories (default 256)
+           eventLog=<file>           logs the inputs, key events and checkpoints of the world (see EventLog and Replay)
+           hashEvery=<n>             every how many ticks the state hash gets logged into the eventLog (default 100, 0: never)
+           terrainEdits=<n>          changes the height of n random fields after each tick (default 0), the changes are
+                                     inputs of the world, so they get logged into the eventLog
+    values given on the command line overwrite the values of the config file.
+ */
+
+
+//Module/Class HeadlessRunner
+//Abstraction: Simulation
+//uses instances of World, WorldConfig, WorldCheckpoint, EventLog, TrajectoryRecorder and Properties, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class HeadlessRunner {
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.fromProperties())
+    private static final List<String> controlKeys = List.of("ticks", "until", "ratio", "metrics", "record", "recordFormat",
+            "recordEvery", "recordQueue", "checkpoint", "checkpointEvery", "resume", "trajectories", "trajectoryBlock", "eventLog", "hashEvery", "terrainEdits");
+
+    //the result of a run, nanos is the time needed for all ticks
+    public record Result(long ticks, long antMoves, long nanos, boolean conditionMet) {
+
+        //Class method
+        /**
+         * @return the number of ticks per second
+         */
+        public double ticksPerSecond() {
+            return nanos == 0 ? 0 : ticks * 1e9 / nanos;
+        }
+
+
+        //Class method
+        /**
+         * @return the number of ant moves per second
+         */
+        public double antMovesPerSecond() {
+            return nanos == 0 ? 0 : antMoves * 1e9 / nanos;
+        }
+    }
+
+
+    //Module method of module HeadlessRunner
+    public static void main(String[] args) throws IOException {
+        Properties properties = readArguments(args);
+        WorldConfig config = WorldConfig.fromProperties(properties, controlKeys);
+        long ticks = Long.parseLong(properties.getProperty("ticks", "10000"));
+        Predicate<World> until = stopCondition(properties.getProperty("until", "none"),
+                Double.parseDouble(properties.getProperty("ratio", "1.0")));
+
+        World world;
+        if (properties.containsKey("resume")) {
+            long start = System.nanoTime();
+            world = WorldCheckpoint.load(Path.of(properties.getProperty("resume")));
+            System.out.printf("resumed at tick %d in %.1f ms%n", world.getTick(), (System.nanoTime() - start) / 1e6);
+        } else {
+            world = config.createWorld();
+        }
+        String checkpoint = properties.getProperty("checkpoint");
+        long checkpointEvery = Long.parseLong(properties.getProperty("checkpointEvery", "0"));
+        EventLog eventLog = null;
+        if (properties.containsKey("eventLog")) {
+            eventLog = new EventLog(Path.of(properties.getProperty("eventLog")), properties.containsKey("resume") ? null : config,
+                    Long.parseLong(properties.getProperty("hashEvery", "100")));
+            if (properties.containsKey("resume")) {
+                eventLog.checkpointSaved(world.getTick(), Path.of(properties.getProperty("resume")));
+            }
+            world.setEventLog(eventLog);
+        }
+        EventLog log = eventLog;
+        Consumer<World> afterTick = w -> { };
+        if (checkpoint != null && checkpointEvery > 0) {
+            afterTick = w -> {
+                if (w.getTick() % checkpointEvery == 0) {
+                    try {
+                        saveCheckpoint(w, checkpoint, log);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+        int terrainEdits = Integer.parseInt(properties.getProperty("terrainEdits", "0"));
+        if (terrainEdits > 0) {
+            SimulationRandom random = new SimulationRandom(config.seed ^ world.getTick());
+            int side = world.getFields().length;
+            afterTick = afterTick.andThen(w -> {
+                for (int i = 0; i < terrainEdits; i++) {
+                    w.setHeight(random.nextInt(side), random.nextInt(side), random.nextInt(w.getMaxHeight() + 1));
+                }
+            });
+        }
+        FrameRecorder recorder = null;
+        if (properties.containsKey("record")) {
+            recorder = new FrameRecorder(world, Path.of(properties.getProperty("record")),
+                    FrameRecorder.Format.valueOf(properties.getProperty("recordFormat", "png").toUpperCase()),
+                    Integer.parseInt(properties.getProperty("recordEvery", "10")),
+                    Integer.parseInt(properties.getProperty("recordQueue", "16")));
+            world.addFrameListener(recorder::offer);
+            world.setFramePublishing(true, recorder.getEveryNthTick()); // the other frames would be dropped by the recorder
+        }
+        TrajectoryRecorder trajectories = null;
+        if (properties.containsKey("trajectories")) {
+            trajectories = new TrajectoryRecorder(world, Path.of(properties.getProperty("trajectories")),
+                    Integer.parseInt(properties.getProperty("trajectoryBlock", "256")), 64);
+            afterTick = afterTick.andThen(trajectories::offer);
+        }
+        boolean metrics = Boolean.parseBoolean(properties.getProperty("metrics", "false"));
+        world.setMetricsEnabled(metrics);
+        Result result = run(world, ticks, until, afterTick);
+        if (recorder != null) {
+            recorder.close();
+        }
+        if (trajectories != null) {
+            trajectories.close();
+        }
+        if (checkpoint != null) {
+            saveCheckpoint(world, checkpoint, eventLog);
+        }
+        if (eventLog != null) {
+            eventLog.close();
+        }
+
+        if (!properties.containsKey("resume")) {
+            System.out.println(config); // a resumed world has the parameters of its checkpoint
+        }
+        System.out.println("ticks:          " + result.ticks() + (result.conditionMet() ? " (stop condition met)" : ""));
+        System.out.printf("time:           %.3f s%n", result.nanos() / 1e9);
+        System.out.printf("ticks/sec:      %.1f%n", result.ticksPerSecond());
+        System.out.printf("ant-moves/sec:  %.1f%n", result.antMovesPerSecond());
+        printBestColony(world);
+        if (recorder != null) {
+            System.out.println("frames:         " + recorder.getRecorded() + " recorded, " + recorder.getDropped() + " dropped");
+        }
+        if (metrics) {
+            System.out.print(world.getMetrics());
+        }
+        if (trajectories != null) {
+            System.out.printf("trajectories:   %d ticks, %.1f MB%n", trajectories.getRecorded(), trajectories.getBytes() / 1e6);
+        }
+        if (eventLog != null) {
+            System.out.println("events:         " + eventLog.getEvents() + " logged");
+        }
+    }
+
+
+    //Module method
+    /**
+     * this method prints the colony whose ants have brought food home most often, to compare runs with different
+     * parameters (e.G. maxHomes) by more than the speed.
+     * @param world the world after the run
+     */
+    private static void printBestColony(World world) {
+        int best = 0;
+        for (int colony = 1; colony < world.getHomesBuilt(); colony++) {
+            if (world.getDeliveriesOfColony(colony) > world.getDeliveriesOfColony(best)) {
+                best = colony;
+            }
+        }
+        System.out.println("colonies:       " + world.getHomesBuilt() + " built, best: colony " + best + " with "
+                + world.getAntsOfColony(best) + " ants and " + world.getDeliveriesOfColony(best) + " deliveries");
+    }
+
+
+    //Module method
+    /**
+     * this method saves a checkpoint of the world and logs it.
+     * @param world the world which shall be saved
+     * @param checkpoint the name of the file, %d gets replaced by the tick of the world
+     * @param eventLog the log of the world, null if it is not logged
+     */
+    private static void saveCheckpoint(World world, String checkpoint, EventLog eventLog) throws IOException {
+        Path file = Path.of(checkpoint.replace("%d", "" + world.getTick()));
+        WorldCheckpoint.save(world, file);
+        if (eventLog != null) {
+            eventLog.checkpointSaved(world.getTick(), file);
+        }
+    }
+
+
+    //Module method
+    /**
+     * this method calls world.run() until maxTicks is reached or the condition holds.
+     * @param world the world which shall be simulated
+     * @param maxTicks the maximum number of ticks
+     * @param until the stop condition, it gets checked after each tick
+     * @return the result with the number of ticks, ant moves and the time needed
+     */
+    public static Result run(World world, long maxTicks, Predicate<World> until) {
+        return run(world, maxTicks, until, w -> { });
+    }
+
+
+    //Module method
+    /**
+     * this method calls world.run() until maxTicks is reached or the condition holds.
+     * @param world the world which shall be simulated
+     * @param maxTicks the maximum number of ticks
+     * @param until the stop condition, it gets checked after each tick
+     * @param afterTick gets called after each tick (e.G to save a checkpoint), its time is part of the result
+     * @return the result with the number of ticks, ant moves and the time needed
+     */
+    public static Result run(World world, long maxTicks, Predicate<World> until, Consumer<World> afterTick) {
+        long startMoves = world.getAntMoves();
+        long start = System.nanoTime();
+        long ticks = 0;
+        boolean conditionMet = false;
+        while (ticks < maxTicks) {
+            world.run();
+            ticks++;
+            afterTick.accept(world);
+            if (until.test(world)) {
+                conditionMet = true;
+                break;
+            }
+        }
+        return new Result(ticks, world.getAntMoves() - startMoves, System.nanoTime() - start, conditionMet);
+    }
+
+
+    //Module method
+    /**
+     * @param name the name of the condition (none, converged or homes)
+     * @param ratio the ratio used for converged
+     * @return the stop condition
+     */
+    public static Predicate<World> stopCondition(String name, double ratio) {
+        return switch (name) {
+            case "none" -> world -> false;
+            case "converged" -> world -> world.hasConverged(ratio);
+            case "homes" -> world -> world.getHomesBuilt() >= world.getMaxHomes();
+            default -> throw new IllegalArgumentException("unknown stop condition: " + name);
+        };
+    }
+
+
+    //Module method
+    /**
+     * @param args the command line arguments (--config=file and key=value)
+     * @return the properties of the config file overwritten by the key=value arguments
+     */
+    public static Properties readArguments(String[] args) throws IOException {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) {
+                try (Reader reader = new FileReader(arg.substring("--config=".length()))) {
+                    properties.load(reader);
+                }
+            }
+        }
+        for (String arg : args) {
+            String keyValue = arg.startsWith("--") ? arg.substring(2) : arg;
+            int index = keyValue.indexOf('=');
+            if (index < 0) {
+                throw new IllegalArgumentException("argument has to be key=value: " + arg);
+            }
+            if (!keyValue.startsWith("config=")) {
+                properties.setProperty(keyValue.substring(0, index), keyValue.substring(index + 1));
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,404 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. Unlike Dijkstra it keeps an intern state (the distance field), because the
+ * whole point of it is to reuse the work of earlier calculations when the terrain changes.
+ * All arrays are primitive and indexed by cell number (y * sideLength + x), so a repair does not create any objects.
+ */
+
+/*
+    IncrementalDijkstra holds the distance of every field of the world to the nearest source (e.G an ant home).
+    It is an implementation of Lifelong Planning A* without a heuristic: every field has a value g (the last known distance)
+    and rhs (the distance calculated from the neighbours' g values). A field is consistent if g == rhs.
+    When the height of a field changes or an obstacle is placed/removed, only this field and its neighbours are checked again
+    and the repair only visits the fields whose distance really changed, instead of recalculating the whole world.
+    The costs between two fields are the same as in Dijkstra (Dijkstra.calculateCost()), fields with the state OBSTACLE
+    can not be crossed.
+ */
+
+
+//Module/Class IncrementalDijkstra
+//Abstraction: Simulation
+//uses references of following Classes: Field, Coordinate and Dijkstra. Therefore operates on a higher level of abstraction
+//gets used in class World and PathBenchmark, therefore operates on a lower level of abstraction
+public class IncrementalDijkstra {
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    private final Field[][] fields;
+    private final int sideLength;
+    private final int[] g; // the last calculated distance of each field
+    private final int[] rhs; // the distance calculated from the neighbours of each field
+    private final boolean[] source;
+
+    //indexed binary heap of inconsistent fields, ordered by min(g, rhs)
+    private final int[] heap;
+    private final int[] heapPosition; // position of a field within the heap or -1
+    private final int[] heapKey;
+    private int heapSize = 0;
+
+    private long expansions = 0; // how many fields have been taken from the heap so far
+
+
+    //Class method
+    /**
+     * this constructor calculates the distance of every field to the given source.
+     * @param fields double array which holds all fields of the world
+     * @param source the coordinate where all distances start (e.G the home)
+     */
+    public IncrementalDijkstra(Field[][] fields, Coordinate source) {
+        this(fields);
+        this.addSource(source.getPosX(), source.getPosY());
+        this.repair();
+    }
+
+
+    //Class method
+    /**
+     * this constructor reads the sources and the distance of every field from a checkpoint (see writeCheckpoint()), so
+     * the distances do not have to be calculated again. The fields have to be the same as when it was written.
+     * @param fields double array which holds all fields of the world
+     * @param in the checkpoint
+     */
+    public IncrementalDijkstra(Field[][] fields, WorldCheckpoint.Input in) throws IOException {
+        this(fields);
+        int sources = in.getInt();
+        for (int i = 0; i < sources; i++) {
+            int cell = in.getInt();
+            this.source[cell] = true;
+        }
+        in.getInts(this.g);
+        System.arraycopy(this.g, 0, this.rhs, 0, this.g.length); // after a repair every field is consistent
+    }
+
+
+    //Class method
+    /**
+     * this constructor creates the arrays, every field has the distance INFINITY.
+     * @param fields double array which holds all fields of the world
+     */
+    private IncrementalDijkstra(Field[][] fields) {
+        this.fields = fields;
+        this.sideLength = fields.length;
+        int cells = sideLength * sideLength;
+        this.g = new int[cells];
+        this.rhs = new int[cells];
+        this.source = new boolean[cells];
+        this.heap = new int[cells];
+        this.heapPosition = new int[cells];
+        this.heapKey = new int[cells];
+        Arrays.fill(this.g, INFINITY);
+        Arrays.fill(this.rhs, INFINITY);
+        Arrays.fill(this.heapPosition, -1);
+    }
+
+
+    //Class method
+    /**
+     * this method adds another source, the distances will be the distance to the nearest source after the next repair().
+     * @param x position of the new source
+     * @param y position of the new source
+     */
+    public void addSource(int x, int y) {
+        int cell = y * sideLength + x;
+        this.source[cell] = true;
+        this.rhs[cell] = 0;
+        this.updateHeap(cell);
+    }
+
+
+    //Class method
+    /**
+     * this method has to be called after the height or the state (obstacle) of a field has changed.
+     * The field and all its neighbours will be checked during the next repair().
+     * @param x position of the changed field
+     * @param y position of the changed field
+     */
+    public void cellChanged(int x, int y) {
+        this.updateVertex(y * sideLength + x);
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx != 0 || dy != 0) {
+                    this.updateVertex(this.wrap(y + dy) * sideLength + this.wrap(x + dx));
+                }
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method makes all fields consistent again. Only fields whose distance is affected by the changes
+     * since the last repair will be visited.
+     * @return how many fields have been taken from the heap
+     */
+    public int repair() {
+        SimulationEvents.DijkstraRun event = new SimulationEvents.DijkstraRun();
+        event.begin();
+        int expanded = 0;
+        while (heapSize > 0) {
+            int cell = this.pop();
+            expanded++;
+            if (g[cell] > rhs[cell]) {
+                g[cell] = rhs[cell];
+                this.relaxNeighbours(cell);
+            } else {
+                g[cell] = INFINITY;
+                this.updateVertex(cell);
+                this.updateNeighbours(cell);
+            }
+        }
+        this.expansions += expanded;
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = "IncrementalDijkstra";
+            event.sideLength = sideLength;
+            event.fields = sideLength * sideLength;
+            event.expandedNodes = expanded;
+            event.commit();
+        }
+        return expanded;
+    }
+
+
+    //Class method
+    /**
+     * @param x position of the field
+     * @param y position of the field
+     * @return the distance of the field to the nearest source or INFINITY if it can not be reached
+     */
+    public int getDistance(int x, int y) {
+        return g[y * sideLength + x];
+    }
+
+
+    //Class method
+    /**
+     * this method writes the sources and the distance of every field into a checkpoint (see WorldCheckpoint).
+     * It repairs the distances first, so they are consistent.
+     * @param out the checkpoint
+     */
+    public void writeCheckpoint(WorldCheckpoint.Output out) throws IOException {
+        this.repair();
+        int sources = 0;
+        for (boolean isSource : this.source) {
+            sources += isSource ? 1 : 0;
+        }
+        out.putInt(sources);
+        for (int cell = 0; cell < this.source.length; cell++) {
+            if (this.source[cell]) {
+                out.putInt(cell);
+            }
+        }
+        out.putInts(this.g);
+    }
+
+
+    //Class method
+    /**
+     * @return how many fields have been taken from the heap since this object has been created
+     */
+    public long getExpansions() {
+        return this.expansions;
+    }
+
+
+    //Class method
+    /**
+     * this method calculates rhs of a field from the g values of its neighbours and puts the field into the heap
+     * if it is not consistent.
+     * @param cell the number of the field
+     */
+    private void updateVertex(int cell) {
+        if (!source[cell]) {
+            int x = cell % sideLength;
+            int y = cell / sideLength;
+            int best = INFINITY;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx == 0 && dy == 0) {
+                        continue;
+                    }
+                    int neighbour = this.wrap(y + dy) * sideLength + this.wrap(x + dx);
+                    int cost = this.cost(cell, neighbour);
+                    if (cost != INFINITY && g[neighbour] != INFINITY && g[neighbour] + cost < best) {
+                        best = g[neighbour] + cost;
+                    }
+                }
+            }
+            rhs[cell] = best;
+        }
+        this.updateHeap(cell);
+    }
+
+
+    //Class method
+    /**
+     * this method is used when the distance of a field got smaller: the neighbours only have to check
+     * if the path over this field is shorter, instead of looking at all of their neighbours again.
+     * @param cell the field whose distance got smaller
+     */
+    private void relaxNeighbours(int cell) {
+        int x = cell % sideLength;
+        int y = cell / sideLength;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx == 0 && dy == 0) {
+                    continue;
+                }
+                int neighbour = this.wrap(y + dy) * sideLength + this.wrap(x + dx);
+                int cost = this.cost(cell, neighbour);
+                if (!source[neighbour] && cost != INFINITY && g[cell] + cost < rhs[neighbour]) {
+                    rhs[neighbour] = g[cell] + cost;
+                    this.updateHeap(neighbour);
+                }
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * @param cell the field whose neighbours shall be updated
+     */
+    private void updateNeighbours(int cell) {
+        int x = cell % sideLength;
+        int y = cell / sideLength;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx != 0 || dy != 0) {
+                    this.updateVertex(this.wrap(y + dy) * sideLength + this.wrap(x + dx));
+                }
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * @param from number of the first field
+     * @param to number of the second field
+     * @return the cost to move between both fields or INFINITY if one of them is an obstacle
+     */
+    private int cost(int from, int to) {
+        Field fromField = fields[from / sideLength][from % sideLength];
+        Field toField = fields[to / sideLength][to % sideLength];
+        if (fromField.getFieldState() == FieldState.OBSTACLE || toField.getFieldState() == FieldState.OBSTACLE) {
+            return INFINITY;
+        }
+        return Dijkstra.calculateCost(fromField.getHeight(), toField.getHeight());
+    }
+
+
+    //Class method
+    /**
+     * @param position a position which can be out of bound
+     * @return the position within the world (the world is wrapped around at the edges)
+     */
+    private int wrap(int position) {
+        return (position + sideLength) % sideLength;
+    }
+
+
+    //Class method
+    /**
+     * this method removes the field from the heap and inserts it again if it is inconsistent
+     * @param cell the number of the field
+     */
+    private void updateHeap(int cell) {
+        boolean consistent = g[cell] == rhs[cell];
+        int key = Math.min(g[cell], rhs[cell]);
+        int position = heapPosition[cell];
+        if (position >= 0) {
+            if (consistent) {
+                this.removeAt(position);
+            } else {
+                heapKey[cell] = key;
+                this.siftUp(this.siftDown(position));
+            }
+        } else if (!consistent) {
+            heapKey[cell] = key;
+            heap[heapSize] = cell;
+            heapPosition[cell] = heapSize;
+            this.siftUp(heapSize++);
+        }
+    }
+
+
+    //Class method
+    /**
+     * @return the field with the smallest key, which gets removed from the heap
+     */
+    private int pop() {
+        int cell = heap[0];
+        this.removeAt(0);
+        return cell;
+    }
+
+
+    //Class method
+    /**
+     * @param position the position within the heap which shall be removed
+     */
+    private void removeAt(int position) {
+        int removed = heap[position];
+        heapPosition[removed] = -1;
+        heapSize--;
+        if (position < heapSize) {
+            heap[position] = heap[heapSize];
+            heapPosition[heap[position]] = position;
+            this.siftUp(this.siftDown(position));
+        }
+    }
+
+
+    //Class method
+    /**
+     * @param position the position of the element which shall be moved up
+     * @return the new position of the element
+     */
+    private int siftUp(int position) {
+        int cell = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (heapKey[heap[parent]] <= heapKey[cell]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapPosition[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = cell;
+        heapPosition[cell] = position;
+        return position;
+    }
+
+
+    //Class method
+    /**
+     * @param position the position of the element which shall be moved down
+     * @return the new position of the element
+     */
+    private int siftDown(int position) {
+        int cell = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKey[heap[child + 1]] < heapKey[heap[child]]) {
+                child++;
+            }
+            if (heapKey[cell] <= heapKey[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = cell;
+        heapPosition[cell] = position;
+        return position;
+    }
+}
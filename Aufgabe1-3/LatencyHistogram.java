@@ -0,0 +1,125 @@
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for recording durations. The class' state is changeable, because every recorded duration changes the counts.
+ */
+
+/*
+    LatencyHistogram counts durations (in nanoseconds) in buckets instead of storing them, so recording a value is only an
+    array increment and the histogram never grows. Values below 64 ns have their own bucket, larger values are put into
+    32 buckets per power of two, so a percentile is at most ~3% larger than the real value. The maximum is exact.
+ */
+
+
+//Module/Class LatencyHistogram
+//Abstraction: Simulation
+//gets used in class SimulationMetrics, therefore operates on a lower level of abstraction
+public class LatencyHistogram {
+    private static final int linearBuckets = 64; // values 0 - 63 have their own bucket
+    private static final int subBucketBits = 5; // 32 buckets per power of two
+    private static final int subBuckets = 1 << subBucketBits;
+
+    private final long[] counts = new long[linearBuckets + (63 - 6) * subBuckets];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+
+    //Class method
+    /**
+     * @param nanos the duration which shall be recorded, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+
+    //Class method
+    /**
+     * @return how many durations have been recorded
+     */
+    public long getCount() { return count; }
+
+
+    //Class method
+    /**
+     * @return the longest recorded duration
+     */
+    public long getMax() { return max; }
+
+
+    //Class method
+    /**
+     * @return the mean of all recorded durations, 0 if nothing has been recorded
+     */
+    public double getMean() { return count == 0 ? 0 : (double) sum / count; }
+
+
+    //Class method
+    /**
+     * @param percentile the percentile between 0 and 100, e.G 50 for the median or 99
+     * @return the duration which is larger than or equal to percentile % of all recorded durations
+     *         (the upper bound of its bucket, at most the maximum), 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+
+    //Class method
+    /**
+     * this method removes all recorded durations.
+     */
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+
+    //Module method
+    /**
+     * @param value a duration
+     * @return the index of the bucket of the duration
+     */
+    private static int bucket(long value) {
+        if (value < linearBuckets) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // 6 - 62
+        int subBucket = (int) (value >>> (exponent - subBucketBits)) & (subBuckets - 1);
+        return linearBuckets + (exponent - 6) * subBuckets + subBucket;
+    }
+
+
+    //Module method
+    /**
+     * @param bucket the index of a bucket
+     * @return the largest duration which belongs to the bucket
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < linearBuckets) {
+            return bucket;
+        }
+        int exponent = (bucket - linearBuckets) / subBuckets + 6;
+        long subBucket = (bucket - linearBuckets) % subBuckets;
+        long lower = (1L << exponent) | (subBucket << (exponent - subBucketBits));
+        return lower + (1L << (exponent - subBucketBits)) - 1;
+    }
+}
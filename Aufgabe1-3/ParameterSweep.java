@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm, all methods are static and work only with the given parameters.
+ * The worlds are run by SimulationFarm.
+ */
+
+/*
+    ParameterSweep measures how fast the ants' shortest paths converge to the dijkstra paths for different parameters of
+    the World constructor. Each run stops as soon as World.hasConverged(ratio) holds or the tick budget is used up, so
+    cheap configurations finish early and the processors are free for the other ones (see SimulationFarm).
+    At the end a table with the time-to-convergence of every run is printed, sorted by the number of ticks.
+
+    usage: java ParameterSweep [--config=file.properties] [key=value ...]
+    keys:  mode=grid|random   grid: all combinations of the given values, random: samples random values (default grid)
+           samples=<n>        how many random configurations are created in mode random (default 20)
+           repeats=<n>        how many runs (with different seeds) are made per configuration (default 3)
+           budget=<ticks>     the maximum number of ticks per run (default 20000)
+           ratio=<r>          a run has converged if the ants' paths are at most ratio * dijkstra path (default 1.2)
+           firstSeed=<n>      the seed of the first run, the following runs use the next seeds (default 0)
+           <parameter>=v      a parameter of the World constructor (see WorldConfig) with a fixed value
+           <parameter>=v1,v2  the values of a parameter which shall be swept (grid and random)
+           <parameter>=a:b    a range of a parameter for mode random (integers for integer parameters)
+           any other key is rejected, so a misspelled parameter does not silently keep its default value
+    e.G.   java ParameterSweep scentIncrease=5,12,30 scentDecrease=0.9,0.95,0.98 maxAntMemory=0,10,50
+ */
+
+
+//Module/Class ParameterSweep
+//Abstraction: Simulation
+//uses instances of SimulationFarm, WorldConfig, World and Properties, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class ParameterSweep {
+
+    //the result of one run, ticks is the number of ticks until the run converged (or the budget if it did not converge)
+    public record Row(Map<String, String> parameters, long seed, boolean converged, long ticks, double ratio, double millis) { }
+
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.checkKey())
+    private static final List<String> controlKeys = List.of("mode", "samples", "repeats", "budget", "ratio", "firstSeed");
+
+
+    //Module method of module ParameterSweep
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Properties properties = HeadlessRunner.readArguments(args);
+        String mode = properties.getProperty("mode", "grid");
+        int samples = Integer.parseInt(properties.getProperty("samples", "20"));
+        int repeats = Integer.parseInt(properties.getProperty("repeats", "3"));
+        long budget = Long.parseLong(properties.getProperty("budget", "20000"));
+        double ratio = Double.parseDouble(properties.getProperty("ratio", "1.2"));
+        long firstSeed = Long.parseLong(properties.getProperty("firstSeed", "0"));
+
+        //the parameters with more than one value are swept, the others are the same for all runs
+        WorldConfig base = new WorldConfig();
+        Map<String, String> swept = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            WorldConfig.checkKey(name, controlKeys);
+            if (controlKeys.contains(name)) {
+                continue;
+            }
+            String value = properties.getProperty(name);
+            if (value.contains(",") || value.contains(":")) {
+                swept.put(name, value);
+            } else {
+                base.set(name, value);
+            }
+        }
+
+        List<WorldConfig> configurations = mode.equals("random")
+                ? sample(base, swept, samples, new Random(firstSeed))
+                : grid(base, swept);
+        List<WorldConfig> runs = new ArrayList<>();
+        for (WorldConfig configuration : configurations) {
+            for (int i = 0; i < repeats; i++) {
+                WorldConfig run = configuration.copy();
+                run.seed = firstSeed + runs.size();
+                runs.add(run);
+            }
+        }
+        System.out.println(runs.size() + " runs (" + configurations.size() + " configurations x " + repeats + " seeds), budget " + budget + " ticks, ratio " + ratio);
+
+        List<Row> rows = sweep(runs, swept.keySet(), budget, ratio);
+        printTable(rows, swept.keySet());
+    }
+
+
+    //Module method
+    /**
+     * this method runs all configurations on a SimulationFarm, each one until it converged or the budget is used up.
+     * @param runs the configurations of the runs (each one with its own seed)
+     * @param sweptParameters the names of the parameters which shall be stored in the rows
+     * @param budget the maximum number of ticks of each run
+     * @param ratio a run has converged if the ants' paths are at most ratio * dijkstra path
+     * @return one row for each run, sorted by the number of ticks (converged runs first)
+     * @throws InterruptedException if the thread gets interrupted while waiting for the runs
+     */
+    public static List<Row> sweep(List<WorldConfig> runs, Iterable<String> sweptParameters, long budget, double ratio) throws InterruptedException {
+        List<Row> rows = new ArrayList<>();
+        try (SimulationFarm farm = new SimulationFarm()) {
+            farm.run(runs, budget, world -> world.hasConverged(ratio), result -> {
+                Map<String, String> parameters = new LinkedHashMap<>();
+                for (String name : sweptParameters) {
+                    parameters.put(name, result.config().get(name));
+                }
+                rows.add(new Row(parameters, result.config().seed, result.run().conditionMet(), result.run().ticks(),
+                        result.convergenceRatio(), result.run().nanos() / 1e6));
+            });
+        }
+        rows.sort(Comparator.comparing((Row row) -> !row.converged()).thenComparingLong(Row::ticks));
+        return rows;
+    }
+
+
+    //Module method
+    /**
+     * @param base the config with the values of all fixed parameters
+     * @param swept the values of the swept parameters (v1,v2,...)
+     * @return a config for each combination of the swept values
+     */
+    public static List<WorldConfig> grid(WorldConfig base, Map<String, String> swept) {
+        List<WorldConfig> configurations = new ArrayList<>();
+        configurations.add(base.copy());
+        for (Map.Entry<String, String> parameter : swept.entrySet()) {
+            List<WorldConfig> combined = new ArrayList<>();
+            for (WorldConfig configuration : configurations) {
+                for (String value : parameter.getValue().split(",")) {
+                    WorldConfig copy = configuration.copy();
+                    copy.set(parameter.getKey(), value.trim());
+                    combined.add(copy);
+                }
+            }
+            configurations = combined;
+        }
+        return configurations;
+    }
+
+
+    //Module method
+    /**
+     * @param base the config with the values of all fixed parameters
+     * @param swept the values (v1,v2,...) or ranges (a:b) of the swept parameters
+     * @param samples how many configurations shall be created
+     * @param random the random numbers used to pick the values
+     * @return samples configurations with random values of the swept parameters
+     * @throws IllegalArgumentException if a range is given for a parameter which is not a number
+     */
+    public static List<WorldConfig> sample(WorldConfig base, Map<String, String> swept, int samples, Random random) {
+        List<WorldConfig> configurations = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            WorldConfig configuration = base.copy();
+            for (Map.Entry<String, String> parameter : swept.entrySet()) {
+                String value = parameter.getValue();
+                if (value.contains(":")) {
+                    Class<?> type = WorldConfig.typeOf(parameter.getKey());
+                    if (type != int.class && type != long.class && type != double.class) {
+                        throw new IllegalArgumentException(parameter.getKey() + " is not a number, use values (v1,v2,...) instead of a range");
+                    }
+                    String[] range = value.split(":");
+                    double min = Double.parseDouble(range[0].trim());
+                    double max = Double.parseDouble(range[1].trim());
+                    double picked = min + random.nextDouble() * (max - min);
+                    configuration.set(parameter.getKey(), type == double.class ? "" + picked : "" + Math.round(picked));
+                } else {
+                    String[] values = value.split(",");
+                    configuration.set(parameter.getKey(), values[random.nextInt(values.length)].trim());
+                }
+            }
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+
+
+    //Module method
+    /**
+     * this method prints the rows as a table: the swept parameters, the seed, the ticks until convergence, the final ratio
+     * and the time of the run.
+     * @param rows the rows which shall be printed
+     * @param sweptParameters the names of the swept parameters
+     */
+    public static void printTable(List<Row> rows, Iterable<String> sweptParameters) {
+        StringBuilder header = new StringBuilder();
+        for (String name : sweptParameters) {
+            header.append(String.format("%-20s", name));
+        }
+        header.append(String.format("%-14s%-14s%-10s%-10s", "seed", "ticks", "ratio", "ms"));
+        System.out.println(header);
+
+        for (Row row : rows) {
+            StringBuilder line = new StringBuilder();
+            for (String value : row.parameters().values()) {
+                line.append(String.format("%-20s", value));
+            }
+            String ticks = row.converged() ? "" + row.ticks() : ">" + row.ticks();
+            String ratio = Double.isInfinite(row.ratio()) ? "-" : String.format("%.3f", row.ratio());
+            line.append(String.format("%-14d%-14s%-10s%-10.1f", row.seed(), ticks, ratio, row.millis()));
+            System.out.println(line);
+        }
+    }
+}
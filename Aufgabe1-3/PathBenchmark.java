@@ -0,0 +1,73 @@
+/*
+    PathBenchmark changes the terrain of a world (heights and obstacles) at random positions and compares how long it
+    takes to repair the distances incrementally (World.setHeight(), World.placeObstacle(), ...) with recalculating them
+    from scratch, once with a new IncrementalDijkstra and once by running Dijkstra.shortestPath() for each food
+    (as World did before). After each change the results are compared, so the benchmark also checks the incremental repair.
+
+    usage: java PathBenchmark [sideLength] [numberOfEdits]
+ */
+
+
+//Module/Class PathBenchmark
+//Abstraction: Simulation
+//uses instances of World, IncrementalDijkstra and Dijkstra, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class PathBenchmark {
+
+    //Module method of module PathBenchmark
+    public static void main(String[] args) {
+        int sideLength = args.length > 0 ? Integer.parseInt(args[0]) : 250;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int maxHeight = 6;
+        int numberOfFood = 10;
+
+        World world = new World(sideLength, 0, numberOfFood, 5, 30, 0.96, (int) Math.ceil(sideLength / 10.0), maxHeight, true, 1, 0, 0);
+        Field[][] fields = world.getFields();
+
+        long incrementalNanos = 0;
+        long fullNanos = 0;
+        long dijkstraNanos = 0;
+        int mismatches = 0;
+
+        for (int i = 0; i < edits; i++) {
+            int x = (int) (Math.random() * sideLength);
+            int y = (int) (Math.random() * sideLength);
+
+            long start = System.nanoTime();
+            if (i % 3 == 0) {
+                if (!world.placeObstacle(x, y)) {
+                    world.removeObstacle(x, y);
+                }
+            } else {
+                world.setHeight(x, y, (int) (Math.random() * (maxHeight + 1)));
+            }
+            incrementalNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            IncrementalDijkstra full = new IncrementalDijkstra(fields, world.getHome());
+            fullNanos += System.nanoTime() - start;
+
+            int[] dijkstraPaths = new int[numberOfFood];
+            start = System.nanoTime();
+            for (int j = 0; j < numberOfFood; j++) {
+                dijkstraPaths[j] = Dijkstra.shortestPath(world.foods()[j], world.getHome(), fields);
+            }
+            dijkstraNanos += System.nanoTime() - start;
+
+            for (int j = 0; j < numberOfFood; j++) {
+                Coordinate food = world.foods()[j];
+                int fullDistance = full.getDistance(food.getPosX(), food.getPosY());
+                fullDistance = fullDistance == IncrementalDijkstra.INFINITY ? -1 : fullDistance;
+                if (world.getDijkstraPaths()[j] != fullDistance || world.getDijkstraPaths()[j] != dijkstraPaths[j]) {
+                    mismatches++;
+                }
+            }
+        }
+
+        System.out.println("world " + sideLength + "x" + sideLength + ", " + edits + " edits, " + numberOfFood + " food");
+        System.out.printf("incremental repair:          %10.3f ms/edit%n", incrementalNanos / 1e6 / edits);
+        System.out.printf("full distance field:         %10.3f ms/edit%n", fullNanos / 1e6 / edits);
+        System.out.printf("Dijkstra.shortestPath/food:  %10.3f ms/edit%n", dijkstraNanos / 1e6 / edits);
+        System.out.println("mismatching distances: " + mismatches);
+    }
+}
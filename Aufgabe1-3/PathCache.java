@@ -0,0 +1,96 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only stores the results of
+ * Dijkstra.shortestRoute() and the counters that belong to it.
+ * The methods are synchronized, because the routes are read by Draw while World changes the terrain.
+ */
+
+/*
+    PathCache stores the shortest routes which have been calculated by Dijkstra.shortestRoute().
+    A route is stored for a source, a target and the version of the terrain (see World.getTerrainVersion()), so after
+    a change of the terrain the old routes will not be used anymore and get removed over time.
+    When more than capacity routes are stored, the route which has not been used for the longest time gets removed (LRU).
+ */
+
+
+//Module/Class PathCache
+//Abstraction: Simulation
+//uses references of Dijkstra, Coordinate, Field and LinkedHashMap, therefore operates on a higher level of abstraction
+//gets used in class World, therefore operates on a lower level of abstraction
+public class PathCache {
+    private final Map<Key, int[]> routes;
+    private long hits = 0;
+    private long misses = 0;
+
+    //the key of a stored route, the fields are stored as y * sideLength + x
+    private record Key(int source, int target, long terrainVersion) { }
+
+
+    //Class method
+    /**
+     * this constructor creates an empty cache.
+     * @param capacity how many routes can be stored at max
+     */
+    public PathCache(int capacity) {
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+
+    //Class method
+    /**
+     * this method returns the stored route or calculates it if it is not stored yet.
+     * Note: the returned array is shared with the cache and must not be changed.
+     * @param source the start Coordinate
+     * @param target the goal Coordinate
+     * @param terrainVersion the current version of the terrain
+     * @param fields double array which holds all fields of the world
+     * @return the fields of the shortest route (see Dijkstra.shortestRoute())
+     */
+    public synchronized int[] getRoute(Coordinate source, Coordinate target, long terrainVersion, Field[][] fields) {
+        Key key = new Key(source.getPosY() * fields.length + source.getPosX(), target.getPosY() * fields.length + target.getPosX(), terrainVersion);
+        int[] route = this.routes.get(key);
+        if (route != null) {
+            this.hits++;
+            return route;
+        }
+        this.misses++;
+        route = Dijkstra.shortestRoute(source, target, fields);
+        this.routes.put(key, route);
+        return route;
+    }
+
+
+    //Class method
+    /**
+     * @return how often a stored route has been returned
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+
+    //Class method
+    /**
+     * @return how often a route had to be calculated
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+
+    //Class method
+    /**
+     * @return how many routes are currently stored
+     */
+    public synchronized int size() {
+        return this.routes.size();
+    }
+}
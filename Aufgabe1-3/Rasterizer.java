@@ -0,0 +1,455 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for turning a Frame into pixels. The class' state is changeable, because the pixels are overwritten with every frame.
+ */
+
+/*
+    Rasterizer writes the colors of the fields straight into the int array of a BufferedImage (one int per pixel, 0xRRGGBB),
+    instead of calling CodeDraw once per field. Draw hands the image to CodeDraw once per frame (see getImage()).
+    The Rasterizer does not use CodeDraw, so it can also be used without a window and without CodeDraw (see FrameRecorder).
+    All colors are calculated once in the constructor and stored in lookup tables:
+        heightColors: the color of a field without scent, indexed by height
+        scentColors:  the scentColor of each colony
+        antColors:    the antColor of each colony
+    The color of a field with scent is blended from its heightColor and the scentColor of the colony when it is drawn
+    (three multiplications), so the tables only grow with the number of colonies and not with colonies * heights * scent.
+
+    Level of detail: the image shows a square part of the world (the view, see setView()). If the view has more fields
+    than the image has pixels, a block of cellsPerPixel * cellsPerPixel fields is reduced to one pixel:
+        food > home > ants (the colony with ants on the most fields) > shortest route > obstacles (if they cover most
+        of the block) > the color of the colony with the most scent in the block (its highest scent, the average height)
+    The rows of pixels are independent of each other, so they are calculated in parallel.
+ */
+
+
+//Module/Class Rasterizer
+//Abstraction: Simulation
+//uses instances of Frame, Building, ColonyTally and BufferedImage, therefore operates on a higher level of abstraction
+//gets used in class Draw, therefore operates on a lower level of abstraction
+public class Rasterizer {
+    private static final int homeColor = new Color(235,156,92).getRGB();
+    private static final int foodColor = Color.YELLOW.getRGB();
+    private static final int obstacleColor = new Color(128,128,128).getRGB(); // Palette.DARK_GRAY of CodeDraw
+    private static final int routeColor = new Color(255,165,0).getRGB(); // Palette.ORANGE of CodeDraw
+    private static final int backgroundColor = Color.WHITE.getRGB();
+
+    private final int sideLength;
+    private final int width; // width and height of the image in pixels
+    private final int heights; // number of heights in heightColors (maxHeight + 1)
+    private final BufferedImage image;
+    private final int[] pixels; // the pixels of image, row by row
+    private final int[] heightColors;
+    private final int[] scentColors;
+    private final int[] antColors;
+    private final ColonyTally[][] counts; // three tallies for each thread of drawAll() (see newCount())
+    private final boolean[] changedPixels; // used by drawChanges() to reduce every block only once
+
+    private int viewX = 0; // the left field of the view
+    private int viewY = 0; // the top field of the view
+    private int viewSize; // how many fields the view is wide and high
+    private int fieldsize; // how many pixels a field is wide and high (1 if cellsPerPixel > 1)
+    private int cellsPerPixel; // how many fields are reduced to one pixel in each direction (1 if fieldsize > 1)
+
+
+    //Class method
+    /**
+     * this constructor creates the image and calculates the lookup tables of all colors. At first the view shows the
+     * whole world.
+     * @param sideLength the vertical and horizontal length of the world
+     * @param width how many pixels the image is wide and high
+     * @param maxHeight the maximum height of a field
+     * @param colonies the buildings of all colonies, the index is the id of the colony
+     */
+    public Rasterizer(int sideLength, int width, int maxHeight, Building[] colonies) {
+        this.sideLength = sideLength;
+        this.width = width;
+        this.heights = Math.min(maxHeight, 0xFF) + 1; // Frame stores at most 8 bits of height
+        this.image = new BufferedImage(width, width, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.changedPixels = new boolean[width * width];
+
+        this.heightColors = new int[heights];
+        for (int height = 0; height < heights; height++) {
+            heightColors[height] = calculateColorHeight(height, maxHeight).getRGB();
+        }
+        this.scentColors = new int[colonies.length];
+        this.antColors = new int[colonies.length];
+        for (int colony = 0; colony < colonies.length; colony++) {
+            scentColors[colony] = colonies[colony].scentColor.getRGB();
+            antColors[colony] = colonies[colony].antColor.getRGB();
+        }
+        this.counts = new ColonyTally[Runtime.getRuntime().availableProcessors()][];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = newCount();
+        }
+        this.setView(0, 0, sideLength);
+    }
+
+
+    //Module method
+    /**
+     * @param sideLength the vertical and horizontal length of the world
+     * @return the width of an image of the whole world with ~700 pixels: each field is fieldsize pixels wide, or if
+     *         the world has more than 700 fields per side, blocks of fields are reduced to one pixel
+     */
+    public static int imageWidth(int sideLength) {
+        if (sideLength <= 700) {
+            int fieldsize = Math.round((float) 700 / sideLength); //sideLength * fieldsize = ~ 700 (max. fieldsize)
+            return sideLength * fieldsize;
+        }
+        int cellsPerPixel = (sideLength + 699) / 700;
+        return (sideLength + cellsPerPixel - 1) / cellsPerPixel;
+    }
+
+
+    //Class method
+    /**
+     * this method changes the part of the world which is shown. The view is kept inside of the world.
+     * Note: the image has to be drawn again with drawAll() afterwards.
+     * @param x the left field of the view
+     * @param y the top field of the view
+     * @param size how many fields the view is wide and high (at least 1, at most sideLength)
+     */
+    public void setView(int x, int y, int size) {
+        this.viewSize = Math.max(1, Math.min(size, sideLength));
+        this.viewX = Math.max(0, Math.min(x, sideLength - viewSize));
+        this.viewY = Math.max(0, Math.min(y, sideLength - viewSize));
+        this.cellsPerPixel = (viewSize + width - 1) / width;
+        this.fieldsize = Math.max(1, width / viewSize);
+    }
+
+
+    //Class method
+    /**
+     * @return the left field of the view
+     */
+    public int getViewX() { return viewX; }
+
+
+    //Class method
+    /**
+     * @return the top field of the view
+     */
+    public int getViewY() { return viewY; }
+
+
+    //Class method
+    /**
+     * @return how many fields the view is wide and high
+     */
+    public int getViewSize() { return viewSize; }
+
+
+    //Class method
+    /**
+     * @param pixel x or y position of a pixel in the image
+     * @return how many fields the pixel is away from the left or top field of the view
+     */
+    public int toField(int pixel) {
+        return cellsPerPixel > 1 ? pixel * cellsPerPixel : pixel / fieldsize;
+    }
+
+
+    //Class method
+    /**
+     * this method draws every field of the view into the image, the rows of pixels are drawn in parallel: each thread
+     * draws every counts.length-th row with its own tallies.
+     * @param frame the frame which shall be drawn
+     */
+    public void drawAll(Frame frame) {
+        Arrays.fill(pixels, backgroundColor);
+        int rows = (viewSize + cellsPerPixel - 1) / cellsPerPixel;
+        IntStream.range(0, counts.length).parallel().forEach(thread -> {
+            ColonyTally[] count = counts[thread]; // reused for every pixel of the thread's rows
+            for (int row = thread; row < rows; row += counts.length) {
+                for (int column = 0; column < rows; column++) {
+                    drawPixel(frame, column, row, count);
+                }
+            }
+        });
+    }
+
+
+    //Class method
+    /**
+     * this method only draws the fields which look different than in the drawn frame. If frames have been skipped
+     * since the drawn frame, every field of the two frames gets compared instead.
+     * @param frame the frame which shall be drawn
+     * @param drawn the frame which is currently in the image
+     * @return how many pixels (or blocks of pixels) have been drawn
+     */
+    public int drawChanges(Frame frame, Frame drawn) {
+        ColonyTally[] count = counts[0];
+        int[] drawnPixels = new int[256];
+        int numberOfDrawn = 0;
+        boolean known = frame.getPreviousTick() == drawn.getTick();
+        int cells = known ? frame.getNumberOfChangedCells() : sideLength * sideLength;
+        for (int i = 0; i < cells; i++) {
+            int cell = known ? frame.getChangedCell(i) : i;
+            if (!known && !frame.differs(drawn, cell)) {
+                continue;
+            }
+            int x = cell % sideLength - viewX;
+            int y = cell / sideLength - viewY;
+            if (x < 0 || y < 0 || x >= viewSize || y >= viewSize) {
+                continue; // the field is not in the view
+            }
+            int column = x / cellsPerPixel;
+            int row = y / cellsPerPixel;
+            //with cellsPerPixel > 1 many changed fields can belong to the same pixel, which only has to be reduced once
+            if (!changedPixels[row * width + column]) {
+                changedPixels[row * width + column] = true;
+                if (numberOfDrawn == drawnPixels.length) {
+                    drawnPixels = Arrays.copyOf(drawnPixels, 2 * numberOfDrawn);
+                }
+                drawnPixels[numberOfDrawn++] = row * width + column;
+                drawPixel(frame, column, row, count);
+            }
+        }
+        for (int i = 0; i < numberOfDrawn; i++) {
+            changedPixels[drawnPixels[i]] = false;
+        }
+        return numberOfDrawn;
+    }
+
+
+    //Class method
+    /**
+     * @return the image which holds the current pixels, it gets changed by the next call of drawAll() or drawChanges()
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+
+    //Class method
+    /**
+     * this method draws one field (cellsPerPixel = 1) or reduces one block of fields to one pixel.
+     * @param frame the frame which shall be drawn
+     * @param column the column of the field or block in the view
+     * @param row the row of the field or block in the view
+     * @param count three tallies which can be overwritten (see newCount())
+     */
+    private void drawPixel(Frame frame, int column, int row, ColonyTally[] count) {
+        if (cellsPerPixel == 1) {
+            drawCell(frame, (viewY + row) * sideLength + viewX + column, column * fieldsize, row * fieldsize);
+        } else {
+            pixels[row * width + column] = reduce(frame, viewX + column * cellsPerPixel, viewY + row * cellsPerPixel, count);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method fills the block of pixels of one field. Home, food and obstacles have a fixed color, fields with ants
+     * the antColor of the colony with most ants, all other fields the color of the lookup table.
+     * The shortest route of each food is drawn as small square in the middle of the field, so the ants' trail is still
+     * visible around it.
+     * @param frame the frame which shall be drawn
+     * @param cell the number of the field (y * sideLength + x)
+     * @param left x position of the top left pixel of the field
+     * @param top y position of the top left pixel of the field
+     */
+    private void drawCell(Frame frame, int cell, int left, int top) {
+        int color;
+        FieldState state = frame.getFieldState(cell);
+        if (state == FieldState.HOME) {
+            color = homeColor;
+        } else if (state == FieldState.FOOD) {
+            color = foodColor;
+        } else if (state == FieldState.OBSTACLE) {
+            color = obstacleColor;
+        } else if (frame.getAntColony(cell) >= 0) {
+            color = antColors[frame.getAntColony(cell)];
+        } else {
+            color = fieldColor(frame.getScentColony(cell), frame.getHeight(cell), frame.getScent(cell));
+        }
+
+        fill(left, top, fieldsize, color);
+
+        if (frame.isOnRoute(cell)) {
+            int size = Math.max(1, fieldsize / 3);
+            int offset = (fieldsize - size) / 2;
+            fill(left + offset, top + offset, size, routeColor);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method reduces a block of fields to the color of one pixel (see the description of the class).
+     * @param frame the frame which shall be drawn
+     * @param left the left field of the block
+     * @param top the top field of the block
+     * @param count three tallies which can be overwritten: the fields with ants, the scent and the highest scent per colony
+     * @return the color of the pixel
+     */
+    private int reduce(Frame frame, int left, int top, ColonyTally[] count) {
+        ColonyTally ants = count[0];
+        ColonyTally scentSum = count[1];
+        ColonyTally scentMax = count[2];
+        ants.clear();
+        scentSum.clear();
+        scentMax.clear();
+        int right = Math.min(left + cellsPerPixel, viewX + viewSize);
+        int bottom = Math.min(top + cellsPerPixel, viewY + viewSize);
+        boolean food = false;
+        boolean home = false;
+        boolean route = false;
+        int obstacles = 0;
+        int heightSum = 0;
+
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                int cell = y * sideLength + x;
+                FieldState state = frame.getFieldState(cell);
+                food |= state == FieldState.FOOD;
+                home |= state == FieldState.HOME;
+                route |= frame.isOnRoute(cell);
+                obstacles += state == FieldState.OBSTACLE ? 1 : 0;
+                heightSum += frame.getHeight(cell);
+                if (frame.getAntColony(cell) >= 0) {
+                    ants.add(frame.getAntColony(cell), 1);
+                }
+                int scentColony = frame.getScentColony(cell);
+                if (scentColony >= 0) {
+                    scentSum.add(scentColony, frame.getScent(cell));
+                    scentMax.max(scentColony, frame.getScent(cell));
+                }
+            }
+        }
+
+        int fields = (right - left) * (bottom - top);
+        if (food) {
+            return foodColor;
+        } else if (home) {
+            return homeColor;
+        }
+        int antColony = ants.maxColony();
+        if (antColony >= 0) {
+            return antColors[antColony];
+        } else if (route) {
+            return routeColor;
+        } else if (2 * obstacles > fields) {
+            return obstacleColor;
+        }
+
+        int scentColony = scentSum.maxColony();
+        int scent = scentColony < 0 ? 0 : scentMax.get(scentColony);
+        return fieldColor(scentColony, heightSum / fields, scent);
+    }
+
+
+    //Class method
+    /**
+     * this method fills a square of pixels with one color.
+     * @param left x position of the top left pixel
+     * @param top y position of the top left pixel
+     * @param size width and height of the square
+     * @param color the color as 0xRRGGBB
+     */
+    private void fill(int left, int top, int size, int color) {
+        for (int y = top; y < top + size; y++) {
+            int start = y * width + left;
+            for (int x = start; x < start + size; x++) {
+                pixels[x] = color;
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method blends the color of the height of a field with the scentColor of the colony with the strongest scent,
+     * it calculates the same color as calculateColor().
+     * @param colony the colony with the strongest scent or -1
+     * @param height the height of the field
+     * @param scent the scent of the strongest colony (0 - 100)
+     * @return the color as 0xRRGGBB
+     */
+    private int fieldColor(int colony, int height, int scent) {
+        int color1 = heightColors[Math.min(height, heights - 1)];
+        int color2 = (colony < 0) ? backgroundColor : scentColors[colony];
+        if (scent == 0) {
+            return color1;
+        } else if (scent >= 100) {
+            return color2;
+        }
+        return 0xFF000000 | blend(color1 >> 16 & 0xFF, color2 >> 16 & 0xFF, scent) << 16
+                | blend(color1 >> 8 & 0xFF, color2 >> 8 & 0xFF, scent) << 8 | blend(color1 & 0xFF, color2 & 0xFF, scent);
+    }
+
+
+    //Module method
+    /**
+     * @param channel1 a channel of the first color (0 - 255)
+     * @param channel2 the same channel of the second color
+     * @param number 0 - 100, how much of the second color is used
+     * @return the channel of the blended color, interpolated like in calculateColor()
+     */
+    private static int blend(int channel1, int channel2, int number) {
+        return (int) (channel1 + (channel2 - channel1) * (number * 0.01));
+    }
+
+
+    //Class method
+    /**
+     * this method creates the tallies which are used by reduce(), they are created once per thread in the constructor.
+     * @return a tally for the fields with ants, the scent and the highest scent per colony
+     */
+    private ColonyTally[] newCount() {
+        return new ColonyTally[]{new ColonyTally(antColors.length), new ColonyTally(antColors.length), new ColonyTally(antColors.length)};
+    }
+
+
+    //Module method
+    /**
+     * @param height of the field that needs color calculated
+     * @param maxHeight the maximum height of a field
+     * @return Color of that particular field
+     */
+    private static Color calculateColorHeight(int height, int maxHeight) {
+        return calculateColor((int) ((100.0/maxHeight)*height) + 1, new Color(51,72,63), new Color(85,120,105));
+    }
+
+
+    //Module method
+    /**
+     * this method calculates the color of a field. If the integer is 0, the method will return the first color. If the
+     * integer is 100, it will return the second color. Otherwise the colour will be calculated.
+     * @param number an integer which will be used for the color calculation
+     * @param color1 the color that will be returned if the given integer is 0
+     * @param color2 the color that will be returned if the given integer is 100
+     * @return the color of the field
+     */
+    private static Color calculateColor(int number, Color color1, Color color2) {
+
+        if (number == 0) {
+            return color1;
+        } else if (number >= 100) {
+            return color2;
+        } else {
+            int red1 = color1.getRed();
+            int green1 = color1.getGreen();
+            int blue1 = color1.getBlue();
+
+            int red2 = color2.getRed();
+            int green2 = color2.getGreen();
+            int blue2 = color2.getBlue();
+
+            //these interpolate each color1-channel
+            int newRed = (int) (red1 + (red2 - red1) * (number * 0.01));
+            int newGreen = (int) (green1 + (green2 - green1) * (number * 0.01));
+            int newBlue = (int) (blue1 + (blue2 - blue1) * (number * 0.01));
+
+            return new Color(newRed, newGreen, newBlue);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm, all methods are static and work only with the given parameters.
+ */
+
+/*
+    Replay rebuilds the World of any tick of a logged simulation (see EventLog), e.G to look at a colony which has been
+    founded at a bad spot or at ants which walk in a loop. It starts at the last checkpoint of the log before the tick
+    (or creates the world from the parameters and the seed of the log) and runs the ticks from there, making the inputs
+    of the log again at their ticks. The ticks run as fast as possible without drawing, so a replay is much faster than
+    the simulation in the window, and a checkpoint shortens it further.
+    If verify is true, the state hash of the world is compared with the logged one at each tick which has one, so a
+    replay which does not create the logged simulation (e.G because the code has changed) is noticed at the first tick
+    where it differs.
+
+    usage: java Replay log=<file> [tick=<n>] [verify=true] [save=<file>] [events=false]
+           tick     the tick which is rebuilt (default: the last tick of the log)
+           verify   compares the state hashes of the log (default true)
+           save     saves the rebuilt world as checkpoint, e.G to continue it with HeadlessRunner resume=<file>
+           events   prints the key events of the log (the colonies founded) before the replay
+    e.G    java HeadlessRunner eventLog=run.log checkpoint=run-%d.bin checkpointEvery=1000 terrainEdits=2 ticks=5000
+           java Replay log=run.log tick=3500
+ */
+
+
+//Module/Class Replay
+//Abstraction: Simulation
+//uses instances of World, EventLog, WorldConfig and WorldCheckpoint, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class Replay {
+
+    //the result of a replay: the rebuilt world, the tick where the replay has started and how many ticks it has run
+    public record Result(World world, long startTick, long ticks, int hashesVerified, long nanos) { }
+
+
+    //Module method of module Replay
+    public static void main(String[] args) throws IOException {
+        Properties properties = HeadlessRunner.readArguments(args);
+        if (!properties.containsKey("log")) {
+            throw new IllegalArgumentException("usage: java Replay log=<file> [tick=<n>] [verify=true] [save=<file>] [events=false]");
+        }
+        Path file = Path.of(properties.getProperty("log"));
+        EventLog.Recorded log = EventLog.read(file);
+        List<EventLog.Event> events = log.events();
+        long lastTick = events.isEmpty() ? 0 : events.get(events.size() - 1).tick();
+        long tick = Long.parseLong(properties.getProperty("tick", "" + lastTick));
+        boolean verify = Boolean.parseBoolean(properties.getProperty("verify", "true"));
+        System.out.println(log.config() == null ? "the log starts at a checkpoint" : log.config().toString());
+        System.out.printf("%d events until tick %d (%.1f KB)%n", events.size(), lastTick, Files.size(file) / 1e3);
+        if (Boolean.parseBoolean(properties.getProperty("events", "false"))) {
+            for (EventLog.Event event : events) {
+                if (event.type() == EventLog.Type.COLONY_FOUNDED) {
+                    System.out.printf("tick %8d: colony %d founded at (%d, %d)%n", event.tick(), event.value(), event.x(), event.y());
+                }
+            }
+        }
+
+        Result result = rebuild(file, log, tick, verify);
+        System.out.println("started at:     " + (result.startTick() == 0 ? "tick 0 (seed)" : "checkpoint of tick " + result.startTick()));
+        System.out.println("replayed:       " + result.ticks() + " ticks to tick " + result.world().getTick());
+        System.out.printf("time:           %.3f s (%.1f ticks/sec)%n", result.nanos() / 1e9,
+                result.nanos() == 0 ? 0 : result.ticks() * 1e9 / result.nanos());
+        System.out.println("hashes:         " + result.hashesVerified() + " verified");
+        System.out.printf("state hash:     %016x%n", result.world().stateHash());
+        if (properties.containsKey("save")) {
+            WorldCheckpoint.save(result.world(), Path.of(properties.getProperty("save")));
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param file the file of the log
+     * @param tick the tick which shall be rebuilt
+     * @param verify if the state hashes of the log shall be compared
+     * @return the result with the world as it was right after the tick (before the inputs which were made after it)
+     * @throws IllegalStateException if verify is true and the replay differs from the log
+     */
+    public static Result rebuild(Path file, long tick, boolean verify) throws IOException {
+        return rebuild(file, EventLog.read(file), tick, verify);
+    }
+
+
+    //Module method
+    /**
+     * @param file the file of the log, the files of the checkpoints are relative to it
+     * @param log the content of the log (see EventLog.read())
+     * @param tick the tick which shall be rebuilt
+     * @param verify if the state hashes of the log shall be compared
+     * @return the result with the world as it was right after the tick (before the inputs which were made after it)
+     * @throws IllegalStateException if verify is true and the replay differs from the log
+     */
+    public static Result rebuild(Path file, EventLog.Recorded log, long tick, boolean verify) throws IOException {
+        long start = System.nanoTime();
+        List<EventLog.Event> events = log.events();
+        World world = null;
+        int next = 0; // the next event which has to be replayed
+        //the last checkpoint before the tick whose file still holds the world of its tick (a file can be overwritten by a later checkpoint)
+        Set<Path> outdated = new HashSet<>();
+        for (int i = events.size() - 1; i >= 0 && world == null; i--) {
+            EventLog.Event event = events.get(i);
+            if (event.type() != EventLog.Type.CHECKPOINT || event.tick() > tick) {
+                continue;
+            }
+            Path checkpoint = file.toAbsolutePath().resolveSibling(event.file());
+            if (outdated.contains(checkpoint) || !Files.exists(checkpoint)) {
+                continue;
+            }
+            World loaded = WorldCheckpoint.load(checkpoint);
+            if (loaded.getTick() == event.tick()) {
+                world = loaded;
+                next = i + 1; // the events before the checkpoint are part of it
+            } else {
+                outdated.add(checkpoint);
+            }
+        }
+        if (world == null) {
+            if (log.config() == null) {
+                throw new IllegalStateException("the log starts at a checkpoint and there is no checkpoint before tick " + tick);
+            }
+            world = log.config().createWorld();
+        }
+
+        long startTick = world.getTick();
+        int hashesVerified = 0;
+        while (true) {
+            //the events after the last tick: the simulation's events of the tick and the inputs made after it
+            for (; next < events.size() && events.get(next).tick() <= world.getTick(); next++) {
+                EventLog.Event event = events.get(next);
+                if (event.tick() < world.getTick()) {
+                    continue; // only possible for the events which were logged before a checkpoint file has been overwritten
+                }
+                if (event.type().input && world.getTick() == tick) {
+                    break; // the world is rebuilt as it was right after the tick
+                }
+                if (event.type() == EventLog.Type.STATE_HASH && verify) {
+                    if (world.stateHash() != event.value()) {
+                        throw new IllegalStateException("the replay differs from the log at tick " + event.tick());
+                    }
+                    hashesVerified++;
+                }
+                replay(world, event);
+            }
+            if (world.getTick() >= tick) {
+                break;
+            }
+            world.run();
+        }
+        return new Result(world, startTick, world.getTick() - startTick, hashesVerified, System.nanoTime() - start);
+    }
+
+
+    //Module method
+    /**
+     * this method makes an input of the log again, the other events do not change the world.
+     * @param world the world of the replay
+     * @param event the event of the log
+     */
+    private static void replay(World world, EventLog.Event event) {
+        switch (event.type()) {
+            case HEIGHT -> world.setHeight(event.x(), event.y(), (int) event.value());
+            case OBSTACLE_PLACED -> world.placeObstacle(event.x(), event.y());
+            case OBSTACLE_REMOVED -> world.removeObstacle(event.x(), event.y());
+            case STEPPING_MODE -> world.setSteppingMode(SteppingMode.values()[(int) event.value()]);
+            case SKETCH_MEMORY -> world.setSketchMemory(event.value() != 0);
+            default -> { }
+        }
+    }
+}
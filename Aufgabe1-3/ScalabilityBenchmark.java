@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm, all methods are static and work only with the given parameters.
+ */
+
+/*
+    ScalabilityBenchmark measures how a World scales along one parameter (an axis) while all other parameters stay like
+    in the base world (the parameters of Simulation3 in Test with 250*250 fields). For each value of each axis a seeded
+    world is created, runs some warmup ticks and is then measured for measureMillis (at most maxTicks ticks):
+        ticks/sec, ant-moves/sec     the speed of World.run()
+        heap after GC                the used heap (in MB) after a garbage collection while the world is still alive
+        allocation rate              the bytes (in MB) allocated per second by the thread which runs the world
+    Every result is written as one row into a CSV file (and flushed), so the curves can be plotted and a crash of a
+    large world does not lose the smaller ones. If a world does not fit into the heap, its row gets the status OOM.
+
+    default axes:  fieldLength   20,100,250,1000,2500,5000,10000
+                   numberOfAnts  25,100,1000,10000,100000,1000000
+                   maxHomes      1,3,30,300,3000 (numberOfAnts grows with it, so each colony keeps the ants of a colony of the base world)
+                   numberOfFood  1,10,100,1000
+                   maxHeight     0,6,50,255
+    usage: java ScalabilityBenchmark [out=scalability.csv] [axes=fieldLength,numberOfAnts,...] [<axis>=v1,v2,...]
+                                     [warmup=20] [measureMillis=2000] [maxTicks=1000] [key=value of the base world ...]
+    e.G    java -Xmx8g ScalabilityBenchmark axes=numberOfAnts numberOfAnts=100,10000,1000000 fieldLength=1000
+ */
+
+
+//Module/Class ScalabilityBenchmark
+//Abstraction: Simulation
+//uses instances of World, WorldConfig, HeadlessRunner and the MXBeans of the JVM, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class ScalabilityBenchmark {
+
+    //the measurements of one world, status is OK or OOM (then all measurements are 0)
+    public record Row(String axis, WorldConfig config, String status, double constructMillis, long ticks,
+                      double ticksPerSecond, double antMovesPerSecond, double heapAfterGcMB, double allocationMBPerSecond) { }
+
+    //the values of each axis which are measured if they are not given as argument
+    private static final Map<String, String> defaultAxes = new LinkedHashMap<>();
+    static {
+        defaultAxes.put("fieldLength", "20,100,250,1000,2500,5000,10000");
+        defaultAxes.put("numberOfAnts", "25,100,1000,10000,100000,1000000");
+        defaultAxes.put("maxHomes", "1,3,30,300,3000");
+        defaultAxes.put("numberOfFood", "1,10,100,1000");
+        defaultAxes.put("maxHeight", "0,6,50,255");
+    }
+
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.checkKey())
+    private static final List<String> controlKeys = List.of("out", "axes", "warmup", "measureMillis", "maxTicks");
+
+    private static final String header = "axis,fieldLength,numberOfAnts,maxHomes,numberOfFood,maxHeight,status,constructMillis,"
+            + "ticks,ticksPerSecond,antMovesPerSecond,heapAfterGcMB,allocationMBPerSecond";
+
+
+    //Module method of module ScalabilityBenchmark
+    public static void main(String[] args) throws IOException {
+        Properties properties = HeadlessRunner.readArguments(args);
+        Path out = Path.of(properties.getProperty("out", "scalability.csv"));
+        String[] axes = properties.getProperty("axes", String.join(",", defaultAxes.keySet())).split(",");
+        int warmup = Integer.parseInt(properties.getProperty("warmup", "20"));
+        long measureMillis = Long.parseLong(properties.getProperty("measureMillis", "2000"));
+        long maxTicks = Long.parseLong(properties.getProperty("maxTicks", "1000"));
+
+        WorldConfig base = baseConfig();
+        for (String name : properties.stringPropertyNames()) {
+            WorldConfig.checkKey(name, controlKeys);
+            String value = properties.getProperty(name);
+            if (!controlKeys.contains(name) && (!defaultAxes.containsKey(name) || !value.contains(","))) {
+                base.set(name, value);
+            }
+        }
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out))) {
+            writer.println(header);
+            System.out.println(header);
+            for (String axis : axes) {
+                String values = properties.getProperty(axis, defaultAxes.get(axis));
+                if (values == null || !values.contains(",") && !defaultAxes.containsKey(axis)) {
+                    throw new IllegalArgumentException("unknown axis: " + axis);
+                }
+                for (String value : values.split(",")) {
+                    WorldConfig config = base.copy();
+                    config.set(axis, value.trim());
+                    if (axis.equals("maxHomes")) {
+                        //every colony gets numberOfAnts / maxHomes ants, with the ants of the base world most colonies would be empty
+                        config.numberOfAnts = Math.max(1, base.numberOfAnts / Math.max(1, base.maxHomes)) * config.maxHomes;
+                    }
+                    String line = toCsv(measure(axis, config, warmup, measureMillis, maxTicks));
+                    writer.println(line);
+                    writer.flush();
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+
+
+    //Module method
+    /**
+     * @return the parameters of Simulation3 in Test, the seed is always 42 so every run measures the same worlds
+     */
+    public static WorldConfig baseConfig() {
+        WorldConfig config = new WorldConfig();
+        config.fieldLength = 250;
+        config.numberOfAnts = 100;
+        config.numberOfFood = 10;
+        config.scentIncrease = 5;
+        config.scentIncreaseStrong = 30;
+        config.scentDecrease = 0.96;
+        config.maxHeight = 6;
+        config.maxHomes = 3;
+        config.homeSpawnChance = 0.003;
+        config.maxAntMemory = 30;
+        config.seed = 42;
+        return config;
+    }
+
+
+    //Module method
+    /**
+     * this method creates the world of the config and measures it. The world is only referenced by this method, so it
+     * can be collected before the next world is created.
+     * @param axis the name of the parameter which is measured
+     * @param config the parameters of the world
+     * @param warmup how many ticks are run before the measurement
+     * @param measureMillis how long the world is measured
+     * @param maxTicks the maximum number of measured ticks
+     * @return the measurements (with the status OOM if the world did not fit into the heap)
+     */
+    public static Row measure(String axis, WorldConfig config, int warmup, long measureMillis, long maxTicks) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        World world = null;
+        try {
+            collectGarbage();
+            long start = System.nanoTime();
+            world = config.createWorld();
+            double constructMillis = (System.nanoTime() - start) / 1e6;
+            for (int i = 0; i < warmup; i++) {
+                world.run();
+            }
+
+            long ticks = 0;
+            long moves = world.getAntMoves();
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+            long end = start + measureMillis * 1_000_000;
+            do {
+                world.run();
+                ticks++;
+            } while (ticks < maxTicks && System.nanoTime() < end);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double allocationMB = (threads.getThreadAllocatedBytes(thread) - allocated) / 1e6;
+            moves = world.getAntMoves() - moves;
+
+            collectGarbage();
+            double heapMB = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1e6;
+            Reference.reachabilityFence(world); // the world has to be alive while the heap is measured
+            return new Row(axis, config, "OK", constructMillis, ticks, ticks / seconds, moves / seconds, heapMB, allocationMB / seconds);
+        } catch (OutOfMemoryError e) {
+            world = null;
+            collectGarbage();
+            return new Row(axis, config, "OOM", 0, 0, 0, 0, 0, 0);
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param row the measurements of one world
+     * @return the row as a line of the CSV file (see header)
+     */
+    public static String toCsv(Row row) {
+        WorldConfig config = row.config();
+        List<String> values = new ArrayList<>(List.of(row.axis(), "" + config.fieldLength, "" + config.numberOfAnts,
+                "" + config.maxHomes, "" + config.numberOfFood, "" + config.maxHeight, row.status()));
+        values.add(String.format(java.util.Locale.ROOT, "%.1f", row.constructMillis()));
+        values.add("" + row.ticks());
+        values.add(String.format(java.util.Locale.ROOT, "%.1f", row.ticksPerSecond()));
+        values.add(String.format(java.util.Locale.ROOT, "%.1f", row.antMovesPerSecond()));
+        values.add(String.format(java.util.Locale.ROOT, "%.1f", row.heapAfterGcMB()));
+        values.add(String.format(java.util.Locale.ROOT, "%.1f", row.allocationMBPerSecond()));
+        return String.join(",", values);
+    }
+
+
+    //Module method
+    /**
+     * this method asks the JVM to collect the garbage (twice, so objects with finalizers or references are collected too).
+     */
+    private static void collectGarbage() {
+        System.gc();
+        System.gc();
+    }
+}
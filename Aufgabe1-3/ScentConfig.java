@@ -0,0 +1,30 @@
+/**
+ * STYLE: Procedural programming
+ * this class is used as a record that holds the scent parameters of a world
+ * all variables are public and final therefore no getters or setters are needed
+ */
+
+/*
+    ScentConfig holds the scent parameters which are the same for every field of a world. The world creates it once and
+    all its fields share it (flyweight), so a field does not need its own copies of the parameters.
+ */
+
+//Class/module ScentConfig
+//gets used in World and Field
+public class ScentConfig {
+
+    //amount of scent increase when an ant enters a field
+    public final int scentIncrease;
+    //amount of scent increase when an ant carrying food enters a field
+    public final int scentIncreaseStrong;
+    //max strength of scent
+    public final int maxScent = 100;
+    //the decreasing factor of scent per simulation step
+    public final double scentDecrease;
+
+    public ScentConfig(int scentIncrease, int scentIncreaseStrong, double scentDecrease) {
+        this.scentIncrease = scentIncrease;
+        this.scentIncreaseStrong = scentIncreaseStrong;
+        this.scentDecrease = scentDecrease;
+    }
+}
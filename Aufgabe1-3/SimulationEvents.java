@@ -0,0 +1,138 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * STYLE:
+ * This class only holds the event types as nested classes, it has no state and no methods.
+ */
+
+/*
+    SimulationEvents are the custom events of the simulation for the JDK Flight Recorder, so a slow tick in a recording
+    can be connected with what the ants did during it. They are only written while a recording is running, e.G
+        java -XX:StartFlightRecording=filename=run.jfr HeadlessRunner fieldLength=250 ticks=5000
+    Every place which creates an event checks isEnabled() (or shouldCommit()) first, so without a recording the
+    event only costs this check and no values are collected.
+    events:  Tick, ColonyFounded, AntStateChanged, FoodPickup, FoodDelivery, DijkstraRun
+ */
+
+
+//Module/Class SimulationEvents
+//Abstraction: Simulation
+//uses jdk.jfr.Event, gets used in classes World, Ant, Dijkstra and IncrementalDijkstra, therefore operates on a lower level of abstraction
+public class SimulationEvents {
+
+    //a simulation step of World.run(), the duration of the event is the duration of the tick
+    @Name("pipi.Tick")
+    @Label("Tick")
+    @Category({"PiPi", "Simulation"})
+    public static class Tick extends Event {
+        @Label("Tick")
+        public long tick;
+
+        @Label("Side Length")
+        public int sideLength;
+
+        @Label("Ants")
+        public int ants;
+
+        @Label("Moves")
+        @Description("how many ants moved to another field during the tick")
+        public long moves;
+    }
+
+
+    //an ant has founded a new colony (see Ant.createColony())
+    @Name("pipi.ColonyFounded")
+    @Label("Colony Founded")
+    @Category({"PiPi", "Colonies"})
+    public static class ColonyFounded extends Event {
+        @Label("Colony")
+        public int colony;
+
+        @Label("X")
+        public int x;
+
+        @Label("Y")
+        public int y;
+
+        @Label("Tick")
+        public long tick;
+    }
+
+
+    //the AntState of an ant has changed
+    @Name("pipi.AntStateChanged")
+    @Label("Ant State Changed")
+    @Category({"PiPi", "Ants"})
+    public static class AntStateChanged extends Event {
+        @Label("Colony")
+        public int colony;
+
+        @Label("From")
+        public String from;
+
+        @Label("To")
+        public String to;
+
+        @Label("X")
+        public int x;
+
+        @Label("Y")
+        public int y;
+    }
+
+
+    //an ant has found food and carries it home now
+    @Name("pipi.FoodPickup")
+    @Label("Food Pickup")
+    @Category({"PiPi", "Ants"})
+    public static class FoodPickup extends Event {
+        @Label("Colony")
+        public int colony;
+
+        @Label("X")
+        public int x;
+
+        @Label("Y")
+        public int y;
+    }
+
+
+    //an ant has carried food to its home
+    @Name("pipi.FoodDelivery")
+    @Label("Food Delivery")
+    @Category({"PiPi", "Ants"})
+    public static class FoodDelivery extends Event {
+        @Label("Colony")
+        public int colony;
+
+        @Label("X")
+        public int x;
+
+        @Label("Y")
+        public int y;
+    }
+
+
+    //a run of Dijkstra or a (re-)calculation of IncrementalDijkstra, the duration of the event is the duration of the run
+    @Name("pipi.DijkstraRun")
+    @Label("Dijkstra Run")
+    @Category({"PiPi", "Paths"})
+    public static class DijkstraRun extends Event {
+        @Label("Algorithm")
+        public String algorithm;
+
+        @Label("Side Length")
+        public int sideLength;
+
+        @Label("Fields")
+        public int fields;
+
+        @Label("Expanded Nodes")
+        @Description("how many fields have been taken from the priority queue")
+        public int expandedNodes;
+    }
+}
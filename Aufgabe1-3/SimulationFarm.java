@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for running many independent worlds at the same time.
+ */
+
+/*
+    SimulationFarm runs many independent worlds (e.G thousands of small worlds to calibrate scentIncrease, scentDecrease,
+    maxAntMemory or homeSpawnChance). Each world is created from its own WorldConfig (with its own seed) and is run
+    headless by HeadlessRunner.run() until the tick limit or the stop condition is reached.
+    The worlds run on virtual threads if the JVM supports them (Java 21+), otherwise on a work-stealing pool with one thread
+    per processor. Because every world has its own random numbers (SimulationRandom) and its own settings, the worlds do not
+    share any state and the throughput grows with the number of processors.
+    The results are passed to the consumer in the order the worlds finish, on the thread that called run().
+
+    usage: java SimulationFarm [worlds=<n>] [ticks=<n>] [until=...] [ratio=<r>] [firstSeed=<n>] [key=value ...]
+           all other keys are parameters of the World constructor (see WorldConfig and HeadlessRunner)
+ */
+
+
+//Module/Class SimulationFarm
+//Abstraction: Simulation
+//uses instances of World, WorldConfig, HeadlessRunner and ExecutorService, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class SimulationFarm implements AutoCloseable {
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.fromProperties())
+    private static final List<String> controlKeys = List.of("worlds", "ticks", "firstSeed", "until", "ratio");
+    private final ExecutorService executor;
+
+    //the result of one world, index is the position of its config in the submitted list
+    public record Result(int index, WorldConfig config, HeadlessRunner.Result run, double convergenceRatio, int homesBuilt) { }
+
+
+    //Class method
+    /**
+     * this constructor creates a farm which runs the worlds on virtual threads or on a work-stealing pool.
+     */
+    public SimulationFarm() {
+        this.executor = newExecutor();
+    }
+
+
+    //Module method of module SimulationFarm
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Properties properties = HeadlessRunner.readArguments(args);
+        WorldConfig base = WorldConfig.fromProperties(properties, controlKeys);
+        int worlds = Integer.parseInt(properties.getProperty("worlds", "1000"));
+        long ticks = Long.parseLong(properties.getProperty("ticks", "2000"));
+        long firstSeed = Long.parseLong(properties.getProperty("firstSeed", "0"));
+        Predicate<World> until = HeadlessRunner.stopCondition(properties.getProperty("until", "none"),
+                Double.parseDouble(properties.getProperty("ratio", "1.0")));
+
+        List<WorldConfig> configs = new ArrayList<>();
+        for (int i = 0; i < worlds; i++) {
+            WorldConfig config = base.copy();
+            config.seed = firstSeed + i;
+            configs.add(config);
+        }
+
+        long[] totals = new long[2]; // ticks, ant moves
+        long start = System.nanoTime();
+        try (SimulationFarm farm = new SimulationFarm()) {
+            farm.run(configs, ticks, until, result -> {
+                totals[0] += result.run().ticks();
+                totals[1] += result.run().antMoves();
+                System.out.printf("world %d seed %d: %d ticks, %.1f ticks/sec, ratio %.3f, homes %d%n", result.index(),
+                        result.config().seed, result.run().ticks(), result.run().ticksPerSecond(),
+                        result.convergenceRatio(), result.homesBuilt());
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        //the speed of a single world, to compare the throughput of the farm with (measured after the farm, so the code is already compiled)
+        HeadlessRunner.Result single = HeadlessRunner.run(configs.get(0).createWorld(), ticks, until);
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        System.out.println(base);
+        System.out.printf("worlds:                  %d on %d processors (%s)%n", worlds, processors,
+                virtualThreadsAvailable() ? "virtual threads" : "work-stealing pool");
+        System.out.printf("time:                    %.3f s%n", seconds);
+        System.out.printf("ticks/sec (all worlds):  %.1f%n", totals[0] / seconds);
+        System.out.printf("ant-moves/sec:           %.1f%n", totals[1] / seconds);
+        System.out.printf("single world ticks/sec:  %.1f (x %d processors = %.1f)%n", single.ticksPerSecond(),
+                processors, single.ticksPerSecond() * processors);
+    }
+
+
+    //Class method
+    /**
+     * this method runs a world for every config and waits until all of them are finished.
+     * @param configs the configs of the worlds, each one should have its own seed
+     * @param maxTicks the maximum number of ticks of each world
+     * @param until the stop condition of each world, it gets checked after each tick
+     * @param onResult gets called with the result of each world as soon as it is finished (on the calling thread)
+     * @throws InterruptedException if the calling thread gets interrupted while waiting
+     */
+    public void run(List<WorldConfig> configs, long maxTicks, Predicate<World> until, Consumer<Result> onResult) throws InterruptedException {
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(this.executor);
+        for (int i = 0; i < configs.size(); i++) {
+            int index = i;
+            WorldConfig config = configs.get(i);
+            completionService.submit(() -> {
+                //the world gets created by the worker, so only the running worlds take memory
+                World world = config.createWorld();
+                HeadlessRunner.Result run = HeadlessRunner.run(world, maxTicks, until);
+                return new Result(index, config, run, world.getConvergenceRatio(), world.getHomesBuilt());
+            });
+        }
+        for (int i = 0; i < configs.size(); i++) {
+            try {
+                onResult.accept(completionService.take().get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("a world of the farm failed", e.getCause());
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method stops the threads of the farm.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+
+
+    //Module method
+    /**
+     * @return an executor which starts a virtual thread per task (Java 21+) or a work-stealing pool
+     *         with one thread per processor
+     */
+    public static ExecutorService newExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newWorkStealingPool();
+        }
+    }
+
+
+    //Module method
+    /**
+     * @return true if the JVM supports virtual threads
+     */
+    public static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
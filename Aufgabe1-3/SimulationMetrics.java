@@ -0,0 +1,132 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for measuring a world. The class' state is changeable, it gets changed by the thread which runs the world (the counters
+ * also by the threads which move the ants, see SteppingMode).
+ */
+
+/*
+    SimulationMetrics holds the measurements of a World (see World.setMetricsEnabled()): the duration of each phase of a
+    simulation step in a LatencyHistogram and counters of what happened. The world only creates it when metrics are
+    enabled, otherwise every measurement is a single null check.
+    phases:    SPAWN   spawning of new colonies
+               SCENT   decreasing the scent of all fields
+               ANTS    moving all ants
+               FRAME   creating the Frame (only if framePublishing is true)
+               TICK    the whole simulation step
+    counters:  moves, scent deposits, state transitions of the ants and expansions of IncrementalDijkstra
+    snapshot() copies the values, so they can be printed or compared while the world keeps running.
+ */
+
+
+//Module/Class SimulationMetrics
+//Abstraction: Simulation
+//uses instances of LatencyHistogram, therefore operates on a higher level of abstraction
+//gets used in classes World and Ant, therefore operates on a lower level of abstraction
+public class SimulationMetrics {
+
+    //the phases of a simulation step (see World.run())
+    public enum Phase { SPAWN, SCENT, ANTS, FRAME, TICK }
+
+    //the values of one phase in a snapshot, all durations in nanoseconds
+    public record PhaseStatistics(long count, double mean, long p50, long p99, long max) { }
+
+    //the copied values of the metrics at one tick
+    public record Snapshot(long tick, Map<Phase, PhaseStatistics> phases, long moves, long scentDeposits,
+                           long stateTransitions, long dijkstraExpansions) {
+
+        //Class method
+        @Override
+        /**
+         * this method defines how the snapshot is printed
+         */
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("tick %d: %d moves, %d scent deposits, %d state transitions, %d dijkstra expansions%n",
+                    tick, moves, scentDeposits, stateTransitions, dijkstraExpansions));
+            text.append(String.format("%-8s%10s%12s%12s%12s%12s%n", "phase", "count", "mean us", "p50 us", "p99 us", "max us"));
+            for (Map.Entry<Phase, PhaseStatistics> entry : phases.entrySet()) {
+                PhaseStatistics statistics = entry.getValue();
+                text.append(String.format("%-8s%10d%12.1f%12.1f%12.1f%12.1f%n", entry.getKey(), statistics.count(),
+                        statistics.mean() / 1e3, statistics.p50() / 1e3, statistics.p99() / 1e3, statistics.max() / 1e3));
+            }
+            return text.toString();
+        }
+    }
+
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder scentDeposits = new LongAdder();
+    private final LongAdder stateTransitions = new LongAdder();
+
+
+    //Class method
+    /**
+     * this constructor creates an empty histogram for each phase.
+     */
+    public SimulationMetrics() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+
+    //Class method
+    /**
+     * @param phase the phase which has been measured
+     * @param nanos the duration of the phase
+     */
+    public void record(Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+
+    //Class method
+    /**
+     * this method counts a move of an ant to another field
+     */
+    public void countMove() { moves.increment(); }
+
+
+    //Class method
+    /**
+     * @param moves how many moves of ants to other fields shall be counted
+     */
+    public void countMoves(long moves) { this.moves.add(moves); }
+
+
+    //Class method
+    /**
+     * this method counts an increase of scent on a field
+     */
+    public void countScentDeposit() { scentDeposits.increment(); }
+
+
+    //Class method
+    /**
+     * this method counts a change of an ants' AntState
+     */
+    public void countStateTransition() { stateTransitions.increment(); }
+
+
+    //Class method
+    /**
+     * this method copies the current values. It should be called by the thread which runs the world, otherwise the
+     * values can be from different ticks.
+     * @param tick the current tick of the world
+     * @param dijkstraExpansions how many fields IncrementalDijkstra has expanded since the metrics have been enabled
+     * @return the copied values
+     */
+    public Snapshot snapshot(long tick, long dijkstraExpansions) {
+        Map<Phase, PhaseStatistics> phases = new EnumMap<>(Phase.class);
+        for (Map.Entry<Phase, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            phases.put(entry.getKey(), new PhaseStatistics(histogram.getCount(), histogram.getMean(),
+                    histogram.getPercentile(50), histogram.getPercentile(99), histogram.getMax()));
+        }
+        return new Snapshot(tick, phases, moves.sum(), scentDeposits.sum(), stateTransitions.sum(), dijkstraExpansions);
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Random;
+
+/*
+    SimulationRandom is a Random whose state is a single long (SplitMix64). Unlike Math.random() it is not shared between
+    threads, so many worlds can run at the same time without waiting for each other, and the same seed always creates
+    the same simulation. The state can be read and set again, e.G to continue a simulation later.
+ */
+
+
+//Module/Class SimulationRandom
+//Abstraction: Simulation, subtype of Random
+//extends Random, therefore is a subtype
+//gets used in classes World and Ant, therefore operates on a lower level of abstraction
+public class SimulationRandom extends Random {
+    private static final long serialVersionUID = 1L; // Random is Serializable, the state gets serialized with it
+    private long state;
+
+
+    //Class method
+    /**
+     * this constructor sets the state to the given seed.
+     * @param seed the seed of the random numbers
+     */
+    public SimulationRandom(long seed) {
+        super(seed);
+    }
+
+
+    //Class method
+    /**
+     * this method sets the state to the given seed (it gets called by the constructor of Random).
+     * @param seed the seed of the random numbers
+     */
+    @Override
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+
+    //Class method
+    /**
+     * this method creates the next random bits, all other methods of Random (nextInt(), nextDouble(), ...) use it.
+     * @param bits how many random bits are needed
+     * @return an int with the given number of random bits
+     */
+    @Override
+    protected int next(int bits) {
+        this.state += 0x9E3779B97F4A7C15L;
+        long z = this.state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) (z >>> (64 - bits));
+    }
+
+
+    //Class method
+    /**
+     * @return the current state, a new SimulationRandom with this state will create the same numbers
+     */
+    public long getState() {
+        return this.state;
+    }
+
+
+    //Class method
+    /**
+     * @param state the state which has been returned by getState()
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+}
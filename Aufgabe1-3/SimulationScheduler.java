@@ -0,0 +1,310 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for running Simulation objects. All simulations share the threads of one ScheduledExecutorService.
+ */
+
+/*
+    SimulationScheduler replaces the two java.util.Timer threads per simulation. Any number of Simulation objects can be
+    scheduled, they all share a small pool of threads (by default one per processor).
+    Each scheduled simulation reschedules itself after its run()-method returned, so one simulation is never run by two
+    threads at the same time and a slow simulation can not flood the pool with tasks.
+    Modes:
+      FIXED_RATE:            run() gets called every period milliseconds. If run() takes longer than the period, this is
+                             counted as overrun. Ticks which have been missed are skipped instead of being run all at once.
+      AS_FAST_AS_POSSIBLE:   run() gets called again right after it returned (the task is put at the end of the queue,
+                             so other simulations on the same pool still get their turn).
+    A simulation stops when its run()-method returns false, throws an exception or cancel() gets called.
+    When the last simulation stopped, the threads of the scheduler are shut down.
+    An exception of a simulation is kept (see ScheduledSimulation.getFailure()), the first one is thrown again by
+    shutdown() and awaitTermination(), so a failed simulation is not mistaken for one which has simply finished.
+ */
+
+
+//Module/Class SimulationScheduler
+//Abstraction: Simulation
+//uses references of Simulation and ScheduledExecutorService, therefore operates on a higher level of abstraction
+//gets used in class Test, therefore operates on a lower level of abstraction
+public class SimulationScheduler {
+
+    //Enumeration Mode
+    //this defines how often a simulation gets run: every period or as fast as possible
+    public enum Mode {
+        FIXED_RATE,
+        AS_FAST_AS_POSSIBLE
+    }
+
+    private final ScheduledExecutorService executor;
+    private final List<ScheduledSimulation> simulations = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>(); // the first exception of a simulation
+
+
+    //Class method
+    /**
+     * this constructor creates a scheduler with one thread per available processor.
+     */
+    public SimulationScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+
+    //Class method
+    /**
+     * this constructor creates a scheduler with the given number of threads.
+     * @param threads how many threads shall be shared by all simulations
+     */
+    public SimulationScheduler(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads,
+                runnable -> new Thread(runnable, "simulation-" + threadNumber.incrementAndGet()));
+    }
+
+
+    //Class method
+    /**
+     * this method schedules a simulation.
+     * @param simulation the simulation whose run()-method shall be called
+     * @param delay milliseconds before the first run
+     * @param period milliseconds between two runs (only used in FIXED_RATE)
+     * @param mode FIXED_RATE or AS_FAST_AS_POSSIBLE
+     * @return the scheduled simulation, which can be used to cancel it or read its statistics
+     */
+    public ScheduledSimulation schedule(Simulation simulation, long delay, long period, Mode mode) {
+        if (mode == Mode.FIXED_RATE && period <= 0) {
+            throw new IllegalArgumentException("the period has to be positive in FIXED_RATE: " + period);
+        }
+        ScheduledSimulation scheduled = new ScheduledSimulation(simulation, period, mode);
+        this.simulations.add(scheduled);
+        this.running.incrementAndGet();
+        scheduled.nextStart = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        this.executor.schedule(scheduled, delay, TimeUnit.MILLISECONDS);
+        return scheduled;
+    }
+
+
+    //Class method
+    /**
+     * this method cancels all simulations and waits until the threads are finished.
+     * @throws IllegalStateException if a simulation has thrown an exception, the exception is its cause
+     */
+    public void shutdown() {
+        for (ScheduledSimulation simulation : this.simulations) {
+            simulation.cancel();
+        }
+        this.executor.shutdown();
+        this.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+
+    //Class method
+    /**
+     * this method waits until all simulations have stopped and the threads are finished.
+     * @param timeout how long to wait at most
+     * @param unit the unit of timeout
+     * @return true if the threads are finished, false if the time has run out
+     * @throws IllegalStateException if a simulation has thrown an exception, the exception is its cause
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        boolean terminated = false;
+        try {
+            terminated = this.executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable failure = this.failure.get();
+        if (failure != null) {
+            throw new IllegalStateException("a simulation has failed", failure);
+        }
+        return terminated;
+    }
+
+
+    //Class method
+    /**
+     * @return the first exception which has been thrown by the run()-method of a simulation, null if there is none
+     */
+    public Throwable getFailure() {
+        return this.failure.get();
+    }
+
+
+    //Class method
+    /**
+     * this method makes sure that all simulations get stopped when the program is terminated (e.G by Ctrl+C).
+     */
+    public void installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "simulation-shutdown"));
+    }
+
+
+    //Class method
+    /**
+     * @return all simulations which have been scheduled
+     */
+    public List<ScheduledSimulation> getSimulations() {
+        return this.simulations;
+    }
+
+
+    //Class method
+    /**
+     * this method gets called once for every simulation which stopped and shuts down the threads after the last one.
+     */
+    private void stopped() {
+        if (this.running.decrementAndGet() == 0) {
+            this.executor.shutdown();
+        }
+    }
+
+
+    //Modul/Class ScheduledSimulation
+    //Abstraction: Simulation, a simulation scheduled by SimulationScheduler
+    //uses references of Simulation, gets used in SimulationScheduler and Test
+    public class ScheduledSimulation implements Runnable {
+        private final Simulation simulation;
+        private final long period; // in nanoseconds
+        private final Mode mode;
+        private final List<Runnable> stopListeners = new CopyOnWriteArrayList<>();
+        private volatile boolean cancelled = false;
+        private final AtomicInteger stopped = new AtomicInteger();
+        private long nextStart; // when the next run should start (System.nanoTime())
+        private volatile long ticks = 0;
+        private volatile long overruns = 0; // how often a run took longer than the period
+        private volatile long skippedTicks = 0; // how many ticks have been skipped because the simulation was too slow
+        private volatile Throwable failure; // the exception which has stopped the simulation
+
+
+        //Class method
+        /**
+         * this constructor sets the objects' variables
+         * @param simulation the simulation whose run()-method shall be called
+         * @param period milliseconds between two runs
+         * @param mode FIXED_RATE or AS_FAST_AS_POSSIBLE
+         */
+        private ScheduledSimulation(Simulation simulation, long period, Mode mode) {
+            this.simulation = simulation;
+            this.period = TimeUnit.MILLISECONDS.toNanos(period);
+            this.mode = mode;
+        }
+
+
+        //Class method
+        /**
+         * this method calls the run()-method of the simulation once and schedules the next run.
+         */
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            long start = System.nanoTime();
+            boolean goOn;
+            try {
+                goOn = simulation.run();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                SimulationScheduler.this.failure.compareAndSet(null, e);
+                goOn = false;
+            }
+            if (!goOn) {
+                this.cancel();
+                return;
+            }
+            ticks++;
+            long end = System.nanoTime();
+
+            if (cancelled) {
+                return;
+            }
+            try {
+                if (mode == Mode.AS_FAST_AS_POSSIBLE) {
+                    executor.execute(this);
+                    return;
+                }
+
+                if (end - start > period) {
+                    overruns++;
+                }
+                nextStart += period;
+                if (nextStart < end) {
+                    //the simulation is behind: skip the missed ticks instead of catching up
+                    long missed = (end - nextStart) / period + 1;
+                    skippedTicks += missed;
+                    nextStart += missed * period;
+                }
+                executor.schedule(this, nextStart - end, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                this.cancel(); // the scheduler has been shut down
+            }
+        }
+
+
+        //Class method
+        /**
+         * this method stops the simulation, the stop listeners get called once.
+         */
+        public void cancel() {
+            this.cancelled = true;
+            if (this.stopped.getAndIncrement() == 0) {
+                for (Runnable listener : this.stopListeners) {
+                    listener.run();
+                }
+                SimulationScheduler.this.stopped();
+            }
+        }
+
+
+        //Class method
+        /**
+         * @param listener gets called when the simulation stops (e.G to stop another simulation which belongs to it)
+         */
+        public void onStop(Runnable listener) {
+            this.stopListeners.add(listener);
+        }
+
+
+        //Class method
+        /**
+         * @return true if the simulation has been stopped
+         */
+        public boolean isCancelled() { return this.cancelled; }
+
+
+        //Class method
+        /**
+         * @return how often the run()-method has been called successfully
+         */
+        public long getTicks() { return this.ticks; }
+
+
+        //Class method
+        /**
+         * @return how often a run took longer than the period (only FIXED_RATE)
+         */
+        public long getOverruns() { return this.overruns; }
+
+
+        //Class method
+        /**
+         * @return how many ticks have been skipped because the simulation could not keep up with the period (only FIXED_RATE)
+         */
+        public long getSkippedTicks() { return this.skippedTicks; }
+
+
+        //Class method
+        /**
+         * @return the exception which has been thrown by the run()-method and has stopped the simulation, null if there is none
+         */
+        public Throwable getFailure() { return this.failure; }
+    }
+}
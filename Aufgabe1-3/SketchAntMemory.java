@@ -0,0 +1,133 @@
+import java.io.IOException;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for the memory of an ant. The class' state is changeable, because every memorized field changes the counters.
+ */
+
+/*
+    SketchAntMemory counts the fields the ant has moved on in a count-min sketch: depth rows of width counters. A field is
+    counted in one counter per row (chosen by a different hash per row), and its count is the smallest of these counters.
+    Other fields can share a counter, so a count can be too high but never too low (before the halving).
+    Instead of decreasing all other fields when a field reaches maxMemory (see ExactAntMemory), all counters are halved
+    after every halvingPeriod memorized fields, so old fields are forgotten.
+    The memory has a constant size of depth * width bytes (256 bytes with the default values), no matter how many fields
+    the ant has visited.
+ */
+
+
+//Module/Class SketchAntMemory
+//Abstraction: real world, subtype of AntMemory
+//uses instances of Coordinate, therefore operates on a higher level of abstraction
+//implements the interface AntMemory, therefore it is in a subtype relationship with AntMemory
+//gets used in class Ant, therefore operates on a lower level of abstraction
+public class SketchAntMemory implements AntMemory {
+    public static final int defaultDepth = 4;
+    public static final int defaultWidth = 64;
+    public static final int checkpointType = 1; // the type of the memory in a checkpoint (see AntMemory.readCheckpoint())
+
+    private final int depth;
+    private final int widthBits;
+    private final int halvingPeriod; // after how many memorized fields all counters are halved
+    private final byte[] counters; // depth rows of width counters, maxMemory is at most 100, so a byte is enough
+    private int memorized = 0; // memorized fields since the last halving
+
+
+    //Class method
+    /**
+     * this constructor creates a memory with defaultDepth * defaultWidth counters, which are halved after every defaultWidth fields.
+     */
+    public SketchAntMemory() {
+        this(defaultDepth, defaultWidth, defaultWidth);
+    }
+
+
+    //Class method
+    /**
+     * @param depth the number of rows (hashes per field)
+     * @param width the number of counters per row, has to be a power of two (at least 2)
+     * @param halvingPeriod after how many memorized fields all counters are halved
+     */
+    public SketchAntMemory(int depth, int width, int halvingPeriod) {
+        if (depth < 1 || width < 2 || Integer.bitCount(width) != 1 || halvingPeriod < 1) {
+            throw new IllegalArgumentException("depth and halvingPeriod have to be positive and width a power of two");
+        }
+        this.depth = depth;
+        this.widthBits = Integer.numberOfTrailingZeros(width);
+        this.halvingPeriod = halvingPeriod;
+        this.counters = new byte[depth * width];
+    }
+
+
+    //Class method
+    @Override
+    public void memorizeField(Coordinate coordinate, int maxMemory) {
+        //conservative update: only the smallest counters are increased, the others already count more than this field
+        int count = Math.min(getCount(coordinate) + 1, maxMemory);
+        for (int row = 0; row < depth; row++) {
+            int index = index(coordinate, row);
+            if (counters[index] < count) {
+                counters[index] = (byte) count;
+            }
+        }
+        if (++memorized >= halvingPeriod) {
+            memorized = 0;
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] >>= 1;
+            }
+        }
+    }
+
+
+    //Class method
+    @Override
+    public int getCount(Coordinate coordinate) {
+        int count = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            count = Math.min(count, counters[index(coordinate, row)]);
+        }
+        return count;
+    }
+
+
+    //Class method
+    @Override
+    public void writeCheckpoint(WorldCheckpoint.Output out) throws IOException {
+        out.putByte(checkpointType);
+        out.putInt(depth);
+        out.putInt(1 << widthBits);
+        out.putInt(halvingPeriod);
+        out.putInt(memorized);
+        out.putBytes(counters);
+    }
+
+
+    //Module method
+    /**
+     * @param in the checkpoint, after the type of the memory
+     * @return the memory which has been written by writeCheckpoint()
+     */
+    public static SketchAntMemory readCheckpoint(WorldCheckpoint.Input in) throws IOException {
+        SketchAntMemory memory = new SketchAntMemory(in.getInt(), in.getInt(), in.getInt());
+        memory.memorized = in.getInt();
+        in.getBytes(memory.counters);
+        return memory;
+    }
+
+
+    //Class method
+    /**
+     * @param coordinate the coordinate of a field (only x and y are used)
+     * @param row the row of the sketch
+     * @return the index of the counter of the field in this row
+     */
+    private int index(Coordinate coordinate, int row) {
+        long hash = (((long) coordinate.getPosX()) << 32 | (coordinate.getPosY() & 0xFFFFFFFFL)) + (row + 1) * 0x9E3779B97F4A7C15L;
+        //the finalizer of SplitMix64 mixes all bits of x and y into the upper bits
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return (row << widthBits) | (int) (hash >>> (64 - widthBits));
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm, all methods are static and work only with the given parameters.
+ */
+
+/*
+    SteppingCheck checks that the parallel stepping modes are deterministic: for each seed two worlds run side by side and
+    after every tick their World.stateHash() has to be equal:
+        CHECKERBOARD - PARALLEL   the same order of the ants in one thread and on all processors
+        COLONIES - COLONIES       the colony actors one after another in one thread (see World.setColonyActorsInOrder())
+                                  and on threads of their own, which run at different times
+    Every 50 ticks both worlds get the same change of the terrain, so the repair of the distances is checked too.
+    If a hash differs, the tick is printed and the program ends with exit code 1.
+    Before that a world with more homes than ants (maxHomes = numberOfAnts + 1) has to found homes and move its ants,
+    because every colony has to get at least one ant.
+    Afterwards the speed of all stepping modes is printed. The modes move the ants in different orders, so only their
+    number of moves can be compared, not their states.
+
+    usage: java SteppingCheck [seeds=3] [ticks=500] [key=value of the world ...]
+    e.G    java SteppingCheck fieldLength=500 numberOfAnts=20000 maxHomes=3 homeSpawnChance=0.01
+    (with -XX:ActiveProcessorCount=4 the threads also interleave on a machine with fewer processors)
+ */
+
+
+//Module/Class SteppingCheck
+//Abstraction: Simulation
+//uses instances of World, WorldConfig and HeadlessRunner, therefore operates on a higher level of abstraction
+//is a subtype of Object (-> every class is a subtype of Object)
+public class SteppingCheck {
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.fromProperties())
+    private static final List<String> controlKeys = List.of("seeds", "ticks");
+
+    //Module method of module SteppingCheck
+    public static void main(String[] args) throws Exception {
+        Properties properties = HeadlessRunner.readArguments(args);
+        int seeds = Integer.parseInt(properties.getProperty("seeds", "3"));
+        long ticks = Long.parseLong(properties.getProperty("ticks", "500"));
+        WorldConfig base = WorldConfig.fromProperties(properties, controlKeys);
+        System.out.println(base);
+
+        WorldConfig crowded = base.copy();
+        crowded.maxHomes = crowded.numberOfAnts + 1;
+        crowded.homeSpawnChance = 0.5;
+        crowded.seed = 1;
+        World crowdedWorld = crowded.createWorld();
+        HeadlessRunner.Result moved = HeadlessRunner.run(crowdedWorld, ticks, w -> false);
+        if (moved.antMoves() == 0 || crowdedWorld.getMaxHomes() > crowded.numberOfAnts) {
+            System.out.println("maxHomes=" + crowded.maxHomes + " numberOfAnts=" + crowded.numberOfAnts + ": " + crowdedWorld.getMaxHomes()
+                    + " homes allowed, " + moved.antMoves() + " moves");
+            System.exit(1);
+        }
+        System.out.println("maxHomes=" + crowded.maxHomes + " numberOfAnts=" + crowded.numberOfAnts + ": " + crowdedWorld.getHomesBuilt()
+                + " homes built, " + moved.antMoves() + " moves");
+
+        for (int i = 0; i < seeds; i++) {
+            WorldConfig config = base.copy();
+            config.seed = i + 1;
+            SteppingMode[][] pairs = {{SteppingMode.CHECKERBOARD, SteppingMode.PARALLEL}, {SteppingMode.COLONIES, SteppingMode.COLONIES}};
+            for (SteppingMode[] pair : pairs) {
+                long mismatch = firstMismatch(config, pair[0], pair[1], ticks);
+                if (mismatch >= 0) {
+                    System.out.println("seed " + config.seed + ": " + pair[1] + " differs from " + pair[0] + " at tick " + mismatch);
+                    System.exit(1);
+                }
+                String reference = pair[0] == SteppingMode.COLONIES ? "COLONIES (actors in order)" : pair[0].name();
+                System.out.println("seed " + config.seed + ": " + pair[1] + " equals " + reference + " for " + ticks + " ticks");
+            }
+        }
+
+        System.out.printf("%-14s%14s%16s%n", "stepping", "ticks/s", "ant-moves/s");
+        for (SteppingMode mode : SteppingMode.values()) {
+            WorldConfig config = base.copy();
+            config.seed = 1;
+            config.stepping = mode;
+            HeadlessRunner.Result result = HeadlessRunner.run(config.createWorld(), ticks, world -> false);
+            System.out.printf("%-14s%14.1f%16.1f%n", mode.name().toLowerCase(), result.ticksPerSecond(), result.antMovesPerSecond());
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param config the parameters of both worlds (the stepping mode gets replaced)
+     * @param expectedMode the stepping mode of the first world, in COLONIES its actors run one after another
+     * @param actualMode the stepping mode of the second world
+     * @param ticks how many ticks are compared
+     * @return the first tick where the hashes of the worlds differ, -1 if they are always equal
+     */
+    public static long firstMismatch(WorldConfig config, SteppingMode expectedMode, SteppingMode actualMode, long ticks) {
+        WorldConfig expectedConfig = config.copy();
+        expectedConfig.stepping = expectedMode;
+        WorldConfig actualConfig = config.copy();
+        actualConfig.stepping = actualMode;
+        World expected = expectedConfig.createWorld();
+        expected.setColonyActorsInOrder(true); // the reference of COLONIES
+        World actual = actualConfig.createWorld();
+        SimulationRandom random = new SimulationRandom(config.seed);
+        for (long tick = 1; tick <= ticks; tick++) {
+            if (tick % 50 == 0) {
+                int x = random.nextInt(config.fieldLength);
+                int y = random.nextInt(config.fieldLength);
+                int height = random.nextInt(config.maxHeight + 1);
+                expected.setHeight(x, y, height);
+                actual.setHeight(x, y, height);
+            }
+            expected.run();
+            actual.run();
+            if (expected.stateHash() != actual.stateHash()) {
+                return tick;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,13 @@
+//Enumeration SteppingMode
+//this defines how World.run() moves the ants (see World.setSteppingMode()):
+//SEQUENTIAL: one after another in the order of the ants array (default)
+//CHECKERBOARD: colour by colour of the CheckerboardStepper in one thread, the reference for PARALLEL
+//PARALLEL: like CHECKERBOARD, but the ants of one colour are moved on all processors
+//COLONIES: the ants of each colony are moved one after another on a thread of their own (one actor per colony, see ColonyStepper), the
+//          scent and the carrying ants of the other colonies are read like they were at the start of the tick
+public enum SteppingMode {
+    SEQUENTIAL,
+    CHECKERBOARD,
+    PARALLEL,
+    COLONIES
+}
@@ -0,0 +1,156 @@
+import java.io.IOException;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for the static data of the fields. The class' state is changeable, because the terrain can be edited (see World.setHeight()).
+ */
+
+/*
+    Terrain holds the static data of all fields of a world in primitive arrays instead of in the fields, so a field only
+    needs its cell number (y * sideLength + x) to find it:
+        heights   one byte per field, the height (0 - 255) is stored unsigned
+        states    one short per field: bits 0 - 1 the FieldState, bits 2 - 15 the id of the building + 1 (0: no building)
+    A field needs 3 bytes here instead of an int, a FieldState and a Building reference.
+ */
+
+
+//Module/Class Terrain
+//Abstraction: real world
+//uses instances of FieldState and Building, therefore operates on a higher level of abstraction
+//gets used in classes World and Field, therefore operates on a lower level of abstraction
+public class Terrain {
+    public static final int maxHeight = 255; // the largest height which fits into a byte
+    private static final FieldState[] fieldStates = FieldState.values();
+    private static final int stateBits = 2;
+    private static final int stateMask = (1 << stateBits) - 1;
+    public static final int maxBuildings = (1 << (16 - stateBits)) - 1; // the most buildings whose id + 1 fits into the 14 bits
+
+    private final byte[] heights;
+    private final short[] states;
+    private final Building[] buildings; // the buildings by their id
+
+
+    //Class method
+    /**
+     * this constructor creates a terrain where every field has the height 0, the FieldState NULL and no building.
+     * @param sideLength the vertical and horizontal length of the world
+     * @param buildings all buildings which can be placed on a field, the index is the id of the building
+     */
+    public Terrain(int sideLength, Building[] buildings) {
+        if (buildings.length > maxBuildings) {
+            throw new IllegalArgumentException("at most " + maxBuildings + " buildings are possible");
+        }
+        this.heights = new byte[sideLength * sideLength];
+        this.states = new short[sideLength * sideLength];
+        this.buildings = buildings;
+    }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the height of the field
+     */
+    public int getHeight(int cell) { return heights[cell] & 0xFF; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @param height the new height of the field (0 - 255)
+     */
+    public void setHeight(int cell, int height) {
+        if (height < 0 || height > maxHeight) {
+            throw new IllegalArgumentException("height has to be between 0 and " + maxHeight + ": " + height);
+        }
+        heights[cell] = (byte) height;
+    }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the FieldState of the field
+     */
+    public FieldState getFieldState(int cell) { return fieldStates[states[cell] & stateMask]; }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @param fieldState the new FieldState of the field
+     */
+    public void setFieldState(int cell, FieldState fieldState) {
+        states[cell] = (short) ((states[cell] & ~stateMask) | fieldState.ordinal());
+    }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @return the building on the field, null if there is none
+     */
+    public Building getBuilding(int cell) {
+        int id = (states[cell] & 0xFFFF) >>> stateBits;
+        return id == 0 ? null : buildings[id - 1];
+    }
+
+
+    //Class method
+    /**
+     * @param cell the number of the field (y * sideLength + x)
+     * @param building the new building of the field (one of the buildings of the constructor) or null
+     */
+    public void setBuilding(int cell, Building building) {
+        int id = building == null ? 0 : building.id + 1;
+        states[cell] = (short) ((id << stateBits) | (states[cell] & stateMask));
+    }
+
+
+    //Class method
+    /**
+     * this method makes a field the home of a building with one write, so another thread (e.G a colony of
+     * SteppingMode.COLONIES) sees either the old field or the home with its building, never a HOME without a building.
+     * @param cell the number of the field (y * sideLength + x)
+     * @param building the building whose home the field becomes (one of the buildings of the constructor)
+     */
+    public void setHome(int cell, Building building) {
+        states[cell] = (short) (((building.id + 1) << stateBits) | FieldState.HOME.ordinal());
+    }
+
+
+    //Class method
+    /**
+     * this method reads the FieldState and the building of a field with one read (see setHome()).
+     * @param cell the number of the field (y * sideLength + x)
+     * @param building the building which is asked for
+     * @return true if the field is the home of the building
+     */
+    public boolean isHomeOf(int cell, Building building) {
+        int state = states[cell] & 0xFFFF;
+        return (state & stateMask) == FieldState.HOME.ordinal() && state >>> stateBits == building.id + 1;
+    }
+
+
+    //Class method
+    /**
+     * this method writes the heights and states of all fields into a checkpoint (see WorldCheckpoint).
+     * @param out the checkpoint
+     */
+    public void writeCheckpoint(WorldCheckpoint.Output out) throws IOException {
+        out.putBytes(heights);
+        out.putShorts(states);
+    }
+
+
+    //Class method
+    /**
+     * this method reads the heights and states of all fields from a checkpoint, it overwrites the current ones.
+     * @param in the checkpoint
+     */
+    public void readCheckpoint(WorldCheckpoint.Input in) throws IOException {
+        in.getBytes(heights);
+        in.getShorts(states);
+    }
+}
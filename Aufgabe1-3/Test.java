@@ -1,22 +1,53 @@
-import java.util.Timer;
-import java.util.TimerTask;
 /**
  * HOW IS IT STRUCTURED?
- - Test:                                creates instances of World and Draw and sets a timer for the simulation to progress
-     - Draw (implements Simulation):    gets instance of World and animates the simulation
+ - Test:                                creates instances of World and Draw and schedules them for the simulation to progress
+     - Draw (implements Simulation):    gets instance of World and animates the latest Frame of the simulation
+     - Frame:                           an immutable snapshot of one simulation step, published by World for Draw
+     - Rasterizer:                      writes the colors of a Frame into an image, using precalculated color tables
      - World (implements Simulation):   creates instances of Ant, Building and Field and calls for progress each simulation step
         - Ant:                          creates instances of Coordinate and uses Enumerations AntState and Direction
             - Coordinate:               used for navigation in Ant, used for the position of fields (food, home) in World
             - Enumeration AntState:     used for behavioral changes in Ant
             - Enumeration Direction:    used for navigation in Ant
+            - Interface AntMemory:      how often an ant has moved on a field, implemented by ExactAntMemory (a map)
+                                        and SketchAntMemory (a count-min sketch with a constant size)
         - Building:                     a record which holds information per ant colony
         - Dijkstra:                     finds shortest path from point A to point B within the world
+        - IncrementalDijkstra:          holds the distance of every field to a home and repairs it after terrain changes
+        - PathCache:                    stores the routes of Dijkstra for each version of the terrain (LRU)
         - Field:                        used to represent the worlds fields
+            - Terrain:                  the heights, FieldStates and buildings of all fields in primitive arrays
+            - ScentConfig:              the scent parameters, shared by all fields of a world
             - Enumeration FieldState:   used to mark certain fields (home, food)
-
- - Timer (imported in Test):            used to call for progress each simulation step
-     - MyTimerTask:                     used to create tasks for Timer
- - Interface Simulation:                used to enable classes being called by MyTimerTask
+        - ColonyTally:                  sums the scent or the ants per colony in an array indexed by the id of the colony
+        - CheckerboardStepper:          moves the ants colour by colour, the ants of one colour in parallel
+        - ColonyStepper:                moves the ants of each colony on a thread of its own (an actor per colony)
+            - Enumeration SteppingMode: if the ants are moved one after another, colour by colour, in parallel or per colony
+        - SimulationMetrics:            the durations of the phases of each simulation step and counters (if enabled)
+            - LatencyHistogram:         counts durations in buckets to calculate p50, p99 and max
+        - SimulationEvents:             the events of the simulation for the JDK Flight Recorder
+
+ - SimulationScheduler:                 calls for progress each simulation step, all simulations share its threads
+ - Interface Simulation:                used to enable classes being called by SimulationScheduler
+
+ - HeadlessRunner:                      runs a World as fast as possible without Draw and prints the speed of the simulation
+     - WorldConfig:                     a record which holds the parameters of a World
+     - FrameRecorder:                   writes every n-th Frame as png or raw image on a background thread
+     - TrajectoryRecorder:              writes the position and AntState of every ant after every tick into a columnar file
+         - TrajectoryReader:            reads one ant or a window of ticks of the file without decoding the rest
+     - WorldCheckpoint:                 saves a World into a binary file and loads it again to continue the simulation
+     - EventLog:                        logs the inputs (terrain changes, ...) and key events of a World into an append-only file
+ - Replay:                              rebuilds any tick of a logged simulation from the nearest checkpoint and the EventLog
+ - SimulationFarm:                      runs thousands of independent worlds (each with its own seed) on all processors
+     - SimulationRandom:                the random numbers of a world and its ants, created from a seed
+ - ParameterSweep:                      runs grids or random samples of parameters on SimulationFarm until the paths converged
+ - PathBenchmark:                       compares the repair of IncrementalDijkstra with recalculating all distances
+ - Benchmarks:                          measures the hot paths (ticks, ant moves, scent, Dijkstra) on seeded worlds
+     - SimulationBenchmarks (jmh):      runs the benchmarks of Benchmarks with JMH (gradle jmh)
+ - AllocationBudget:                    checks the bytes allocated per tick by scent, movement, pathfinding and rendering
+ - ScalabilityBenchmark:                measures ticks/sec, memory and allocation rate along each parameter and writes a CSV file
+ - AntMemoryBenchmark:                  compares the behaviour and the heap of ExactAntMemory and SketchAntMemory
+ - SteppingCheck:                       checks that PARALLEL and COLONIES are deterministic and compares the speed of all stepping modes
 
 
  * WHAT DOES IT DO?
@@ -37,8 +68,9 @@ import java.util.TimerTask;
 
  - Founding ant colonies:
  Each ant can create a new colony, if the maximum of colonies within a world has not been reached. The possibility is the homeSpawnChance,
- the maximum of colonies is the maxHomes parameter. There's only one colony to which every ant belongs to at the beginning.
+ the maximum of colonies is the maxHomes parameter (1 - 16383). There's only one colony to which every ant belongs to at the beginning.
  Once a new colony has been found, it will create a new building, which hold the colonies' ID, antScent and antColor.
+ The first three colonies get hand-picked colors, the colors of all other colonies are generated.
  A new ant home will be set within the world and new ants will spawn.
  Note: Only ants from the first colony will be used to find the shortest path.
 
@@ -97,50 +129,45 @@ public class Test {
         int delay2 = 30;
         int period = 200;
 
+        //Object scheduler: instance of type SimulationScheduler, its threads are shared by all simulations
+        SimulationScheduler scheduler = new SimulationScheduler();
+        scheduler.installShutdownHook();
+
         //TEST #1
         //Object world#: instance of type World.
         //Object draw#: instance of type Draw.
         World world1 = new World(sideLength1, ants1, food1, 5, 30, 0.98, (int) Math.ceil(sideLength1 / 4.0), 5, true, 1, 0,0);
         Draw draw1 = new Draw(world1, sideLength1, "Simulation1");
-        //this method calls the .run()-method of a Runnable instance to repositions the ants
-        setTimer(draw1, delay2, period, world1, delay1, period);
+        //this method schedules the .run()-method of both Simulation instances to repositions the ants
+        schedule(scheduler, draw1, delay2, period, world1, delay1, period);
 
          //TEST #2
         World world2 = new World(sideLength2, ants2, food2, 12, 24, 0.97, (int) Math.ceil(sideLength2 / 6.0), 3, true,2, 0.02,10);
         Draw draw2 = new Draw(world2, sideLength2, "Simulation2");
-        setTimer(draw2, delay2, period, world2, delay1, period);
+        schedule(scheduler, draw2, delay2, period, world2, delay1, period);
 
        //TEST #3
         World world3 = new World(sideLength3, ants3, food3, 5, 30, 0.96, (int) Math.ceil(sideLength3 / 10.0), 6, true,3, 0.003,30);
         Draw draw3 = new Draw(world3, sideLength3, "Simulation3");
-        setTimer(draw3, delay2, period, world3, delay1, period);
+        schedule(scheduler, draw3, delay2, period, world3, delay1, period);
     }
 
     //Module method of module Test
     /**
-     * this method sets two timers and evokes the run()-method for each Simulation object after a set delay and period
-     * @param object1 that will be triggered by the timer
-     * @param delay1 starting delay in miliseconds before the timer starts counting
+     * this method schedules the run()-method of both Simulation objects after a set delay and period.
+     * If one of them stops (e.G the window got closed), the other one gets stopped as well.
+     * @param scheduler the scheduler which runs the simulations
+     * @param object1 that will be triggered by the scheduler
+     * @param delay1 starting delay in miliseconds before the first run
      * @param period1 milliseconds a period takes
-     * @param object2 that will be triggered by the timer
-     * @param delay2 starting delay in miliseconds before the timer starts counting
+     * @param object2 that will be triggered by the scheduler
+     * @param delay2 starting delay in miliseconds before the first run
      * @param period2 miliseconds a period takes
      */
-    public static void setTimer(Simulation object1, int delay1, int period1, Simulation object2, int delay2, int period2) {
-        //object timer: instance of type Timer
-        Timer timer1 = new Timer();
-        Timer timer2 = new Timer();
-
-        //object task: instance of type MyTimerTask
-        TimerTask task1 = new MyTimerTask(timer1, timer2, object1);
-        TimerTask task2 = new MyTimerTask(timer2, timer1, object2);
-
-        //Class method
-        task1.run();
-        task2.run();
-
-        //Class method
-        timer1.scheduleAtFixedRate(task1, delay1, period1);
-        timer2.scheduleAtFixedRate(task2, delay2, period2);
+    public static void schedule(SimulationScheduler scheduler, Simulation object1, int delay1, int period1, Simulation object2, int delay2, int period2) {
+        SimulationScheduler.ScheduledSimulation scheduled1 = scheduler.schedule(object1, delay1, period1, SimulationScheduler.Mode.FIXED_RATE);
+        SimulationScheduler.ScheduledSimulation scheduled2 = scheduler.schedule(object2, delay2, period2, SimulationScheduler.Mode.FIXED_RATE);
+        scheduled1.onStop(scheduled2::cancel);
+        scheduled2.onStop(scheduled1::cancel);
     }
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It hides the channel and the blocks of a file of TrajectoryRecorder behind
+ * two methods which read one ant or a window of ticks.
+ */
+
+/*
+    TrajectoryReader reads the trajectories written by TrajectoryRecorder. When the file is opened only the headers of the
+    blocks are read (where each block starts and which ticks it holds). Then:
+        scanAnt()     reads one ant: of each block of the ticks only two entries of the index and the bytes of the ant
+        scanWindow()  reads some ticks: only the blocks of the ticks, all ants of a block one after another
+    So neither has to decode the whole file, and a block of other ticks is not even read from the disk.
+
+    usage: java TrajectoryReader [file=trajectories.bin] [ant=0] [from=<first tick>] [to=<last tick>]
+           prints the blocks of the file and the positions and AntStates of one ant from tick from to tick to
+ */
+
+
+//Module/Class TrajectoryReader
+//Abstraction: Simulation
+//uses instances of FileChannel and ByteBuffer, therefore operates on a higher level of abstraction
+//gets used in TrajectoryRecorder
+public class TrajectoryReader implements AutoCloseable {
+
+    //gets every sample which has been read, the ticks of one ant are in order
+    public interface Visitor {
+        void sample(long tick, int ant, int x, int y, AntState state);
+    }
+
+    private static final AntState[] antStates = AntState.values();
+    private final FileChannel channel;
+    private final int side;
+    private final int numberOfAnts;
+    private final int blockTicks;
+    private final long[] blockPosition; // where the index of each block starts in the file
+    private final long[] blockFirstTick;
+    private final int[] blockTickCount;
+    private final long[] blockSize; // the size of the index and the ants' bytes of each block
+    private ByteBuffer readBuffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+
+    //Class method
+    /**
+     * this constructor opens the file and reads the headers of all blocks.
+     * @param file the file written by TrajectoryRecorder
+     * @throws IOException if the file can not be read or has not been written by TrajectoryRecorder of this version
+     */
+    public TrajectoryReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = read(0, TrajectoryRecorder.headerSize);
+        if (header.remaining() < TrajectoryRecorder.headerSize || header.getLong() != TrajectoryRecorder.magic) {
+            throw new IOException(file + " has not been written by TrajectoryRecorder");
+        }
+        int fileVersion = header.getInt();
+        if (fileVersion != TrajectoryRecorder.version) {
+            throw new IOException(file + " has the version " + fileVersion + ", only version " + TrajectoryRecorder.version + " can be read");
+        }
+        this.side = header.getInt();
+        this.numberOfAnts = header.getInt();
+        this.blockTicks = header.getInt();
+
+        //the blocks have different sizes, so the headers are read one after another (a block which is incomplete is left out)
+        int blocks = 0;
+        long[] positions = new long[16], firstTicks = new long[16], sizes = new long[16];
+        int[] tickCounts = new int[16];
+        long position = TrajectoryRecorder.headerSize;
+        while (position + TrajectoryRecorder.blockHeaderSize <= channel.size()) {
+            ByteBuffer block = read(position, TrajectoryRecorder.blockHeaderSize);
+            if (block.getInt() != TrajectoryRecorder.blockTag) {
+                throw new IOException("broken file: no block at position " + position);
+            }
+            long firstTick = block.getLong();
+            int tickCount = block.getInt();
+            long size = block.getLong();
+            position += TrajectoryRecorder.blockHeaderSize;
+            if (position + size > channel.size()) {
+                break;
+            }
+            if (blocks == positions.length) {
+                positions = Arrays.copyOf(positions, blocks * 2);
+                firstTicks = Arrays.copyOf(firstTicks, blocks * 2);
+                sizes = Arrays.copyOf(sizes, blocks * 2);
+                tickCounts = Arrays.copyOf(tickCounts, blocks * 2);
+            }
+            positions[blocks] = position;
+            firstTicks[blocks] = firstTick;
+            tickCounts[blocks] = tickCount;
+            sizes[blocks] = size;
+            blocks++;
+            position += size;
+        }
+        this.blockPosition = Arrays.copyOf(positions, blocks);
+        this.blockFirstTick = Arrays.copyOf(firstTicks, blocks);
+        this.blockTickCount = Arrays.copyOf(tickCounts, blocks);
+        this.blockSize = Arrays.copyOf(sizes, blocks);
+    }
+
+
+    //Class method
+    /**
+     * @return how many ants the world has (the ants are numbered like World.getAnts())
+     */
+    public int getNumberOfAnts() { return this.numberOfAnts; }
+
+
+    //Class method
+    /**
+     * @return the side length of the world
+     */
+    public int getSide() { return this.side; }
+
+
+    //Class method
+    /**
+     * @return how many blocks the file has
+     */
+    public int getBlocks() { return this.blockPosition.length; }
+
+
+    //Class method
+    /**
+     * @return the first recorded tick, 0 if nothing has been recorded
+     */
+    public long getFirstTick() { return this.blockPosition.length == 0 ? 0 : this.blockFirstTick[0]; }
+
+
+    //Class method
+    /**
+     * @return the last recorded tick, -1 if nothing has been recorded
+     */
+    public long getLastTick() {
+        int last = this.blockPosition.length - 1;
+        return last < 0 ? -1 : this.blockFirstTick[last] + this.blockTickCount[last] - 1;
+    }
+
+
+    //Class method
+    /**
+     * this method reads the samples of one ant, only its bytes of the blocks of the ticks are read.
+     * @param ant the index of the ant
+     * @param from the first tick
+     * @param to the last tick
+     * @param visitor gets the samples in the order of their ticks
+     */
+    public void scanAnt(int ant, long from, long to, Visitor visitor) throws IOException {
+        if (ant < 0 || ant >= this.numberOfAnts) {
+            throw new IndexOutOfBoundsException("there is no ant " + ant);
+        }
+        for (int block = firstBlock(from); block < this.blockPosition.length && this.blockFirstTick[block] <= to; block++) {
+            ByteBuffer index = read(this.blockPosition[block] + (long) ant * Integer.BYTES, 2 * Integer.BYTES);
+            int start = index.getInt(), end = index.getInt();
+            if (start == end) {
+                continue;
+            }
+            long columns = this.blockPosition[block] + (this.numberOfAnts + 1L) * Integer.BYTES;
+            ByteBuffer column = read(columns + start, end - start);
+            decode(column, end - start, ant, this.blockFirstTick[block], from, to, visitor);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method reads the samples of all ants from tick from to tick to, only the blocks of the ticks are read.
+     * @param from the first tick
+     * @param to the last tick
+     * @param visitor gets the samples block by block, within a block ant by ant
+     */
+    public void scanWindow(long from, long to, Visitor visitor) throws IOException {
+        for (int block = firstBlock(from); block < this.blockPosition.length && this.blockFirstTick[block] <= to; block++) {
+            if (this.blockSize[block] > Integer.MAX_VALUE) {
+                throw new IOException("the block of tick " + this.blockFirstTick[block] + " is too large");
+            }
+            ByteBuffer data = read(this.blockPosition[block], (int) this.blockSize[block]);
+            int columns = (this.numberOfAnts + 1) * Integer.BYTES;
+            for (int ant = 0; ant < this.numberOfAnts; ant++) {
+                int start = data.getInt(ant * Integer.BYTES), end = data.getInt((ant + 1) * Integer.BYTES);
+                if (start != end) {
+                    data.position(columns + start);
+                    decode(data, end - start, ant, this.blockFirstTick[block], from, to, visitor);
+                }
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method decodes the bytes of an ant in one block (see TrajectoryRecorder) and hands the samples of the ticks
+     * to the visitor. The waits before the first tick are skipped without visiting each tick.
+     * @param in the buffer, its position is the start of the ant's bytes
+     * @param length how many bytes the ant has in this block
+     * @param ant the index of the ant
+     * @param firstTick the first tick of the block
+     * @param from the first tick which is visited
+     * @param to the last tick which is visited
+     * @param visitor gets the samples
+     */
+    private void decode(ByteBuffer in, int length, int ant, long firstTick, long from, long to, Visitor visitor) {
+        int end = in.position() + length;
+        long tick = firstTick + getVarLong(in);
+        int x = (int) getVarLong(in), y = (int) getVarLong(in);
+        AntState state = antStates[(int) getVarLong(in)];
+        if (tick >= from && tick <= to) {
+            visitor.sample(tick, ant, x, y, state);
+        }
+        while (in.position() < end && tick < to) {
+            int token = (int) getVarLong(in);
+            int symbol = token / (TrajectoryRecorder.maxWaits + 1), waits = token % (TrajectoryRecorder.maxWaits + 1);
+            if (symbol < TrajectoryRecorder.newState) {
+                x = Math.floorMod(x + symbol / 3 - 1, this.side);
+                y = Math.floorMod(y + symbol % 3 - 1, this.side);
+            } else if (symbol < TrajectoryRecorder.escape) {
+                state = antStates[symbol - TrajectoryRecorder.newState];
+            } else {
+                x = Math.floorMod(x + unzigzag(getVarLong(in)), this.side);
+                y = Math.floorMod(y + unzigzag(getVarLong(in)), this.side);
+                state = antStates[(int) getVarLong(in)];
+            }
+            tick++;
+            if (tick >= from) {
+                visitor.sample(tick, ant, x, y, state);
+            }
+            //the ticks the ant waits before from do not have to be visited
+            long skipped = Math.max(0, Math.min(waits, from - tick - 1));
+            tick += skipped;
+            for (long i = skipped; i < waits && tick < to; i++) {
+                tick++;
+                visitor.sample(tick, ant, x, y, state);
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * @param tick a tick
+     * @return the first block which holds the tick or a later tick
+     */
+    private int firstBlock(long tick) {
+        int low = 0, high = this.blockPosition.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.blockFirstTick[middle] + this.blockTickCount[middle] <= tick) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    //Class method
+    /**
+     * @param position the position in the file
+     * @param length how many bytes are read
+     * @return the read buffer (shared by all reads), its position is 0 and its limit the number of bytes read
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        if (this.readBuffer.capacity() < length) {
+            this.readBuffer = ByteBuffer.allocate(Math.max(length, this.readBuffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer buffer = this.readBuffer;
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+
+    //Class method
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+
+    //Module method
+    /**
+     * @param in the buffer the value is read from
+     * @return the value written with 7 bits per byte
+     */
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = in.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+    }
+
+
+    //Module method
+    /**
+     * @param value a value written by TrajectoryRecorder.zigzag()
+     * @return the value which can be negative
+     */
+    private static int unzigzag(long value) {
+        return (int) ((value >>> 1) ^ -(value & 1));
+    }
+
+
+    //Module method of module TrajectoryReader
+    public static void main(String[] args) throws IOException {
+        Properties properties = HeadlessRunner.readArguments(args);
+        try (TrajectoryReader reader = new TrajectoryReader(Path.of(properties.getProperty("file", "trajectories.bin")))) {
+            int ant = Integer.parseInt(properties.getProperty("ant", "0"));
+            long from = Long.parseLong(properties.getProperty("from", "" + reader.getFirstTick()));
+            long to = Long.parseLong(properties.getProperty("to", "" + reader.getLastTick()));
+            System.out.printf("%d ants, side length %d, ticks %d - %d in %d blocks of %d ticks%n", reader.getNumberOfAnts(),
+                    reader.getSide(), reader.getFirstTick(), reader.getLastTick(), reader.getBlocks(), reader.blockTicks);
+            reader.scanAnt(ant, from, to, (tick, a, x, y, state) ->
+                    System.out.printf("tick %8d: (%d, %d) %s%n", tick, x, y, state.name().toLowerCase()));
+        }
+    }
+}
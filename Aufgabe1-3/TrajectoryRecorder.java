@@ -0,0 +1,493 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant
+ * for recording trajectories. The positions of each tick are handed over from the simulation thread to the recording
+ * thread by a queue, all other variables are only used by the recording thread.
+ */
+
+/*
+    TrajectoryRecorder records the position and AntState of every ant after every tick, so the paths of the ants can be
+    analysed afterwards (see TrajectoryReader). The simulation thread only copies the ants into an array (one long per
+    ant) and puts it into a bounded queue. Unlike FrameRecorder no tick may be lost, so it waits if the recording thread
+    is behind. The recording thread encodes the ticks and writes them through one direct buffer into a FileChannel.
+    The file is columnar: the ticks are split into blocks and within a block the ticks of each ant are stored together,
+    so a reader can read one ant of a block without the other ants. All numbers are little endian:
+        header  magic "PIPITRAJ" (8 bytes), format version (int), side length (int), number of ants (int), ticks per block (int)
+        block   tag "TBLK" (int), first tick (long), number of ticks (int), size of the rest of the block (long),
+                the start of each ant's bytes (number of ants + 1 ints, relative to the end of this index), the ants' bytes
+    The bytes of an ant are empty if it does not exist during the block, otherwise: the tick in the block where the ant
+    exists for the first time, x, y and the ordinal of its AntState (varints, 7 bits per byte). Then the changes from
+    tick to tick follow as tokens, a token is symbol * 8 + waits and always needs one byte:
+        symbol 0 - 8    a move to a neighbour or staying on the field ((dx + 1) * 3 + dy + 1, dx and dy are -1, 0 or 1)
+        symbol 9 - 12   staying on the field with a new AntState (9 + its ordinal)
+        symbol 13       any other change, followed by dx and dy (zigzag varints) and the ordinal of the AntState
+        waits 0 - 7     how many ticks the ant stays on the field afterwards with the same AntState
+    An ant has to wait on a field for up to four ticks before it can climb to the next one and most of the ticks are
+    such waits, so a token stands for about three ticks. The height of an ant is the height of its field, so it is not stored.
+
+    usage: java TrajectoryRecorder [file=trajectories.bin] [ticks=1000] [blockTicks=256] [key=value of the world ...]
+           records a world, reads the file again (all ticks and each ant on its own), checks that the read positions
+           are the recorded ones and prints the size of the file per ant and tick
+ */
+
+
+//Module/Class TrajectoryRecorder
+//Abstraction: Simulation
+//uses instances of World, Ant, BlockingQueue and FileChannel, therefore operates on a higher level of abstraction
+//gets used in class HeadlessRunner and TrajectoryReader, therefore operates on a lower level of abstraction
+public class TrajectoryRecorder implements AutoCloseable {
+    public static final int version = 1;
+    static final long magic = 0x4A41525449504950L; // "PIPITRAJ" as little endian long
+    static final int blockTag = 0x4B4C4254; // "TBLK" as little endian int
+    static final int headerSize = Long.BYTES + 4 * Integer.BYTES;
+    static final int blockHeaderSize = Integer.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+    static final int newState = 9; // the symbol of staying on the field with the AntState of the ordinal 0
+    static final int escape = newState + AntState.values().length; // the symbol of any other change
+    static final int maxWaits = 7;
+    static final long absent = -1; // the sample of an ant which does not exist
+    private static final int bufferSize = 1 << 20;
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.fromProperties())
+    private static final List<String> controlKeys = List.of("file", "ticks", "blockTicks");
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    private final int side;
+    private final int numberOfAnts;
+    private final int blockTicks;
+    private final BlockingQueue<long[]> queue;
+    private final BlockingQueue<long[]> free; // the arrays which have been encoded and can be filled again
+    private final Thread thread;
+    private long nextTick = -1; // the tick which has to be recorded next (only used by the simulation thread)
+    private volatile boolean closed = false;
+    private volatile IOException error; // the first error of the recording thread
+    private volatile long recorded = 0;
+    private volatile long bytes = 0;
+
+    //the state of the current block, only used by the recording thread
+    private long blockFirstTick;
+    private int blockTickCount = 0;
+    private final byte[][] columns; // the encoded bytes of each ant in the current block
+    private final int[] columnLength;
+    private final int[] lastX, lastY, lastState; // the last sample of each ant
+    private final int[] token; // where the last token of each ant is in its column, its waits get increased
+
+
+    //Class method
+    /**
+     * this constructor creates the file (it gets replaced) and starts the recording thread.
+     * @param world the world whose ants shall be recorded (only used to read its size and number of ants)
+     * @param file the file the trajectories are written to
+     * @param blockTicks how many ticks are stored in one block
+     * @param queueCapacity how many ticks can wait for the recording thread before the simulation waits
+     * @throws IOException if the file can not be created
+     */
+    public TrajectoryRecorder(World world, Path file, int blockTicks, int queueCapacity) throws IOException {
+        if (blockTicks <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("blockTicks and queueCapacity have to be positive");
+        }
+        this.side = world.getFields().length;
+        this.numberOfAnts = world.getAnts().length;
+        this.blockTicks = blockTicks;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.free = new ArrayBlockingQueue<>(queueCapacity + 2);
+        this.columns = new byte[numberOfAnts][16];
+        this.columnLength = new int[numberOfAnts];
+        this.lastX = new int[numberOfAnts];
+        this.lastY = new int[numberOfAnts];
+        this.lastState = new int[numberOfAnts];
+        this.token = new int[numberOfAnts];
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putLong(magic).putInt(version).putInt(side).putInt(numberOfAnts).putInt(blockTicks);
+        flush();
+
+        this.thread = new Thread(this::record, "TrajectoryRecorder");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+
+    //Class method
+    /**
+     * this method hands the ants of the world to the recording thread. It has to be called after every tick by the
+     * thread which runs the world (e.G with HeadlessRunner.run()), it waits if the queue is full. While it waits, it
+     * checks every 100 ms if the recording thread is still running, so the simulation does not wait forever for a
+     * thread which has stopped because of an error.
+     * @param world the world which has run a tick
+     * @throws IllegalStateException if a tick has been left out or the recording thread has stopped
+     * @throws UncheckedIOException if the recording thread could not write a block
+     */
+    public void offer(World world) {
+        checkRecording();
+        if (closed) {
+            return;
+        }
+        if (nextTick >= 0 && world.getTick() != nextTick) {
+            throw new IllegalStateException("tick " + nextTick + " has not been recorded, the trajectories have to be recorded after every tick");
+        }
+        nextTick = world.getTick() + 1;
+        long[] samples = free.poll();
+        if (samples == null) {
+            samples = new long[numberOfAnts + 1];
+        }
+        samples[0] = world.getTick();
+        Ant[] ants = world.getAnts();
+        for (int i = 0; i < numberOfAnts; i++) {
+            Ant ant = ants[i];
+            samples[i + 1] = ant == null ? absent : pack(ant.getPosition().getPosX(), ant.getPosition().getPosY(), ant.getAntState().ordinal());
+        }
+        try {
+            while (!queue.offer(samples, 100, TimeUnit.MILLISECONDS)) {
+                checkRecording();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method throws the error of the recording thread, so the simulation stops at the next tick after it.
+     * @throws IllegalStateException if the recording thread has stopped before the recorder has been closed
+     * @throws UncheckedIOException if the recording thread could not write a block
+     */
+    private void checkRecording() {
+        if (error != null) {
+            throw new UncheckedIOException(error);
+        }
+        if (!closed && !thread.isAlive()) {
+            throw new IllegalStateException("the recording thread has stopped, the trajectories are incomplete");
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method waits until all ticks of the queue are written, writes the last block and stops the recording thread.
+     * @throws IOException if a block could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+
+    //Class method
+    /**
+     * @return how many ticks have been written
+     */
+    public long getRecorded() { return recorded; }
+
+
+    //Class method
+    /**
+     * @return how many bytes have been written
+     */
+    public long getBytes() { return bytes; }
+
+
+    //Class method
+    /**
+     * this method runs on the recording thread: it takes the ticks from the queue and encodes them until the recorder
+     * is closed and the queue is empty, then it writes the last block.
+     */
+    private void record() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                long[] samples = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (samples != null) {
+                    encode(samples);
+                    free.offer(samples);
+                    recorded++;
+                }
+            }
+            writeBlock();
+        } catch (IOException e) {
+            error = e;
+            closed = true;
+        } catch (InterruptedException e) {
+            closed = true;
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method appends the samples of one tick to the columns of the ants and writes the block once it is full.
+     * @param samples the tick and the sample of each ant (see pack())
+     */
+    private void encode(long[] samples) throws IOException {
+        if (blockTickCount == 0) {
+            blockFirstTick = samples[0];
+        }
+        for (int ant = 0; ant < numberOfAnts; ant++) {
+            long sample = samples[ant + 1];
+            if (sample == absent) {
+                continue; // an ant which has been created never gets removed
+            }
+            int x = (int) (sample & 0xFFFFFF), y = (int) ((sample >>> 24) & 0xFFFFFF), state = (int) (sample >>> 48);
+            if (columnLength[ant] == 0) {
+                putVarLong(ant, blockTickCount);
+                putVarLong(ant, x);
+                putVarLong(ant, y);
+                putVarLong(ant, state);
+                token[ant] = -1;
+            } else {
+                int dx = wrap(x - lastX[ant]), dy = wrap(y - lastY[ant]);
+                boolean neighbour = Math.abs(dx) <= 1 && Math.abs(dy) <= 1;
+                if (dx == 0 && dy == 0 && state == lastState[ant] && token[ant] >= 0 && (columns[ant][token[ant]] & maxWaits) < maxWaits) {
+                    columns[ant][token[ant]]++; // one more wait
+                } else if (state == lastState[ant] && neighbour) {
+                    token[ant] = columnLength[ant];
+                    putVarLong(ant, ((dx + 1) * 3 + dy + 1) * (maxWaits + 1));
+                } else if (dx == 0 && dy == 0) {
+                    token[ant] = columnLength[ant];
+                    putVarLong(ant, (newState + state) * (maxWaits + 1));
+                } else {
+                    token[ant] = columnLength[ant];
+                    putVarLong(ant, escape * (maxWaits + 1));
+                    putVarLong(ant, zigzag(dx));
+                    putVarLong(ant, zigzag(dy));
+                    putVarLong(ant, state);
+                }
+            }
+            lastX[ant] = x;
+            lastY[ant] = y;
+            lastState[ant] = state;
+        }
+        blockTickCount++;
+        if (blockTickCount == blockTicks) {
+            writeBlock();
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method writes the current block (the header, the index and the columns of all ants) and starts a new one.
+     */
+    private void writeBlock() throws IOException {
+        if (blockTickCount == 0) {
+            return;
+        }
+        long columnBytes = 0;
+        for (int ant = 0; ant < numberOfAnts; ant++) {
+            columnBytes += columnLength[ant];
+        }
+        if (columnBytes > Integer.MAX_VALUE) {
+            throw new IOException("a block is larger than 2 GB, use less ticks per block");
+        }
+        ensure(blockHeaderSize).putInt(blockTag).putLong(blockFirstTick).putInt(blockTickCount)
+                .putLong((numberOfAnts + 1L) * Integer.BYTES + columnBytes);
+        int offset = 0;
+        for (int ant = 0; ant <= numberOfAnts; ant++) {
+            ensure(Integer.BYTES).putInt(offset);
+            offset += ant < numberOfAnts ? columnLength[ant] : 0;
+        }
+        for (int ant = 0; ant < numberOfAnts; ant++) {
+            for (int written = 0; written < columnLength[ant]; ) {
+                int length = Math.min(columnLength[ant] - written, ensure(1).remaining());
+                buffer.put(columns[ant], written, length);
+                written += length;
+            }
+            columnLength[ant] = 0;
+        }
+        flush();
+        blockTickCount = 0;
+    }
+
+
+    //Class method
+    /**
+     * @param ant the index of the ant whose column gets the value
+     * @param value a value which is at least 0, written with 7 bits per byte (small values need less bytes)
+     */
+    private void putVarLong(int ant, long value) {
+        if (columnLength[ant] + 10 > columns[ant].length) {
+            columns[ant] = Arrays.copyOf(columns[ant], columns[ant].length * 2);
+        }
+        byte[] column = columns[ant];
+        int length = columnLength[ant];
+        while ((value & ~0x7FL) != 0) {
+            column[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        column[length++] = (byte) value;
+        columnLength[ant] = length;
+    }
+
+
+    //Class method
+    /**
+     * @param delta the difference of two coordinates
+     * @return the shortest difference on the torus (moving over the edge is a difference of 1)
+     */
+    private int wrap(int delta) {
+        if (delta > side / 2) {
+            return delta - side;
+        }
+        if (delta < -side / 2) {
+            return delta + side;
+        }
+        return delta;
+    }
+
+
+    //Class method
+    /**
+     * this method writes the buffer to the channel.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        bytes += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+
+    //Class method
+    /**
+     * @param bytes how many bytes are written next
+     * @return the buffer, which has room for at least this many bytes
+     */
+    private ByteBuffer ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+        return buffer;
+    }
+
+
+    //Module method
+    /**
+     * @param x position of the ant (less than 2^24)
+     * @param y position of the ant (less than 2^24)
+     * @param state the ordinal of the AntState
+     * @return the sample of an ant in one long
+     */
+    static long pack(int x, int y, int state) {
+        return x | ((long) y << 24) | ((long) state << 48);
+    }
+
+
+    //Module method
+    /**
+     * @param value a value which can be negative
+     * @return the value as a value which is at least 0 (0, -1, 1, -2, ... become 0, 1, 2, 3, ...)
+     */
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+
+    //Module method of module TrajectoryRecorder
+    public static void main(String[] args) throws IOException {
+        Properties properties = HeadlessRunner.readArguments(args);
+        Path file = Path.of(properties.getProperty("file", "trajectories.bin"));
+        long ticks = Long.parseLong(properties.getProperty("ticks", "1000"));
+        int blockTicks = Integer.parseInt(properties.getProperty("blockTicks", "256"));
+        WorldConfig config = WorldConfig.fromProperties(properties, controlKeys);
+        System.out.println(config);
+
+        World world = config.createWorld();
+        long expected = 0; // the sum of the hashes of all samples, it does not depend on the order they are read in
+        long samples = 0;
+        long start = System.nanoTime();
+        try (TrajectoryRecorder recorder = new TrajectoryRecorder(world, file, blockTicks, 64)) {
+            for (long tick = 0; tick < ticks; tick++) {
+                world.run();
+                recorder.offer(world);
+                for (Ant ant : world.getAnts()) {
+                    if (ant != null) {
+                        samples++;
+                    }
+                }
+                expected += hashOfTick(world);
+            }
+        }
+        double recordSeconds = (System.nanoTime() - start) / 1e9;
+        long size = Files.size(file);
+        System.out.printf("file:          %s (%.2f MB, %.3f bytes per ant and tick)%n", file, size / 1e6, (double) size / samples);
+        System.out.printf("record:        %.2f s for %d ticks and the check%n", recordSeconds, ticks);
+        System.out.printf("100k ants x 100k ticks would need about %.1f GB%n", (double) size / samples * 1e10 / 1e9);
+
+        try (TrajectoryReader reader = new TrajectoryReader(file)) {
+            long[] sum = new long[1];
+            start = System.nanoTime();
+            reader.scanWindow(reader.getFirstTick(), reader.getLastTick(), (tick, ant, x, y, state) -> sum[0] += hash(tick, ant, x, y, state));
+            System.out.printf("all ticks:     %.1f ms%n", (System.nanoTime() - start) / 1e6);
+            if (sum[0] != expected) {
+                System.out.println("the ticks read differ from the recorded ticks");
+                System.exit(1);
+            }
+            sum[0] = 0;
+            start = System.nanoTime();
+            for (int ant = 0; ant < reader.getNumberOfAnts(); ant++) {
+                reader.scanAnt(ant, reader.getFirstTick(), reader.getLastTick(), (tick, a, x, y, state) -> sum[0] += hash(tick, a, x, y, state));
+            }
+            double millis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("ant by ant:    %.1f ms (%.3f ms per ant)%n", millis, millis / reader.getNumberOfAnts());
+            if (sum[0] != expected) {
+                System.out.println("the ants read differ from the recorded ants");
+                System.exit(1);
+            }
+        }
+        System.out.println("the read trajectories equal the recorded ones");
+    }
+
+
+    //Module method
+    /**
+     * @param world the world after a tick
+     * @return the sum of the hashes of the samples of all ants
+     */
+    private static long hashOfTick(World world) {
+        long sum = 0;
+        Ant[] ants = world.getAnts();
+        for (int i = 0; i < ants.length; i++) {
+            if (ants[i] != null) {
+                sum += hash(world.getTick(), i, ants[i].getPosition().getPosX(), ants[i].getPosition().getPosY(), ants[i].getAntState());
+            }
+        }
+        return sum;
+    }
+
+
+    //Module method
+    /**
+     * @return a hash of one sample (SplitMix64 of the values)
+     */
+    private static long hash(long tick, int ant, int x, int y, AntState state) {
+        long z = tick * 0x9E3779B97F4A7C15L + pack(x, y, state.ordinal()) * 0xBF58476D1CE4E5B9L + ant;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,31 +1,48 @@
-import codedraw.Palette;
-
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * STYLE:
- * this class uses objectoriented programming. It has a strong class cohesion, as it only contains methods that are relevant for World.
+ * this class uses objectoriented programming. It contains the state of the simulation and the simulation step with its
+ * phases (spawning homes, decreasing the scent, moving the ants, publishing frames), the stepping of the ants in parallel
+ * is delegated to CheckerboardStepper and ColonyStepper and the saving and loading to WorldCheckpoint (through State).
  * it uses nominal abstraction and an instance of World can be used where an instance of Simulation is needed, which means that it is replaceable
- * and it contains methods from Simulation (run()). this class has a weak object coupling as most of its methods are private (except getters).
+ * and it contains methods from Simulation (run()). Besides its getters, it has public methods for the tools which observe
+ * or control a running world (metrics, event log, frames, stepping mode, checkpoints), therefore the object coupling is not weak anymore.
  * the class' state is changeable as the class variables are not final.
  */
 
 //Modul/Class world,
 //Abstraction: real world, subtype of Simulation
-//uses instances of Field, Ant, Coordinate, HashMap,  therefore it operates on a higher level of abstraction
+//uses instances of Field, Ant, Coordinate, ColonyTally, CheckerboardStepper, ColonyStepper, EventLog, HashMap,  therefore it operates on a higher level of abstraction
 //implements the interface Simulation, therefore it is in a subtype relationship with Simulation
-//gets used by following classes: Test and Draw, therefore it operates on a lower level of abstraction
+//gets used by following classes: Test, Draw, HeadlessRunner, SimulationFarm, WorldCheckpoint and the other tools, therefore it operates on a lower level of abstraction
 public class World implements Simulation {
+    private static final VarHandle changedHandle = MethodHandles.arrayElementVarHandle(boolean[].class);
     private Ant[] ants;
     private Field[][] fields;
+    private Terrain terrain; // the heights, FieldStates and buildings of all fields
+    private ScentConfig scentConfig; // the scent parameters, shared by all fields
+    private final SimulationRandom random; // all random numbers of the world are created from its seed
     //for lambda-abstraction
-    private final java.util.function.BiFunction<Integer, Integer, Integer> randomCalculator =  (min, max) -> (int) (Math.random() * (max - min) + min);
+    private final java.util.function.BiFunction<Integer, Integer, Integer> randomCalculator;
     private int maxHeight;
     private boolean shortestPath;
-    private Map<Field, Integer> antsShortestPaths = new HashMap<>();
+    private Map<Field, Integer> antsShortestPaths = new ConcurrentHashMap<>(); // the ants of all threads update it (see SteppingMode)
     private int[] antPaths;
     private int[] dijkstraPaths;
     private Coordinate[] food;
@@ -34,12 +51,37 @@ public class World implements Simulation {
     private final int distance;
     private int currentHomes = 1; // how many homes are currently in the world or underConstruction
     private int currentHomesBuild = 0; // how many homes are already build in the world
-    private final Building[] colonies = {new Building(0, FieldState.HOME, pickColor(new Color[]{Palette.HOT_PINK, Palette.CRIMSON, new Color(255,135,141)}), Color.BLACK),
-                                         new Building(1, FieldState.HOME, pickColor(new Color[]{new Color(65,102,245), new Color (0,204,255), new Color(8,146,208)}), Color.WHITE),
-                                         new Building(2, FieldState.HOME, pickColor(new Color[]{new Color(204,255,0), new Color(0,250,154), new Color(0,255,0)}), Color.RED)};
+    private final Building[] colonies; // the buildings of all colonies, the index is the id of the colony
+    private final int[] antsPerColony; // how many ants belong to each colony, indexed by the id of the colony
+    private final AtomicLongArray deliveriesPerColony; // how often the ants of each colony brought food home, indexed by the id of the colony
+    private final ColonyTally scentTally; // sums the scent per colony of one field (stateHash)
     private final double homeSpawnChance;// how high is the chance a ant spawns a new home in each simulation step
     private final int numberOfAnts;
     private final int maxSpawnDistanceAnts = 10; // how far away the ants at max can be spawned from the colony
+    private final int maxAntMemory; // the depth of an ants memory, the same for all ants of this world
+    private boolean sketchMemory = false; // if the ants use a SketchAntMemory (constant size) instead of an ExactAntMemory
+    private IncrementalDijkstra[] homeDistances; // the distance field of each built home (only if shortestPath is true, only the first home has one: with thousands of colonies an int per field for each home would be repaired after each change of the terrain)
+    private final boolean[] homeBuilt; // if the home of each colony has been built, indexed by the id of the colony
+    private long terrainVersion = 0; // gets increased with every change of the terrain
+    private final PathCache pathCache = new PathCache(64); // the routes of the shortest paths
+    private long tick = 0; // how many simulation steps have been run
+    private long antMoves = 0; // how often an ant moved to another field
+    private volatile boolean framePublishing = false; // if a Frame shall be created after each simulation step
+    private int publishEvery = 1; // a Frame is only created after every n-th simulation step (see setFramePublishing())
+    private final AtomicReference<Frame> latestFrame = new AtomicReference<>(); // the last published Frame (lock-free handoff to Draw)
+    private boolean[] changed; // if a field has changed since the last Frame (only allocated while framePublishing is true)
+    private int[] changedCells; // the numbers (y * fieldLength + x) of the changed fields
+    private final AtomicInteger numberOfChangedCells = new AtomicInteger(); // atomic, because ants can be moved in parallel
+    private boolean fullFrame = true; // if the next Frame has to be created from all fields instead of the changed ones
+    private SimulationMetrics metrics = null; // the measurements of the simulation steps, null if they are disabled
+    private EventLog eventLog = null; // logs the inputs and key events of the simulation, null if they are not logged
+    private long expansionsBefore = 0; // the expansions of IncrementalDijkstra before the metrics have been enabled
+    private final List<Consumer<Frame>> frameListeners = new CopyOnWriteArrayList<>(); // get every published Frame (e.G FrameRecorder)
+    private SteppingMode steppingMode = SteppingMode.SEQUENTIAL; // how the ants are moved in each simulation step
+    private boolean colonyActorsInOrder = false; // COLONIES: if the actors run one after another on the world's thread (see setColonyActorsInOrder())
+    private CheckerboardStepper stepper = null; // only created if the steppingMode is CHECKERBOARD or PARALLEL
+    private ColonyStepper colonyStepper = null; // only created if the steppingMode is COLONIES
+    private List<Integer> deferredColonies = null; // while the ants move colour by colour or per colony: the colonies whose ants are created afterwards
 
     //Class method
     /**
@@ -54,45 +96,68 @@ public class World implements Simulation {
      * @param scentIncreaseStrong how strong will the scent will be increased on special conditions
      * @param scentDecrease       how strong will the scent will be decreased on each simulation step
      * @param distance            how far away the food will be placed
-     * @param maxHeight           the maximum height for fields
+     * @param maxHeight           the maximum height for fields (at most 255)
      * @param shortestPath        if the shortest path shall be calculated
-     * @param maxHomes            how many Homes will be placed at max (it will only placed one at the start but during the Simulation some ants will start to create new homes) can be between 1 and 3
+     * @param maxHomes            how many Homes will be placed at max (it will only placed one at the start but during the Simulation some ants will start to create new homes) can be between 1 and 16383 and at most numberOfAnts (every colony gets numberOfAnts / maxHomes ants)
      * @param homeSpawnChance     the chance of spawning a new ant home in each simulation step (if the maximum of homes is not reached yet)
      * @param maxAntMemory        the depth of an ants memory: if it is 0, it does not remember any fields
      */
     public World(int fieldLength, int numberOfAnts, int numberOfFood, int scentIncrease, int scentIncreaseStrong, double scentDecrease, int distance, int maxHeight, boolean shortestPath, int maxHomes, double homeSpawnChance, int maxAntMemory) {
+        this(fieldLength, numberOfAnts, numberOfFood, scentIncrease, scentIncreaseStrong, scentDecrease, distance, maxHeight, shortestPath, maxHomes, homeSpawnChance, maxAntMemory, System.nanoTime());
+    }
+
+
+    //Class method
+    /**
+     * this constructor creates the same world as the constructor above, but all random numbers (positions, heights, the
+     * moves of the ants, ...) are created from the given seed. Two worlds with the same parameters and seed are equal.
+     * @param seed the seed for all random numbers of the world
+     */
+    public World(int fieldLength, int numberOfAnts, int numberOfFood, int scentIncrease, int scentIncreaseStrong, double scentDecrease, int distance, int maxHeight, boolean shortestPath, int maxHomes, double homeSpawnChance, int maxAntMemory, long seed) {
+        this.random = new SimulationRandom(seed);
+        this.randomCalculator = (min, max) -> (int) (this.random.nextDouble() * (max - min) + min);
+        //between 1 and 16383 Colonies (the ids have to fit into the Terrain), but not more than ants, otherwise the colonies would get no ants
+        this.maxHomes = Math.max(1, Math.min(maxHomes, Math.min(numberOfAnts, Terrain.maxBuildings)));
+        this.colonies = this.createColonies(this.maxHomes);
+        this.antsPerColony = new int[this.colonies.length];
+        this.deliveriesPerColony = new AtomicLongArray(this.colonies.length);
+        this.scentTally = new ColonyTally(this.colonies.length);
 
         this.distance = distance;
-        //maximum field height
-        this.maxHeight = maxHeight;
+        //maximum field height (at most Terrain.maxHeight, because the heights are stored as bytes)
+        this.maxHeight = Math.max(0, Math.min(maxHeight, Terrain.maxHeight));
+        maxHeight = this.maxHeight;
 
         this.numberOfAnts = numberOfAnts;
-        Ant.setMaxMemory(Math.max(0,Math.min(maxAntMemory,100)));
-        this.maxHomes = Math.max(0,Math.min(maxHomes,3)); // between 1 and 3 Colonies
+        this.maxAntMemory = Math.max(0,Math.min(maxAntMemory,100));
         this.homeSpawnChance = homeSpawnChance;
 
         //set the shortest Path calculation to true;
         this.shortestPath = shortestPath;
-        this.homes = new Coordinate[maxHomes];
+        this.homes = new Coordinate[this.maxHomes];
         //random home coordinates
         this.homes[0] = new Coordinate(randomCalculator.apply(0, fieldLength), randomCalculator.apply(0, fieldLength), randomCalculator.apply(0, maxHeight + 1));
         //create firstBuilding
 
         ants = new Ant[numberOfAnts];
         fields = new Field[fieldLength][fieldLength];
+        this.terrain = new Terrain(fieldLength, this.colonies);
+        this.scentConfig = new ScentConfig(scentIncrease, scentIncreaseStrong, scentDecrease);
         this.food = new Coordinate[numberOfFood];
         this.dijkstraPaths = new int[numberOfFood];
         this.antPaths = new int[numberOfFood];
+        this.homeDistances = new IncrementalDijkstra[this.homes.length];
+        this.homeBuilt = new boolean[this.homes.length];
 
         for (int x = 0; x < fieldLength; x++) {
             for (int y = 0; y < fieldLength; y++) {
                 //object fields: instance of type Field
                 if (new Coordinate(x, y, 1).equals(this.homes[0] )) {
-                    fields[y][x] = new Field(FieldState.HOME, this.homes[0] .getPosZ(), scentIncrease, scentIncreaseStrong, scentDecrease);
+                    fields[y][x] = new Field(this.terrain, y * fieldLength + x, FieldState.HOME, this.homes[0] .getPosZ(), this.scentConfig);
                     fields[y][x].setBuilding(this.colonies[0]);
                 } else {
                     int z = chooseWeightedZCoordinate(x, y, randomCalculator.apply(0, maxHeight + 1), fieldLength, maxHeight);
-                    fields[y][x] = new Field(FieldState.NULL, z, scentIncrease, scentIncreaseStrong, scentDecrease);
+                    fields[y][x] = new Field(this.terrain, y * fieldLength + x, FieldState.NULL, z, this.scentConfig);
                 }
             }
         }
@@ -113,21 +178,138 @@ public class World implements Simulation {
         }
 
         if(shortestPath) {
+            //Note: the distance field of the first home holds the shortest path of every food, so it only has to be calculated once
+            //and gets repaired after each change of the terrain instead of running Dijkstra again for each food.
+            this.homeDistances[0] = new IncrementalDijkstra(fields, this.homes[0]);
+            this.updateDijkstraPaths();
             for(int i = 0; i < numberOfFood; i++) {
-                //Note: Dijkstra is using the procedural paradigma. It takes parameters from the objectoriented part and returns the shortest path.
-                dijkstraPaths[i] = Dijkstra.shortestPath(food[i], this.homes[0], fields);
                 antPaths[i] = Integer.MAX_VALUE;
             }
         }
     }
 
 
+    //Class method
+    /**
+     * this constructor creates the world from the state of a checkpoint (see WorldCheckpoint), it does not use random
+     * numbers. The world has no ants and no distance fields until restore() gets called.
+     * @param state the state of the world without its ants, distance fields and the scent of its fields
+     */
+    private World(State state) {
+        int fieldLength = state.fieldLength();
+        this.numberOfAnts = state.numberOfAnts();
+        this.scentConfig = state.scentConfig();
+        this.distance = state.distance();
+        this.maxHeight = state.maxHeight();
+        this.shortestPath = state.shortestPath();
+        this.maxHomes = state.maxHomes();
+        this.homeSpawnChance = state.homeSpawnChance();
+        this.maxAntMemory = state.maxAntMemory();
+        this.sketchMemory = state.sketchMemory();
+        this.setSteppingMode(state.steppingMode());
+        this.tick = state.tick();
+        this.antMoves = state.antMoves();
+        this.terrainVersion = state.terrainVersion();
+        this.random = new SimulationRandom(0);
+        this.random.setState(state.randomState());
+        this.randomCalculator = (min, max) -> (int) (this.random.nextDouble() * (max - min) + min);
+        this.currentHomes = state.currentHomes();
+        this.currentHomesBuild = state.currentHomesBuild();
+        this.colonies = state.colonies();
+        this.homes = state.homes();
+        this.homeBuilt = state.homeBuilt();
+        this.deliveriesPerColony = new AtomicLongArray(state.deliveriesPerColony());
+        this.antsPerColony = new int[this.maxHomes];
+        this.scentTally = new ColonyTally(this.maxHomes);
+        this.terrain = state.terrain();
+        this.fields = new Field[fieldLength][fieldLength];
+        for (int y = 0; y < fieldLength; y++) {
+            for (int x = 0; x < fieldLength; x++) {
+                this.fields[y][x] = new Field(this.terrain, y * fieldLength + x, this.scentConfig);
+            }
+        }
+        this.food = state.food();
+        this.antPaths = state.antPaths();
+        this.dijkstraPaths = new int[this.food.length];
+        state.antsShortestPaths().forEach((cell, path) -> this.antsShortestPaths.put(this.fields[cell / fieldLength][cell % fieldLength], path));
+        this.homeDistances = new IncrementalDijkstra[this.maxHomes];
+        this.ants = new Ant[this.numberOfAnts];
+    }
+
+
+    //Module method
+    /**
+     * @param state the state of a checkpoint (see WorldCheckpoint.load())
+     * @return a new world with this state, its ants and distance fields get set with restore()
+     */
+    public static World fromState(State state) {
+        return new World(state);
+    }
+
+
+    //Class method
+    /**
+     * this method sets the distance fields and the ants of a world which has been created by fromState(). The ants are
+     * not on their fields yet, WorldCheckpoint adds them and the scent to the fields afterwards.
+     * @param homeDistances the distance field of each home (null if the home has none)
+     * @param ants the ants of the world, the ants of colonies which have not been founded yet are null
+     */
+    public void restore(IncrementalDijkstra[] homeDistances, Ant[] ants) {
+        this.homeDistances = homeDistances;
+        if (this.shortestPath) {
+            this.updateDijkstraPaths();
+        }
+        this.ants = ants;
+        for (Ant ant : ants) {
+            if (ant != null) {
+                this.antsPerColony[ant.getAntColony().id]++;
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method returns the state of the world without its ants, distance fields and the scent of its fields, which
+     * WorldCheckpoint writes first. The arrays are the ones of the world and not copies, so it has to be called by the
+     * thread which runs the world (between two ticks).
+     * @return the state of the world
+     */
+    public State getState() {
+        long[] deliveries = new long[this.maxHomes];
+        for (int id = 0; id < this.maxHomes; id++) {
+            deliveries[id] = this.deliveriesPerColony.get(id);
+        }
+        Map<Integer, Integer> shortestPaths = new HashMap<>();
+        this.antsShortestPaths.forEach((field, path) -> shortestPaths.put(field.getCell(), path));
+        return new State(this.fields.length, this.numberOfAnts, this.scentConfig, this.distance, this.maxHeight,
+                this.shortestPath, this.maxHomes, this.homeSpawnChance, this.maxAntMemory, this.sketchMemory,
+                this.steppingMode, this.tick, this.antMoves, this.terrainVersion, this.random.getState(),
+                this.currentHomes, this.currentHomesBuild, this.colonies, this.homes, this.homeBuilt, deliveries,
+                this.terrain, this.food, this.antPaths, shortestPaths);
+    }
+
+
+    //Class method
+    /**
+     * @return the distance field of each home, null if the home has none
+     */
+    public IncrementalDijkstra[] getHomeDistances() { return this.homeDistances; }
+
+
     //Class method
     /**
      * This method create new Ants for a given antColony
      * @param colonyId id of the colony for which the ants will be created
      */
     public void createAnts(int colonyId) {
+        if (this.deferredColonies != null) {
+            //the ants array must not change while the ants move colour by colour
+            synchronized (this.deferredColonies) {
+                this.deferredColonies.add(colonyId);
+            }
+            return;
+        }
         int minY = this.homes[colonyId].getPosY() - Math.min(distance,maxSpawnDistanceAnts);
         int maxY = this.homes[colonyId].getPosY() + Math.min(distance,maxSpawnDistanceAnts);
         int minX = this.homes[colonyId].getPosX() - Math.min(distance,maxSpawnDistanceAnts);
@@ -139,8 +321,10 @@ public class World implements Simulation {
             //object antsPos: instance of type Coordinate
             ants[i] = new Ant(Coordinate.checkCoordinate(new Coordinate(xCoordinateAnts, yCoordinateAnts, 1), fields.length, fields.length, this.fields),
                     this, antsShortestPaths,this.colonies[colonyId]);
+            this.antsPerColony[colonyId]++;
         }
         this.currentHomesBuild++;
+        this.homeBuilt[colonyId] = true;
     }
 
 
@@ -153,6 +337,42 @@ public class World implements Simulation {
     }
 
 
+    //Class method
+    /**
+     * this method chooses the ant which founds the next colony: the first ant of the first colony, or if the first colony
+     * has no ants left (with many colonies each colony only has a few ants) the first ant of the colony with the most ants.
+     * @return the ant or null if there is no ant
+     */
+    private Ant findFounder() {
+        int colony = 0;
+        if (this.antsPerColony[0] == 0) {
+            for (int i = 1; i < this.antsPerColony.length; i++) {
+                if (this.antsPerColony[i] > this.antsPerColony[colony]) {
+                    colony = i;
+                }
+            }
+        }
+        if (this.antsPerColony[colony] > 0) {
+            for (Ant ant : this.ants) {
+                //the ants of colonies which have not been founded yet are null
+                if (ant != null && ant.getAntColony().id == colony) {
+                    return ant;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    //Class method
+    /**
+     * @return the ants of the world, the ants of colonies which have not been founded yet are null
+     */
+    public Ant[] getAnts() {
+        return this.ants;
+    }
+
+
     //Class method
     /**
      * this method decreases the scent on each field, spawns new ant buildings if the maximum of homes has not been reached
@@ -161,33 +381,653 @@ public class World implements Simulation {
      */
     @Override
     public boolean run() {
-            if (this.currentHomes< this.maxHomes && Math.random()<this.homeSpawnChance) {
+            SimulationMetrics metrics = this.metrics; // null if the metrics are disabled
+            long tickStart = metrics == null ? 0 : System.nanoTime();
+            SimulationEvents.Tick tickEvent = new SimulationEvents.Tick();
+            tickEvent.begin();
+            long movesBefore = this.antMoves;
+            if (this.currentHomes< this.maxHomes && this.random.nextDouble()<this.homeSpawnChance) {
                 this.currentHomes++;
-                Ant ant = Arrays.stream(ants).filter(a -> a.getAntColony().id ==0).findFirst().orElse(null);
+                Ant ant = this.findFounder();
                 if(ant != null) {
                         Coordinate homeCoordinate;
                         do {
                             homeCoordinate = this.getNewFoodCoordinate(this.fields.length, this.homes[0],this.distance);
                         } while(this.fields[homeCoordinate.getPosY()][homeCoordinate.getPosX()].getFieldState()!=FieldState.NULL);
                     this.homes[this.currentHomes-1] = homeCoordinate;
+                    this.antsPerColony[ant.getAntColony().id]--;
                     ant.createNewColony(this.colonies[this.currentHomes-1],homeCoordinate);
+                    this.antsPerColony[this.currentHomes-1]++;
                 }
             }
-            for (Field[] fieldRow : this.fields) {
-                for (Field field : fieldRow) {
-                    field.decreaseScent();
+            long phaseStart = measure(metrics, SimulationMetrics.Phase.SPAWN, tickStart);
+            IntStream rows = IntStream.range(0, this.fields.length);
+            //the rows are independent, so they can be decreased in parallel
+            boolean parallel = this.steppingMode == SteppingMode.PARALLEL || this.steppingMode == SteppingMode.COLONIES;
+            (parallel ? rows.parallel() : rows).forEach(y -> {
+                for (int x = 0; x < this.fields.length; x++) {
+                    //fields without scent do not change
+                    if (!this.fields[y][x].getAntScent().isEmpty()) {
+                        this.fields[y][x].decreaseScent();
+                        this.markChanged(x, y);
+                    }
                 }
+            });
+            phaseStart = measure(metrics, SimulationMetrics.Phase.SCENT, phaseStart);
+            if (this.steppingMode == SteppingMode.COLONIES) {
+                this.moveAntsPerColony(metrics);
+            } else if (this.steppingMode == SteppingMode.SEQUENTIAL) {
+                for (Ant ant : ants) {
+                    if(ant != null) {
+                        //at first not all ants are existing
+                        if (ant.move()) {
+                            this.antMoves++;
+                            if (metrics != null) {
+                                metrics.countMove();
+                            }
+                        }
+                    }
+                }
+            } else {
+                this.moveAntsColourByColour(metrics);
             }
-            for (Ant ant : ants) {
-                if(ant != null) {
-                    //at first not all ants are existing
-                    ant.move();
+            phaseStart = measure(metrics, SimulationMetrics.Phase.ANTS, phaseStart);
+            this.tick++;
+            if (this.framePublishing && this.tick % this.publishEvery == 0) {
+                this.publishFrame();
+                measure(metrics, SimulationMetrics.Phase.FRAME, phaseStart);
+            }
+            measure(metrics, SimulationMetrics.Phase.TICK, tickStart);
+            tickEvent.end();
+            if (tickEvent.shouldCommit()) {
+                tickEvent.tick = this.tick;
+                tickEvent.sideLength = this.fields.length;
+                for (Ant ant : this.ants) {
+                    tickEvent.ants += ant != null ? 1 : 0;
                 }
+                tickEvent.moves = this.antMoves - movesBefore;
+                tickEvent.commit();
+            }
+            if (this.eventLog != null) {
+                this.eventLog.tickEnded(this);
             }
             return true;
     }
 
 
+    //Class method
+    /**
+     * this method moves every ant once with the CheckerboardStepper. Colonies which are founded meanwhile get their ants
+     * afterwards (ordered by their id), so the ants array does not change while the ants move.
+     * @param metrics the metrics of the world or null
+     */
+    private void moveAntsColourByColour(SimulationMetrics metrics) {
+        if (this.stepper == null) {
+            this.stepper = new CheckerboardStepper(this.fields.length);
+        }
+        this.deferredColonies = new ArrayList<>();
+        long moves = this.stepper.step(this.ants, this.steppingMode == SteppingMode.PARALLEL);
+        List<Integer> colonies = this.deferredColonies;
+        this.deferredColonies = null;
+        Collections.sort(colonies);
+        for (int colonyId : colonies) {
+            this.createAnts(colonyId);
+        }
+        this.antMoves += moves;
+        if (metrics != null) {
+            metrics.countMoves(moves);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method moves the ants of each colony on a thread of its own (see ColonyStepper). Colonies which are founded
+     * meanwhile get their ants afterwards (ordered by their id).
+     * @param metrics the metrics of the world or null
+     */
+    private void moveAntsPerColony(SimulationMetrics metrics) {
+        if (this.colonyStepper == null) {
+            this.colonyStepper = new ColonyStepper(this.fields.length, this.colonies.length);
+        }
+        this.deferredColonies = new ArrayList<>();
+        long moves = this.colonyStepper.step(this.ants, this.fields, this.colonyActorsInOrder);
+        List<Integer> colonies = this.deferredColonies;
+        this.deferredColonies = null;
+        Collections.sort(colonies);
+        for (int colonyId : colonies) {
+            this.createAnts(colonyId);
+        }
+        this.antMoves += moves;
+        if (metrics != null) {
+            metrics.countMoves(moves);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method chooses how run() moves the ants (see SteppingMode). It has to be called before the world gets started or by its thread.
+     * @param steppingMode SEQUENTIAL, CHECKERBOARD, PARALLEL or COLONIES
+     */
+    public void setSteppingMode(SteppingMode steppingMode) {
+        this.steppingMode = steppingMode;
+        if (this.eventLog != null) {
+            this.eventLog.steppingModeChanged(this.tick, steppingMode);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method lets the colony actors of SteppingMode.COLONIES run one after another (ordered by the id of the colony)
+     * on the thread which runs the world instead of at the same time. The ants read the other colonies from the snapshot
+     * of the start of the tick, so the result has to be the same as with the actors on their own threads: SteppingCheck
+     * uses a world with the actors in order as the reference of COLONIES.
+     * @param colonyActorsInOrder true if the actors shall run one after another
+     */
+    public void setColonyActorsInOrder(boolean colonyActorsInOrder) { this.colonyActorsInOrder = colonyActorsInOrder; }
+
+
+    //Class method
+    /**
+     * @return how run() moves the ants
+     */
+    public SteppingMode getSteppingMode() { return this.steppingMode; }
+
+
+    //Class method
+    /**
+     * @return the stepper which moves the ants in the stepping mode COLONIES (null before the first tick in this mode)
+     */
+    public ColonyStepper getColonyStepper() { return this.colonyStepper; }
+
+
+    //Class method
+    /**
+     * this method sets the log of the inputs (setHeight(), placeObstacle(), ...) and key events of this world (see
+     * EventLog and Replay). It has to be called before the world gets started or by its thread, the inputs have to be
+     * made by the thread which runs the world (between two ticks), so they are logged with the right tick.
+     * @param eventLog the log, null if nothing shall be logged
+     */
+    public void setEventLog(EventLog eventLog) { this.eventLog = eventLog; }
+
+
+    //Class method
+    /**
+     * this method calculates a hash of the state of the world: the tick, the ant moves, the position, AntState and colony
+     * of every ant and the height, FieldState, building and scent per colony of every field. Two worlds which have run the
+     * same simulation have the same hash, so it can be used to check that a simulation is deterministic.
+     * @return the hash of the current state
+     */
+    public long stateHash() {
+        long hash = mixHash(mixHash(0, this.tick), this.antMoves);
+        for (Ant ant : this.ants) {
+            if (ant == null) {
+                hash = mixHash(hash, -1);
+            } else {
+                hash = mixHash(hash, ant.getPosition().getPosX());
+                hash = mixHash(hash, ant.getPosition().getPosY());
+                hash = mixHash(hash, ant.getAntState().ordinal());
+                hash = mixHash(hash, ant.getAntColony().id);
+            }
+        }
+        for (Field[] row : this.fields) {
+            for (Field field : row) {
+                hash = mixHash(hash, field.getHeight());
+                hash = mixHash(hash, field.getFieldState().ordinal());
+                hash = mixHash(hash, field.getBuilding() == null ? -1 : field.getBuilding().id);
+                if (!field.getAntScent().isEmpty()) {
+                    //the colonies are mixed in independent of their order and summed, so the order of the map does not matter
+                    this.scentTally.clear();
+                    field.addScentPerColony(this.scentTally);
+                    long scentHash = 0;
+                    for (int i = 0; i < this.scentTally.size(); i++) {
+                        int colony = this.scentTally.colony(i);
+                        scentHash += mixHash(mixHash(0, colony), this.scentTally.get(colony));
+                    }
+                    hash = mixHash(hash, scentHash);
+                }
+            }
+        }
+        return hash;
+    }
+
+
+    //Module method
+    /**
+     * @param hash the hash so far
+     * @param value the next value
+     * @return the hash with the value mixed in (FNV-1a on the whole value)
+     */
+    private static long mixHash(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L;
+    }
+
+
+    //Class method
+    /**
+     * this method changes the height of a field and repairs the distance fields of all homes.
+     * @param x position of the field
+     * @param y position of the field
+     * @param height the new height, it will be kept between 0 and maxHeight
+     */
+    public void setHeight(int x, int y, int height) {
+        this.fields[y][x].setHeight(Math.max(0, Math.min(height, this.maxHeight)));
+        this.markChanged(x, y);
+        this.terrainChanged(x, y);
+        if (this.eventLog != null) {
+            this.eventLog.heightChanged(this.tick, x, y, this.fields[y][x].getHeight());
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method places an obstacle on an empty field. Ants and the shortest paths can not cross obstacles.
+     * @param x position of the field
+     * @param y position of the field
+     * @return true if the obstacle has been placed, false if the field is not empty (home, food or obstacle)
+     */
+    public boolean placeObstacle(int x, int y) {
+        if (this.fields[y][x].getFieldState() != FieldState.NULL) {
+            return false;
+        }
+        this.fields[y][x].setFieldState(FieldState.OBSTACLE);
+        this.markChanged(x, y);
+        this.terrainChanged(x, y);
+        if (this.eventLog != null) {
+            this.eventLog.obstaclePlaced(this.tick, x, y);
+        }
+        return true;
+    }
+
+
+    //Class method
+    /**
+     * this method removes an obstacle from a field.
+     * @param x position of the field
+     * @param y position of the field
+     * @return true if the obstacle has been removed, false if there was no obstacle on the field
+     */
+    public boolean removeObstacle(int x, int y) {
+        if (this.fields[y][x].getFieldState() != FieldState.OBSTACLE) {
+            return false;
+        }
+        this.fields[y][x].setFieldState(FieldState.NULL);
+        this.markChanged(x, y);
+        this.terrainChanged(x, y);
+        if (this.eventLog != null) {
+            this.eventLog.obstacleRemoved(this.tick, x, y);
+        }
+        return true;
+    }
+
+
+    //Class method
+    /**
+     * this method turns the creation of a Frame after each simulation step on or off. It is off by default, because
+     * it is only needed if the world gets drawn. While it is on, the world remembers which fields have changed, so the
+     * next Frame only has to look at these fields. It has to be called before the world gets started or by its thread.
+     * @param framePublishing true if a Frame shall be published after each simulation step
+     */
+    public void setFramePublishing(boolean framePublishing) {
+        this.setFramePublishing(framePublishing, 1);
+    }
+
+
+    //Class method
+    /**
+     * this method works like setFramePublishing(), but a Frame is only created after every n-th simulation step (e.G
+     * for a FrameRecorder which only records every n-th frame), so no Frame is created for nothing. The changes of the
+     * steps in between are remembered, so the next Frame still only has to look at the changed fields.
+     * @param framePublishing true if a Frame shall be published
+     * @param everyNthTick a Frame is published after the simulation steps whose tick is a multiple of this number
+     */
+    public void setFramePublishing(boolean framePublishing, int everyNthTick) {
+        if (everyNthTick <= 0) {
+            throw new IllegalArgumentException("everyNthTick has to be positive");
+        }
+        this.publishEvery = everyNthTick;
+        if (framePublishing && this.changed == null) {
+            int cells = this.fields.length * this.fields.length;
+            this.changed = new boolean[cells];
+            this.changedCells = new int[cells];
+            this.numberOfChangedCells.set(0);
+            this.fullFrame = true; // the changes before have not been remembered
+        } else if (!framePublishing) {
+            this.changed = null;
+            this.changedCells = null;
+        }
+        this.framePublishing = framePublishing;
+    }
+
+
+    //Class method
+    /**
+     * this method creates a snapshot of the current state and replaces the latest frame with it. It has to be called
+     * by the thread which runs the world (run() calls it if framePublishing is true).
+     * If the changed fields are known, the new frame is created from the latest frame and only the changed fields.
+     */
+    public void publishFrame() {
+        Frame previous = this.latestFrame.get();
+        if (previous == null || this.fullFrame || this.changed == null) {
+            this.latestFrame.set(new Frame(this));
+            this.fullFrame = this.changed == null;
+        } else {
+            this.latestFrame.set(new Frame(this, previous, this.changedCells, this.numberOfChangedCells.get()));
+        }
+        for (Consumer<Frame> listener : this.frameListeners) {
+            listener.accept(this.latestFrame.get());
+        }
+        if (this.changed != null) {
+            for (int i = 0; i < this.numberOfChangedCells.get(); i++) {
+                this.changed[this.changedCells[i]] = false;
+            }
+            this.numberOfChangedCells.set(0);
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method remembers that a field has changed (scent, ants, state or height), so it gets drawn again.
+     * It does nothing if framePublishing is false. The ants of different colonies can mark the same field at the same
+     * time (see SteppingMode.COLONIES), so a field is marked with compareAndSet and counted with an atomic number.
+     * @param x position of the field
+     * @param y position of the field
+     */
+    public void markChanged(int x, int y) {
+        boolean[] changed = this.changed;
+        if (changed == null) {
+            return;
+        }
+        int cell = y * this.fields.length + x;
+        if (!changed[cell] && changedHandle.compareAndSet(changed, cell, false, true)) {
+            this.changedCells[this.numberOfChangedCells.getAndIncrement()] = cell;
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method adds a listener which gets every published Frame on the thread which runs the world, so it should
+     * only hand the frame to another thread (e.G FrameRecorder.offer()). Note: frames are only published if
+     * framePublishing is true.
+     * @param listener gets called with every published frame
+     */
+    public void addFrameListener(Consumer<Frame> listener) { this.frameListeners.add(listener); }
+
+
+    //Class method
+    /**
+     * @param listener the listener which shall not get any more frames
+     */
+    public void removeFrameListener(Consumer<Frame> listener) { this.frameListeners.remove(listener); }
+
+
+    //Class method
+    /**
+     * this method can be called by any thread, it never blocks. Older frames which have not been read are skipped.
+     * @return the last published Frame or null if no frame has been published yet
+     */
+    public Frame getLatestFrame() { return this.latestFrame.get(); }
+
+
+    //Class method
+    /**
+     * @return the buildings of all colonies, the index is the id of the colony
+     */
+    public Building[] getColonies() { return this.colonies; }
+
+
+    //Class method
+    /**
+     * @param colonyId id of the colony
+     * @return how many ants belong to the colony
+     */
+    public int getAntsOfColony(int colonyId) { return this.antsPerColony[colonyId]; }
+
+
+    //Class method
+    /**
+     * @param colonyId id of the colony
+     * @return how often the ants of the colony have brought food home
+     */
+    public long getDeliveriesOfColony(int colonyId) { return this.deliveriesPerColony.get(colonyId); }
+
+
+    //Class method
+    /**
+     * @return the depth of an ants memory (0 - 100), the same for all ants of this world
+     */
+    public int getMaxAntMemory() { return this.maxAntMemory; }
+
+
+    //Class method
+    /**
+     * this method chooses the memory of the ants: an ExactAntMemory grows with every field an ant has visited, a
+     * SketchAntMemory has a constant size but can count a field too often. The ants which already exist get a new
+     * empty memory, so it should be called right after the constructor (see WorldConfig.createWorld()).
+     * @param sketchMemory true if the ants shall use a SketchAntMemory
+     */
+    public void setSketchMemory(boolean sketchMemory) {
+        this.sketchMemory = sketchMemory;
+        for (Ant ant : this.ants) {
+            if (ant != null) {
+                ant.setMemory(this.newAntMemory());
+            }
+        }
+        if (this.eventLog != null) {
+            this.eventLog.sketchMemoryChanged(this.tick, sketchMemory);
+        }
+    }
+
+
+    //Class method
+    /**
+     * @return a new empty memory for an ant of this world (see setSketchMemory())
+     */
+    public AntMemory newAntMemory() {
+        return this.sketchMemory ? new SketchAntMemory() : new ExactAntMemory();
+    }
+
+
+    //Class method
+    /**
+     * this method is used to give every ant its own random numbers, which are still created from the seed of the world.
+     * @return a new seed
+     */
+    public long nextSeed() { return this.random.nextLong(); }
+
+
+    //Class method
+    /**
+     * @return how many simulation steps have been run
+     */
+    public long getTick() { return this.tick; }
+
+
+    //Class method
+    /**
+     * @return how often an ant moved to another field since the world has been created
+     */
+    public long getAntMoves() { return this.antMoves; }
+
+
+    //Class method
+    /**
+     * this method turns the metrics (durations of the phases of each simulation step and counters, see SimulationMetrics)
+     * on or off. They are off by default, then they only cost a null check per phase.
+     * Turning them on again starts new metrics. It has to be called before the world gets started or by its thread.
+     * @param enabled true if the simulation steps shall be measured
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        this.metrics = enabled ? new SimulationMetrics() : null;
+        this.expansionsBefore = this.getDijkstraExpansions();
+    }
+
+
+    //Class method
+    /**
+     * @return a copy of the current metrics or null if they are disabled. It should be called by the thread which runs the world.
+     */
+    public SimulationMetrics.Snapshot getMetrics() {
+        SimulationMetrics metrics = this.metrics;
+        return metrics == null ? null : metrics.snapshot(this.tick, this.getDijkstraExpansions() - this.expansionsBefore);
+    }
+
+
+    //Class method
+    /**
+     * this method gets called by an ant whenever its AntState changes.
+     * @param ant the ant whose state has changed
+     * @param from the old state
+     * @param to the new state
+     */
+    public void antStateChanged(Ant ant, AntState from, AntState to) {
+        if (this.metrics != null) {
+            this.metrics.countStateTransition();
+        }
+        SimulationEvents.AntStateChanged event = new SimulationEvents.AntStateChanged();
+        if (event.isEnabled()) {
+            event.colony = ant.getAntColony().id;
+            event.from = from.name();
+            event.to = to.name();
+            event.x = ant.getPosition().getPosX();
+            event.y = ant.getPosition().getPosY();
+            event.commit();
+        }
+        if (to == AntState.CARRYING) {
+            SimulationEvents.FoodPickup pickup = new SimulationEvents.FoodPickup();
+            if (pickup.isEnabled()) {
+                pickup.colony = ant.getAntColony().id;
+                pickup.x = ant.getPosition().getPosX();
+                pickup.y = ant.getPosition().getPosY();
+                pickup.commit();
+            }
+        } else if (from == AntState.CARRYING && to == AntState.SEARCHING) {
+            this.deliveriesPerColony.incrementAndGet(ant.getAntColony().id);
+            SimulationEvents.FoodDelivery delivery = new SimulationEvents.FoodDelivery();
+            if (delivery.isEnabled()) {
+                delivery.colony = ant.getAntColony().id;
+                delivery.x = ant.getPosition().getPosX();
+                delivery.y = ant.getPosition().getPosY();
+                delivery.commit();
+            }
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method gets called by an ant which has founded a new colony on its field.
+     * @param ant the ant which has founded the colony
+     */
+    public void colonyFounded(Ant ant) {
+        SimulationEvents.ColonyFounded event = new SimulationEvents.ColonyFounded();
+        if (event.isEnabled()) {
+            event.colony = ant.getAntColony().id;
+            event.x = ant.getPosition().getPosX();
+            event.y = ant.getPosition().getPosY();
+            event.tick = this.tick;
+            event.commit();
+        }
+        if (this.eventLog != null) {
+            //the colony gets founded while the tick runs, so it can be seen after it
+            this.eventLog.colonyFounded(this.tick + 1, ant.getAntColony().id, ant.getPosition().getPosX(), ant.getPosition().getPosY());
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method gets called by an ant whenever it increases the scent of a field.
+     * @param ant the ant which has increased the scent
+     */
+    public void scentDeposited(Ant ant) {
+        if (this.metrics != null) {
+            this.metrics.countScentDeposit();
+        }
+    }
+
+
+    //Class method
+    /**
+     * @return how many homes have been built so far
+     */
+    public int getHomesBuilt() { return this.currentHomesBuild; }
+
+
+    //Class method
+    /**
+     * @return the maximum number of homes in this world
+     */
+    public int getMaxHomes() { return this.maxHomes; }
+
+
+    //Class method
+    /**
+     * this method compares the ants' shortest paths with the dijkstra paths. Only works if shortestPath is true.
+     * @return the highest ratio (ants' path / dijkstra path) of all reachable food, 1.0 means the ants found
+     *         the shortest path for every food. Double.POSITIVE_INFINITY if the ants have not found a path for every food yet
+     */
+    public double getConvergenceRatio() {
+        if (!this.shortestPath) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double ratio = 1.0;
+        for (int i = 0; i < this.food.length; i++) {
+            if (this.dijkstraPaths[i] <= 0) {
+                continue; // the food can not be reached
+            }
+            int antsPath = this.antsShortestPaths.get(this.fields[this.food[i].getPosY()][this.food[i].getPosX()]);
+            if (antsPath == Integer.MAX_VALUE) {
+                return Double.POSITIVE_INFINITY;
+            }
+            ratio = Math.max(ratio, (double) antsPath / this.dijkstraPaths[i]);
+        }
+        return ratio;
+    }
+
+
+    //Class method
+    /**
+     * this method checks if the ants found paths for all food which are not much longer than the dijkstra paths.
+     * Only works if shortestPath is true.
+     * @param ratio how much longer the ants' path can be, e.G 1.2 means 20% longer than the dijkstra path
+     * @return true if the ants' shortest path of every reachable food is at most ratio times the dijkstra path
+     */
+    public boolean hasConverged(double ratio) {
+        return this.getConvergenceRatio() <= ratio;
+    }
+
+
+    //Class method
+    /**
+     * @param foodIndex the index of the food (see foods())
+     * @return the fields of the shortest route from the food to the first home (see Dijkstra.shortestRoute()),
+     *         it only gets calculated again after the terrain has changed
+     */
+    public int[] getShortestRoute(int foodIndex) {
+        return this.pathCache.getRoute(this.food[foodIndex], this.homes[0], this.terrainVersion, this.fields);
+    }
+
+
+    //Class method
+    /**
+     * @return the version of the terrain, it changes with every change of heights or obstacles
+     */
+    public long getTerrainVersion() { return this.terrainVersion; }
+
+
+    //Class method
+    /**
+     * @return the cache which holds the shortest routes
+     */
+    public PathCache getPathCache() { return this.pathCache; }
+
+
     //Class method
     /**
      * @return the maximum height a field can have in this world
@@ -220,7 +1060,7 @@ public class World implements Simulation {
     /**
      * @return a map which holds the ants' discovered shortest paths for each food field
      */
-    public Map getAntsShortestPath() { return this.antsShortestPaths; };
+    public Map<Field, Integer> getAntsShortestPath() { return this.antsShortestPaths; };
 
 
     //Class method
@@ -303,7 +1143,110 @@ public class World implements Simulation {
         return 0;
     }
 
+    //Module method
+    /**
+     * this method records the duration of a phase if the metrics are enabled.
+     * @param metrics the metrics of the world or null if they are disabled
+     * @param phase the phase which has ended
+     * @param start the time (System.nanoTime()) the phase has started
+     * @return the current time, which is the start of the next phase (0 if the metrics are disabled)
+     */
+    private static long measure(SimulationMetrics metrics, SimulationMetrics.Phase phase, long start) {
+        if (metrics == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        metrics.record(phase, now - start);
+        return now;
+    }
+
+
+    //Class method
+    /**
+     * @return how many fields the IncrementalDijkstra of all homes have expanded since the world has been created
+     */
+    private long getDijkstraExpansions() {
+        long expansions = 0;
+        for (IncrementalDijkstra homeDistance : this.homeDistances) {
+            if (homeDistance != null) {
+                expansions += homeDistance.getExpansions();
+            }
+        }
+        return expansions;
+    }
+
+
+    //Class method
+    /**
+     * this method repairs the distance fields of all built homes after a field has been changed
+     * @param x position of the changed field
+     * @param y position of the changed field
+     */
+    private void terrainChanged(int x, int y) {
+        this.terrainVersion++;
+        for (IncrementalDijkstra homeDistance : this.homeDistances) {
+            if (homeDistance != null) {
+                homeDistance.cellChanged(x, y);
+                homeDistance.repair();
+            }
+        }
+        if (this.shortestPath) {
+            this.updateDijkstraPaths();
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method reads the shortest path of each food from the distance field of the first home
+     */
+    private void updateDijkstraPaths() {
+        for (int i = 0; i < this.food.length; i++) {
+            int distance = this.homeDistances[0].getDistance(this.food[i].getPosX(), this.food[i].getPosY());
+            this.dijkstraPaths[i] = distance == IncrementalDijkstra.INFINITY ? -1 : distance;
+        }
+    }
+
+
     private Color pickColor(Color[] colors) {
-        return colors[(int)(Math.random()*colors.length)];
+        return colors[this.random.nextInt(colors.length)];
+    }
+
+
+    //Class method
+    /**
+     * this method creates the buildings of all colonies. The first three colonies get one of their hand-picked colors, the
+     * others a hue which is rotated by the golden angle for each colony, so neighbouring ids get clearly different colors.
+     * @param numberOfColonies how many colonies the world can have (at least 1)
+     * @return the buildings, the index is the id of the colony
+     */
+    private Building[] createColonies(int numberOfColonies) {
+        Color[][] scentColors = {{new Color(255,105,180), new Color(220,20,60), new Color(255,135,141)},
+                                 {new Color(65,102,245), new Color (0,204,255), new Color(8,146,208)},
+                                 {new Color(204,255,0), new Color(0,250,154), new Color(0,255,0)}};
+        Color[] antColors = {Color.BLACK, Color.WHITE, Color.RED};
+        Building[] colonies = new Building[numberOfColonies];
+        for (int id = 0; id < scentColors.length; id++) {
+            Color scentColor = pickColor(scentColors[id]); // always picked, so the random numbers of a seeded world do not depend on maxHomes
+            if (id < numberOfColonies) {
+                colonies[id] = new Building(id, FieldState.HOME, scentColor, antColors[id]);
+            }
+        }
+        for (int id = scentColors.length; id < numberOfColonies; id++) {
+            float hue = (float) ((id * 0.618033988749895) % 1.0);
+            colonies[id] = new Building(id, FieldState.HOME, Color.getHSBColor(hue, 0.6f, 1f), Color.getHSBColor(hue, 1f, 0.4f));
+        }
+        return colonies;
+    }
+
+
+    //Modul/Class State
+    //Abstraction: the state of a World without its ants, distance fields and the scent of its fields (see WorldCheckpoint)
+    public record State(int fieldLength, int numberOfAnts, ScentConfig scentConfig, int distance, int maxHeight,
+                        boolean shortestPath, int maxHomes, double homeSpawnChance, int maxAntMemory, boolean sketchMemory,
+                        SteppingMode steppingMode, long tick, long antMoves, long terrainVersion, long randomState,
+                        int currentHomes, int currentHomesBuild, Building[] colonies, Coordinate[] homes,
+                        boolean[] homeBuilt, long[] deliveriesPerColony, Terrain terrain, Coordinate[] food,
+                        int[] antPaths, Map<Integer, Integer> antsShortestPaths) {
     }
 }
@@ -0,0 +1,597 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * STYLE:
+ * This class uses the procedural paradigm for saving and loading (static methods), the classes Output and Input are
+ * objectoriented: they hide the channel and the buffer behind methods which read and write primitive values.
+ */
+
+/*
+    WorldCheckpoint saves the whole state of a World into a binary file and creates the world again from it, so a long
+    simulation can be continued after a crash or on another machine. The loaded world runs exactly like the saved one
+    would have run (the same World.stateHash() after every tick).
+    The file is a header followed by the sections of the world, all numbers are little endian:
+        header      magic "PIPICKPT" (8 bytes), format version (int), size of the file (long)
+        parameters  the parameters of the World constructor, sketchMemory and the SteppingMode
+        progress    tick, ant moves, version of the terrain, state of the SimulationRandom, homes founded and built
+        colonies    per colony: scentColor, antColor, home coordinate, if the home is built, food deliveries
+        terrain     the heights (one byte per field) and states (one short per field, see Terrain)
+        food        the food coordinates, the ants' shortest path of each food
+        distances   the distance field (int per field) of each home which has one, so it does not have to be calculated again
+        ants        per ant: position, direction, AntState, the counters of the path, colony, state of its SimulationRandom
+                    and its memory (ExactAntMemory or SketchAntMemory)
+        fields      per field with scent or ants: the scent of each ant and the ants on the field (as index in the ants)
+    Every section starts with its tag, so a broken or wrong file is noticed while loading instead of creating a wrong world.
+    The first sections are the World.State of the world (see World.getState()), the world is created from it before the
+    distance fields and the ants are read, because they refer to its fields and colonies.
+    Writing goes through one direct buffer which is written to the FileChannel whenever it is full. Reading maps the file
+    window by window (memory mapping), so neither needs the whole file in the heap. The file is written next to the
+    target and moved over it at the end, so a crash while saving does not destroy the last checkpoint.
+
+    usage: java WorldCheckpoint [file=checkpoint.bin] [ticks=1000] [after=200] [key=value of the world ...]
+           runs a world for the given ticks, saves and loads it and checks that both worlds have the same state hash
+           for the next ticks (after). It prints the size of the file and how long saving and loading took.
+    e.G    java -Xmx6g WorldCheckpoint fieldLength=2000 numberOfAnts=100000 sketchMemory=true ticks=200 after=20
+ */
+
+
+//Module/Class WorldCheckpoint
+//Abstraction: Simulation
+//uses instances of World, World.State, Terrain, IncrementalDijkstra, Ant, Field, WorldConfig, FileChannel and MappedByteBuffer, therefore operates on a higher level of abstraction
+//gets used in HeadlessRunner and World
+public class WorldCheckpoint {
+    public static final int version = 1;
+    private static final long magic = 0x54504B4349504950L; // "PIPICKPT" as little endian long
+    private static final int bufferSize = 1 << 20; // the buffer of Output
+    private static final int windowSize = 1 << 26; // how much of the file Input maps at once
+    //the keys of the arguments which are not parameters of the World constructor (see WorldConfig.fromProperties())
+    private static final List<String> controlKeys = List.of("file", "ticks", "after");
+    //the tags of the sections
+    private static final int sectionParameters = 1, sectionProgress = 2, sectionColonies = 3, sectionTerrain = 4,
+            sectionFood = 5, sectionDistances = 6, sectionAnts = 7, sectionFields = 8, sectionEnd = 9;
+
+
+    //Module method of module WorldCheckpoint
+    public static void main(String[] args) throws IOException {
+        Properties properties = HeadlessRunner.readArguments(args);
+        Path file = Path.of(properties.getProperty("file", "checkpoint.bin"));
+        long ticks = Long.parseLong(properties.getProperty("ticks", "1000"));
+        long after = Long.parseLong(properties.getProperty("after", "200"));
+        WorldConfig config = WorldConfig.fromProperties(properties, controlKeys);
+        System.out.println(config);
+
+        World world = config.createWorld();
+        for (long tick = 0; tick < ticks; tick++) {
+            world.run();
+        }
+        long start = System.nanoTime();
+        save(world, file);
+        double saveMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        World loaded = load(file);
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("file:   %s (%.1f MB)%n", file, Files.size(file) / 1e6);
+        System.out.printf("save:   %.1f ms%n", saveMillis);
+        System.out.printf("load:   %.1f ms%n", loadMillis);
+
+        for (long tick = 0; tick <= after; tick++) {
+            if (world.stateHash() != loaded.stateHash()) {
+                System.out.println("the loaded world differs after " + tick + " ticks");
+                System.exit(1);
+            }
+            world.run();
+            loaded.run();
+        }
+        System.out.println("the loaded world equals the saved world for " + after + " ticks");
+    }
+
+
+    //Module method
+    /**
+     * this method saves the world into the file. It has to be called by the thread which runs the world (between two ticks).
+     * @param world the world which shall be saved
+     * @param file the file of the checkpoint, it gets replaced
+     */
+    public static void save(World world, Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putLong(magic);
+            out.putInt(version);
+            out.putLong(0); // the size of the file, written at the end
+            write(world, out);
+            out.flush();
+            ByteBuffer size = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, channel.position());
+            channel.write(size, Long.BYTES + Integer.BYTES);
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    //Module method
+    /**
+     * @param file the file of the checkpoint
+     * @return a new world with the state of the saved world
+     * @throws IOException if the file can not be read or is not a checkpoint of this version
+     */
+    public static World load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            if (in.getLong() != magic) {
+                throw new IOException(file + " is not a checkpoint");
+            }
+            int fileVersion = in.getInt();
+            if (fileVersion != version) {
+                throw new IOException(file + " has the checkpoint version " + fileVersion + ", only version " + version + " can be read");
+            }
+            if (in.getLong() != channel.size()) {
+                throw new IOException(file + " is incomplete");
+            }
+            return read(in);
+        }
+    }
+
+
+    //Module method
+    /**
+     * this method writes the sections of the world (see the description above). Metrics, frames and listeners are not
+     * written.
+     * @param world the world which shall be saved
+     * @param out the checkpoint, after its header
+     */
+    private static void write(World world, Output out) throws IOException {
+        World.State state = world.getState();
+        int fieldLength = state.fieldLength();
+        out.section(sectionParameters);
+        out.putInt(fieldLength);
+        out.putInt(state.numberOfAnts());
+        out.putInt(state.food().length);
+        out.putInt(state.scentConfig().scentIncrease);
+        out.putInt(state.scentConfig().scentIncreaseStrong);
+        out.putDouble(state.scentConfig().scentDecrease);
+        out.putInt(state.distance());
+        out.putInt(state.maxHeight());
+        out.putBoolean(state.shortestPath());
+        out.putInt(state.maxHomes());
+        out.putDouble(state.homeSpawnChance());
+        out.putInt(state.maxAntMemory());
+        out.putBoolean(state.sketchMemory());
+        out.putByte(state.steppingMode().ordinal());
+
+        out.section(sectionProgress);
+        out.putLong(state.tick());
+        out.putLong(state.antMoves());
+        out.putLong(state.terrainVersion());
+        out.putLong(state.randomState());
+        out.putInt(state.currentHomes());
+        out.putInt(state.currentHomesBuild());
+
+        out.section(sectionColonies);
+        for (int id = 0; id < state.maxHomes(); id++) {
+            out.putInt(state.colonies()[id].scentColor.getRGB());
+            out.putInt(state.colonies()[id].antColor.getRGB());
+            Coordinate home = state.homes()[id];
+            out.putBoolean(home != null);
+            if (home != null) {
+                out.putInt(home.getPosX());
+                out.putInt(home.getPosY());
+                out.putInt(home.getPosZ());
+            }
+            out.putBoolean(state.homeBuilt()[id]);
+            out.putLong(state.deliveriesPerColony()[id]);
+        }
+
+        out.section(sectionTerrain);
+        state.terrain().writeCheckpoint(out);
+
+        out.section(sectionFood);
+        for (int i = 0; i < state.food().length; i++) {
+            out.putInt(state.food()[i].getPosX());
+            out.putInt(state.food()[i].getPosY());
+            out.putInt(state.food()[i].getPosZ());
+            out.putInt(state.antPaths()[i]);
+        }
+        out.putInt(state.antsShortestPaths().size());
+        for (Map.Entry<Integer, Integer> entry : state.antsShortestPaths().entrySet()) {
+            out.putInt(entry.getKey());
+            out.putInt(entry.getValue());
+        }
+
+        out.section(sectionDistances);
+        for (IncrementalDijkstra homeDistance : world.getHomeDistances()) {
+            out.putBoolean(homeDistance != null);
+            if (homeDistance != null) {
+                homeDistance.writeCheckpoint(out);
+            }
+        }
+
+        out.section(sectionAnts);
+        Ant[] ants = world.getAnts();
+        Map<Ant, Integer> antIndex = new IdentityHashMap<>();
+        for (int i = 0; i < ants.length; i++) {
+            out.putBoolean(ants[i] != null);
+            if (ants[i] != null) {
+                ants[i].writeCheckpoint(out);
+                antIndex.put(ants[i], i);
+            }
+        }
+
+        //only the fields with scent or ants are written, each with its cell, the list ends with -1
+        out.section(sectionFields);
+        Field[][] fields = world.getFields();
+        for (int cell = 0; cell < fieldLength * fieldLength; cell++) {
+            Field field = fields[cell / fieldLength][cell % fieldLength];
+            Map<Ant, Integer> scent = field.getAntScent();
+            List<Ant> antsOnField = field.getAntsOnField();
+            if (scent.isEmpty() && antsOnField.isEmpty()) {
+                continue;
+            }
+            out.putInt(cell);
+            out.putInt(scent.size());
+            for (Map.Entry<Ant, Integer> entry : scent.entrySet()) {
+                out.putInt(antIndex.get(entry.getKey()));
+                out.putInt(entry.getValue());
+            }
+            out.putInt(antsOnField.size());
+            for (Ant ant : antsOnField) {
+                out.putInt(antIndex.get(ant));
+            }
+        }
+        out.putInt(-1);
+        out.section(sectionEnd);
+    }
+
+
+    //Module method
+    /**
+     * this method reads the sections which have been written by write(), it does not use random numbers.
+     * @param in the checkpoint, after its header
+     * @return a new world with the state of the saved world
+     */
+    private static World read(Input in) throws IOException {
+        in.section(sectionParameters);
+        int fieldLength = in.getInt();
+        int numberOfAnts = in.getInt();
+        int numberOfFood = in.getInt();
+        ScentConfig scentConfig = new ScentConfig(in.getInt(), in.getInt(), in.getDouble());
+        int distance = in.getInt();
+        int maxHeight = in.getInt();
+        boolean shortestPath = in.getBoolean();
+        int maxHomes = in.getInt();
+        double homeSpawnChance = in.getDouble();
+        int maxAntMemory = in.getInt();
+        boolean sketchMemory = in.getBoolean();
+        SteppingMode steppingMode = SteppingMode.values()[in.getByte()];
+
+        in.section(sectionProgress);
+        long tick = in.getLong();
+        long antMoves = in.getLong();
+        long terrainVersion = in.getLong();
+        long randomState = in.getLong();
+        int currentHomes = in.getInt();
+        int currentHomesBuild = in.getInt();
+
+        in.section(sectionColonies);
+        Building[] colonies = new Building[maxHomes];
+        Coordinate[] homes = new Coordinate[maxHomes];
+        boolean[] homeBuilt = new boolean[maxHomes];
+        long[] deliveries = new long[maxHomes];
+        for (int id = 0; id < maxHomes; id++) {
+            colonies[id] = new Building(id, FieldState.HOME, new Color(in.getInt()), new Color(in.getInt()));
+            homes[id] = in.getBoolean() ? new Coordinate(in.getInt(), in.getInt(), in.getInt()) : null;
+            homeBuilt[id] = in.getBoolean();
+            deliveries[id] = in.getLong();
+        }
+
+        in.section(sectionTerrain);
+        Terrain terrain = new Terrain(fieldLength, colonies);
+        terrain.readCheckpoint(in);
+
+        in.section(sectionFood);
+        Coordinate[] food = new Coordinate[numberOfFood];
+        int[] antPaths = new int[numberOfFood];
+        for (int i = 0; i < numberOfFood; i++) {
+            food[i] = new Coordinate(in.getInt(), in.getInt(), in.getInt());
+            antPaths[i] = in.getInt();
+        }
+        Map<Integer, Integer> shortestPaths = new HashMap<>();
+        int numberOfShortestPaths = in.getInt();
+        for (int i = 0; i < numberOfShortestPaths; i++) {
+            shortestPaths.put(in.getInt(), in.getInt());
+        }
+        World world = World.fromState(new World.State(fieldLength, numberOfAnts, scentConfig, distance, maxHeight,
+                shortestPath, maxHomes, homeSpawnChance, maxAntMemory, sketchMemory, steppingMode, tick, antMoves,
+                terrainVersion, randomState, currentHomes, currentHomesBuild, colonies, homes, homeBuilt, deliveries,
+                terrain, food, antPaths, shortestPaths));
+
+        in.section(sectionDistances);
+        IncrementalDijkstra[] homeDistances = new IncrementalDijkstra[maxHomes];
+        for (int id = 0; id < maxHomes; id++) {
+            if (in.getBoolean()) {
+                homeDistances[id] = new IncrementalDijkstra(world.getFields(), in);
+            }
+        }
+
+        in.section(sectionAnts);
+        Ant[] ants = new Ant[numberOfAnts];
+        for (int i = 0; i < ants.length; i++) {
+            if (in.getBoolean()) {
+                ants[i] = new Ant(world, world.getAntsShortestPath(), in);
+            }
+        }
+        world.restore(homeDistances, ants);
+
+        in.section(sectionFields);
+        Field[][] fields = world.getFields();
+        for (int cell = in.getInt(); cell >= 0; cell = in.getInt()) {
+            Field field = fields[cell / fieldLength][cell % fieldLength];
+            int scents = in.getInt();
+            for (int i = 0; i < scents; i++) {
+                field.restoreScent(ants[in.getInt()], in.getInt());
+            }
+            int antsOnField = in.getInt();
+            for (int i = 0; i < antsOnField; i++) {
+                field.addAnt(ants[in.getInt()]);
+            }
+        }
+        in.section(sectionEnd);
+        return world;
+    }
+
+
+    //Module/Class Output
+    //writes primitive values into a direct buffer, which gets written to the channel whenever it is full
+    public static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+
+
+        //Class method
+        /**
+         * @param channel the channel the values are written to (at its current position)
+         */
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+
+        //Class method
+        /**
+         * this method writes the tag of a section, which gets checked by Input.section().
+         * @param tag the tag of the section
+         */
+        public void section(int tag) throws IOException { putInt(tag); }
+
+
+        //Class method
+        public void putByte(int value) throws IOException { ensure(Byte.BYTES).put((byte) value); }
+
+
+        //Class method
+        public void putBoolean(boolean value) throws IOException { putByte(value ? 1 : 0); }
+
+
+        //Class method
+        public void putShort(int value) throws IOException { ensure(Short.BYTES).putShort((short) value); }
+
+
+        //Class method
+        public void putInt(int value) throws IOException { ensure(Integer.BYTES).putInt(value); }
+
+
+        //Class method
+        public void putLong(long value) throws IOException { ensure(Long.BYTES).putLong(value); }
+
+
+        //Class method
+        public void putDouble(double value) throws IOException { ensure(Double.BYTES).putDouble(value); }
+
+
+        //Class method
+        /**
+         * @param values the bytes which are written (without their length)
+         */
+        public void putBytes(byte[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, ensure(1).remaining());
+                buffer.put(values, offset, length);
+                offset += length;
+            }
+        }
+
+
+        //Class method
+        /**
+         * @param values the shorts which are written (without their length)
+         */
+        public void putShorts(short[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, ensure(Short.BYTES).remaining() / Short.BYTES);
+                buffer.asShortBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Short.BYTES);
+                offset += length;
+            }
+        }
+
+
+        //Class method
+        /**
+         * @param values the ints which are written (without their length)
+         */
+        public void putInts(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, ensure(Integer.BYTES).remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+
+        //Class method
+        /**
+         * this method writes the buffer to the channel.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+
+        //Class method
+        /**
+         * @param bytes how many bytes are written next
+         * @return the buffer, which has room for at least this many bytes
+         */
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+    }
+
+
+    //Module/Class Input
+    //reads primitive values from the channel, which is mapped into memory window by window
+    public static final class Input {
+        private final FileChannel channel;
+        private MappedByteBuffer window; // the mapped part of the file
+        private long windowStart = 0; // the position of the window in the file
+
+
+        //Class method
+        /**
+         * @param channel the channel the values are read from (from its start)
+         */
+        private Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.map(0);
+        }
+
+
+        //Class method
+        /**
+         * this method reads the tag of a section and checks that it is the expected one.
+         * @param tag the tag which has been written by Output.section()
+         */
+        public void section(int tag) throws IOException {
+            int read = getInt();
+            if (read != tag) {
+                throw new IOException("broken checkpoint: expected section " + Integer.toHexString(tag) + " but found " + Integer.toHexString(read));
+            }
+        }
+
+
+        //Class method
+        public int getByte() throws IOException { return ensure(Byte.BYTES).get(); }
+
+
+        //Class method
+        public boolean getBoolean() throws IOException { return getByte() != 0; }
+
+
+        //Class method
+        public int getShort() throws IOException { return ensure(Short.BYTES).getShort(); }
+
+
+        //Class method
+        public int getInt() throws IOException { return ensure(Integer.BYTES).getInt(); }
+
+
+        //Class method
+        public long getLong() throws IOException { return ensure(Long.BYTES).getLong(); }
+
+
+        //Class method
+        public double getDouble() throws IOException { return ensure(Double.BYTES).getDouble(); }
+
+
+        //Class method
+        /**
+         * @param values the array which is filled with the next bytes
+         */
+        public void getBytes(byte[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, ensure(1).remaining());
+                window.get(values, offset, length);
+                offset += length;
+            }
+        }
+
+
+        //Class method
+        /**
+         * @param values the array which is filled with the next shorts
+         */
+        public void getShorts(short[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, ensure(Short.BYTES).remaining() / Short.BYTES);
+                window.asShortBuffer().get(values, offset, length);
+                window.position(window.position() + length * Short.BYTES);
+                offset += length;
+            }
+        }
+
+
+        //Class method
+        /**
+         * @param values the array which is filled with the next ints
+         */
+        public void getInts(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, ensure(Integer.BYTES).remaining() / Integer.BYTES);
+                window.asIntBuffer().get(values, offset, length);
+                window.position(window.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+
+        //Class method
+        /**
+         * @param bytes how many bytes are read next
+         * @return the window, which has at least this many bytes left
+         */
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                map(windowStart + window.position());
+                if (window.remaining() < bytes) {
+                    throw new IOException("broken checkpoint: the file ends too early");
+                }
+            }
+            return window;
+        }
+
+
+        //Class method
+        /**
+         * this method maps the next window of the file.
+         * @param position the position in the file where the window starts
+         */
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, channel.size() - position));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * STYLE: Procedural programming
+ * this class is used as a record that holds all parameters needed to create a World.
+ * all variables are public therefore no getters or setters are needed
+ */
+
+//Class/module WorldConfig
+//uses World and Properties, gets used in HeadlessRunner, SimulationFarm, ParameterSweep and the other tools
+public class WorldConfig {
+
+    //the parameters of the World constructor, the default values are the ones of Simulation2 in Test
+    public int fieldLength = 20;
+    public int numberOfAnts = 25;
+    public int numberOfFood = 6;
+    public int scentIncrease = 12;
+    public int scentIncreaseStrong = 24;
+    public double scentDecrease = 0.97;
+    public int distance = -1; // -1: a sixth of the fieldLength
+    public int maxHeight = 3;
+    public boolean shortestPath = true;
+    public int maxHomes = 2;
+    public double homeSpawnChance = 0.02;
+    public int maxAntMemory = 10;
+    public boolean sketchMemory = false; // if the ants use a SketchAntMemory instead of an ExactAntMemory (see World.setSketchMemory())
+    public SteppingMode stepping = SteppingMode.SEQUENTIAL; // how the ants are moved (see World.setSteppingMode())
+    public long seed = System.nanoTime(); // the seed for all random numbers of the world
+
+
+    //the names of the parameters of the World constructor (and seed), the keys of set(), get() and typeOf()
+    public static final List<String> parameterNames = List.of("fieldLength", "numberOfAnts", "numberOfFood", "scentIncrease",
+            "scentIncreaseStrong", "scentDecrease", "distance", "maxHeight", "shortestPath", "maxHomes", "homeSpawnChance",
+            "maxAntMemory", "sketchMemory", "stepping", "seed");
+
+
+    //Module method
+    /**
+     * this method reads the parameters from properties, the keys are the names of the parameters of the World constructor.
+     * Missing keys keep their default value.
+     * @param properties the properties which hold the parameters
+     * @return a new WorldConfig
+     * @throws IllegalArgumentException if a key is not a parameter
+     */
+    public static WorldConfig fromProperties(Properties properties) {
+        return fromProperties(properties, List.of());
+    }
+
+
+    //Module method
+    /**
+     * this method reads the parameters from the arguments of a tool, the keys are the names of the parameters of the
+     * World constructor or the keys the tool reads itself (e.G ticks). Missing keys keep their default value.
+     * @param properties the properties which hold the parameters
+     * @param controlKeys the keys which the tool reads itself, they are skipped
+     * @return a new WorldConfig
+     * @throws IllegalArgumentException if a key is neither a parameter nor a control key (e.G a misspelled parameter)
+     */
+    public static WorldConfig fromProperties(Properties properties, List<String> controlKeys) {
+        WorldConfig config = new WorldConfig();
+        for (String name : properties.stringPropertyNames()) {
+            checkKey(name, controlKeys);
+            if (!controlKeys.contains(name)) {
+                config.set(name, properties.getProperty(name));
+            }
+        }
+        return config;
+    }
+
+
+    //Module method
+    /**
+     * this method checks a key of the arguments of a tool, so a misspelled parameter is not ignored silently.
+     * @param name the key
+     * @param controlKeys the keys which the tool reads itself
+     * @throws IllegalArgumentException if the key is neither a parameter nor a control key
+     */
+    public static void checkKey(String name, List<String> controlKeys) {
+        if (!parameterNames.contains(name) && !controlKeys.contains(name)) {
+            throw new IllegalArgumentException("unknown key: " + name + " (the keys are the parameters " + parameterNames
+                    + (controlKeys.isEmpty() ? "" : " and " + controlKeys) + ")");
+        }
+    }
+
+
+    //Class method
+    /**
+     * this method sets a parameter by its name.
+     * @param name the name of the parameter of the World constructor (or seed)
+     * @param value the new value
+     * @return false if there is no parameter with this name
+     */
+    public boolean set(String name, String value) {
+        switch (name) {
+            case "fieldLength" -> fieldLength = Integer.parseInt(value);
+            case "numberOfAnts" -> numberOfAnts = Integer.parseInt(value);
+            case "numberOfFood" -> numberOfFood = Integer.parseInt(value);
+            case "scentIncrease" -> scentIncrease = Integer.parseInt(value);
+            case "scentIncreaseStrong" -> scentIncreaseStrong = Integer.parseInt(value);
+            case "scentDecrease" -> scentDecrease = Double.parseDouble(value);
+            case "distance" -> distance = Integer.parseInt(value);
+            case "maxHeight" -> maxHeight = Integer.parseInt(value);
+            case "shortestPath" -> shortestPath = Boolean.parseBoolean(value);
+            case "maxHomes" -> maxHomes = Integer.parseInt(value);
+            case "homeSpawnChance" -> homeSpawnChance = Double.parseDouble(value);
+            case "maxAntMemory" -> maxAntMemory = Integer.parseInt(value);
+            case "sketchMemory" -> sketchMemory = Boolean.parseBoolean(value);
+            case "stepping" -> stepping = SteppingMode.valueOf(value.toUpperCase());
+            case "seed" -> seed = Long.parseLong(value);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    //Class method
+    /**
+     * @param name the name of the parameter of the World constructor (or seed)
+     * @return the value of the parameter as text
+     */
+    public String get(String name) {
+        return switch (name) {
+            case "fieldLength" -> "" + fieldLength;
+            case "numberOfAnts" -> "" + numberOfAnts;
+            case "numberOfFood" -> "" + numberOfFood;
+            case "scentIncrease" -> "" + scentIncrease;
+            case "scentIncreaseStrong" -> "" + scentIncreaseStrong;
+            case "scentDecrease" -> "" + scentDecrease;
+            case "distance" -> "" + distance;
+            case "maxHeight" -> "" + maxHeight;
+            case "shortestPath" -> "" + shortestPath;
+            case "maxHomes" -> "" + maxHomes;
+            case "homeSpawnChance" -> "" + homeSpawnChance;
+            case "maxAntMemory" -> "" + maxAntMemory;
+            case "sketchMemory" -> "" + sketchMemory;
+            case "stepping" -> stepping.name().toLowerCase();
+            case "seed" -> "" + seed;
+            default -> throw new IllegalArgumentException("unknown parameter: " + name);
+        };
+    }
+
+
+    //Module method
+    /**
+     * @param name the name of the parameter of the World constructor (or seed)
+     * @return the type of the parameter (int.class, long.class, double.class, boolean.class or SteppingMode.class)
+     */
+    public static Class<?> typeOf(String name) {
+        return switch (name) {
+            case "fieldLength", "numberOfAnts", "numberOfFood", "scentIncrease", "scentIncreaseStrong", "distance",
+                 "maxHeight", "maxHomes", "maxAntMemory" -> int.class;
+            case "scentDecrease", "homeSpawnChance" -> double.class;
+            case "shortestPath", "sketchMemory" -> boolean.class;
+            case "stepping" -> SteppingMode.class;
+            case "seed" -> long.class;
+            default -> throw new IllegalArgumentException("unknown parameter: " + name);
+        };
+    }
+
+
+    //Class method
+    /**
+     * @return a copy of this config (e.G to change the seed for another world)
+     */
+    public WorldConfig copy() {
+        WorldConfig copy = new WorldConfig();
+        copy.fieldLength = fieldLength;
+        copy.numberOfAnts = numberOfAnts;
+        copy.numberOfFood = numberOfFood;
+        copy.scentIncrease = scentIncrease;
+        copy.scentIncreaseStrong = scentIncreaseStrong;
+        copy.scentDecrease = scentDecrease;
+        copy.distance = distance;
+        copy.maxHeight = maxHeight;
+        copy.shortestPath = shortestPath;
+        copy.maxHomes = maxHomes;
+        copy.homeSpawnChance = homeSpawnChance;
+        copy.maxAntMemory = maxAntMemory;
+        copy.sketchMemory = sketchMemory;
+        copy.stepping = stepping;
+        copy.seed = seed;
+        return copy;
+    }
+
+
+    //Class method
+    /**
+     * @return a new World with the parameters of this config
+     */
+    public World createWorld() {
+        int distance = this.distance < 0 ? (int) Math.ceil(this.fieldLength / 6.0) : this.distance;
+        World world = new World(fieldLength, numberOfAnts, numberOfFood, scentIncrease, scentIncreaseStrong, scentDecrease,
+                distance, maxHeight, shortestPath, maxHomes, homeSpawnChance, maxAntMemory, seed);
+        world.setSketchMemory(sketchMemory);
+        world.setSteppingMode(stepping);
+        return world;
+    }
+
+
+    //Class method
+    @Override
+    /**
+     * this method defines how the parameters are printed
+     */
+    public String toString() {
+        return "fieldLength=" + fieldLength +
+                " numberOfAnts=" + numberOfAnts +
+                " numberOfFood=" + numberOfFood +
+                " scentIncrease=" + scentIncrease +
+                " scentIncreaseStrong=" + scentIncreaseStrong +
+                " scentDecrease=" + scentDecrease +
+                " distance=" + distance +
+                " maxHeight=" + maxHeight +
+                " shortestPath=" + shortestPath +
+                " maxHomes=" + maxHomes +
+                " homeSpawnChance=" + homeSpawnChance +
+                " maxAntMemory=" + maxAntMemory +
+                " sketchMemory=" + sketchMemory +
+                " stepping=" + stepping.name().toLowerCase() +
+                " seed=" + seed;
+    }
+}
@@ -0,0 +1,155 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * STYLE:
+ * This class uses objectoriented programming. It only contains the JMH benchmarks, the work of each benchmark is a
+ * Workload of the class Benchmarks.
+ */
+
+/*
+    SimulationBenchmarks are the JMH benchmarks of the hot paths of the simulation (see Benchmarks for the description
+    of each benchmark). JMH does not allow benchmarks in the default package and a class in a package can not use the
+    classes of the default package, so the Workloads are created once per trial by reflection (Benchmarks.workload())
+    and only used through Runnable and LongSupplier afterwards.
+    Each benchmark gets its own Workload, which creates its own seeded worlds of each size, so no benchmark sees the
+    changes of another one. The benchmarks which change what they measure (move-<state>, decreaseScent) run one tick
+    of their worlds before each invocation (Level.Invocation, not measured).
+    JMH measures the time of one invocation: one tick, the moves of all ants in the state, the scent of all fields, one
+    path, ... (the fallback harness of Benchmarks divides it by the number of moves or fields instead).
+
+    usage: gradle jmh [-Pjmh='<JMH options> <regular expression of the benchmarks>']
+    e.G    gradle jmh -Pjmh='-p sideLength=20,250 move'
+ */
+
+
+//Module/Class SimulationBenchmarks
+//Abstraction: Simulation
+//uses the Workloads of Benchmarks and JMH, therefore operates on a higher level of abstraction
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SimulationBenchmarks {
+
+    //Modul/Class Worlds
+    //Abstraction: Simulation, the Workload of one benchmark and size
+    @State(Scope.Thread)
+    public static class Worlds {
+        @Param({"5", "20", "250", "2000"})
+        public int sideLength;
+
+        @Param({"42"})
+        public long seed;
+
+        Runnable prepare; // runs a tick of the worlds (nothing if the benchmark does not change its worlds)
+        LongSupplier operation;
+
+
+        //Class method
+        /**
+         * this method creates the Workload of the benchmark, the name of the Workload is the name of the benchmark
+         * method (moveCarrying -> move-carrying).
+         * @param params the parameters of the benchmark which is run
+         * @throws ReflectiveOperationException if Benchmarks is not on the class path
+         */
+        @Setup(Level.Trial)
+        public void create(BenchmarkParams params) throws ReflectiveOperationException {
+            String method = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+            String name = method.startsWith("move") ? "move-" + method.substring(4).toLowerCase() : method;
+            Object workload = Class.forName("Benchmarks").getMethod("workload", String.class, int.class, long.class)
+                    .invoke(null, name, sideLength, seed);
+            this.prepare = (Runnable) workload;
+            this.operation = (LongSupplier) workload;
+        }
+    }
+
+
+    //Modul/Class TickedWorlds
+    //Abstraction: Simulation, the Workload of a benchmark whose worlds run one tick before each invocation
+    @State(Scope.Thread)
+    public static class TickedWorlds extends Worlds {
+
+        //Class method
+        /**
+         * this method runs one tick of the worlds before each invocation, so the ants and the scent are like in a
+         * running world and not like after thousands of measured invocations.
+         */
+        @Setup(Level.Invocation)
+        public void tick() {
+            prepare.run();
+        }
+    }
+
+
+    @Benchmark
+    public void construct(Worlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void tick(Worlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void moveExploring(TickedWorlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void moveSearching(TickedWorlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void moveCarrying(TickedWorlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void moveCreatinghome(TickedWorlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void decreaseScent(TickedWorlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void getScentPerBuilding(Worlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+
+
+    @Benchmark
+    public void dijkstra(Worlds worlds, Blackhole blackhole) {
+        blackhole.consume(worlds.operation.getAsLong());
+    }
+}